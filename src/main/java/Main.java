@@ -1,4 +1,9 @@
+import airline.util.ExecutionMode;
+import db.StorageProfile;
+
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -8,9 +13,25 @@ import java.util.Scanner;
  * the JavaFX-based graphical user interface (GUI) or starts the
  * command-line interface (CLI) for managing the airline’s fleet.
  * </p>
+ * <p>
+ * The flag {@value #VIRTUAL_THREADS_FLAG}, anywhere among the arguments, switches the application to
+ * {@link ExecutionMode#VIRTUAL}: CLI sessions, import jobs and asynchronous airline operations then
+ * run on virtual threads, and their database calls on a small platform-thread pool.
+ * </p>
+ * <p>
+ * The flag {@value #STORAGE_FLAG}{@code <name>} chooses the SQLite {@link StorageProfile} preset,
+ * "throughput" (the default) or "durability"; it is the same as setting the system property
+ * {@value StorageProfile#PROPERTY}.
+ * </p>
  */
 public class Main {
 
+    /** Command-line flag that enables virtual threads. */
+    static final String VIRTUAL_THREADS_FLAG = "--virtual-threads";
+
+    /** Command-line flag prefix that chooses the storage profile, e.g. {@code --storage=durability}. */
+    static final String STORAGE_FLAG = "--storage=";
+
     /**
      * Main method that determines which interface to launch.
      * <p>
@@ -25,8 +46,11 @@ public class Main {
      *                   the CLI is started.</li>
      *               <li>All other cases launch the GUI.</li>
      *             </ul>
+     *             The {@value #VIRTUAL_THREADS_FLAG} and {@value #STORAGE_FLAG} flags are removed
+     *             before the arguments are examined.
      */
     public static void main(String[] args) {
+        args = applyStorageProfile(applyExecutionMode(args));
         // If the first argument is "cli", start the text-based interface.
         if (args.length > 0 && args[0].equalsIgnoreCase("cli")) {
             runCLI();
@@ -36,6 +60,49 @@ public class Main {
         }
     }
 
+    /**
+     * Sets the {@link ExecutionMode} from the command-line flags and removes them from the arguments.
+     *
+     * @param args the command-line arguments
+     * @return the remaining arguments, in their original order
+     */
+    static String[] applyExecutionMode(String[] args) {
+        List<String> rest = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equalsIgnoreCase(VIRTUAL_THREADS_FLAG)) {
+                ExecutionMode.set(ExecutionMode.VIRTUAL);
+            } else {
+                rest.add(arg);
+            }
+        }
+        return rest.toArray(String[]::new);
+    }
+
+    /**
+     * Sets the storage profile system property from the command-line flag and removes the flag from
+     * the arguments. An unknown profile name is reported and ignored.
+     *
+     * @param args the command-line arguments
+     * @return the remaining arguments, in their original order
+     */
+    static String[] applyStorageProfile(String[] args) {
+        List<String> rest = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.regionMatches(true, 0, STORAGE_FLAG, 0, STORAGE_FLAG.length())) {
+                String name = arg.substring(STORAGE_FLAG.length());
+                try {
+                    StorageProfile.forName(name);
+                    System.setProperty(StorageProfile.PROPERTY, name.trim());
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Невідомий профіль зберігання: " + name);
+                }
+            } else {
+                rest.add(arg);
+            }
+        }
+        return rest.toArray(String[]::new);
+    }
+
     /**
      * Initializes and runs the command-line interface for the Airline application.
      * <p>
@@ -44,6 +111,7 @@ public class Main {
      * It then constructs an instance of {@link ui.AirlineCLI} and invokes its
      * {@code run()} method to start processing user commands. Finally, the
      * scanner is closed when the CLI session ends.
+     * In virtual-thread mode the session runs on a virtual thread that the main thread waits for.
      * </p>
      */
     private static void runCLI() {
@@ -51,7 +119,16 @@ public class Main {
         PrintStream out = System.out;
 
         ui.AirlineCLI cli = new ui.AirlineCLI(scanner, out);
-        cli.run();
+        if (ExecutionMode.current() == ExecutionMode.VIRTUAL) {
+            Thread session = ExecutionMode.start("cli-session", cli::run);
+            try {
+                session.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            cli.run();
+        }
 
         scanner.close();
     }
@@ -1,14 +1,71 @@
 package airline;
 
+import airline.util.ExecutionMode;
 import db.DatabaseManager;
+import db.TypeSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /**
  * Represents an airline that manages a fleet of planes.
  * Provides high-level methods for interacting with the database layer through {@link DatabaseManager}.
+ * <p>
+ * The fleet is loaded from the database once and kept in memory. Mutations are written through
+ * to the database first and applied to the in-memory copy only when the write succeeds.
+ * If the database is changed by someone else, call {@link #invalidateCache()} to reload it.
+ * </p>
+ * <p>
+ * The planes returned by the read methods are the cached instances and are read-only: their setters
+ * throw {@link IllegalStateException} (see {@link Plane}). Code that used to edit a plane in place
+ * and then call {@link #updatePlane(Plane)} must edit a copy made with
+ * {@link airline.util.PlaneFactory#copyOf(Plane)} instead.
+ * </p>
+ * <p>
+ * One instance can be shared by several threads, e.g. the GUI and the CLI window. Reads are served
+ * from an immutable {@link FleetSnapshot} published through a volatile field, so readers never wait
+ * for a writer (only the read that first loads the fleet does). Writes are serialized by a lock that
+ * is held across the database write and the in-memory update; each successful write publishes a new
+ * snapshot with a higher version before the lock is released, so writes are linearizable and a
+ * reader sees either all or none of a write. {@link #getVersion()} tells whether the fleet changed.
+ * </p>
+ * <p>
+ * Every change made through this instance is also published as a {@link PlaneChange} event on
+ * {@link #changes()}, so caches, indexes and windows can follow the fleet without reloading it.
+ * Changes made to the database by someone else are not seen.
+ * </p>
  */
-public class Airline {
+public class Airline implements AutoCloseable {
     private final DatabaseManager dbManager;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    /** Guarded by {@link #writeLock}. */
+    private final FleetCache cache = new FleetCache();
+    /** The current fleet, or null while it is not loaded. */
+    private volatile FleetSnapshot snapshot;
+    private volatile long version;
+
+    private final ExecutorService changeExecutor =
+            Executors.newCachedThreadPool(ExecutionMode.threadFactory("plane-changes-"));
+    private final SubmissionPublisher<PlaneChange> changePublisher =
+            new SubmissionPublisher<>(changeExecutor, Flow.defaultBufferSize());
+    /** Sequence number of the last event; guarded by {@link #writeLock}. */
+    private long changeSequence;
+    /** Events in sequence order, recorded under the write lock and submitted after it is released. */
+    private final Queue<PlaneChange> undeliveredChanges = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock deliveryLock = new ReentrantLock();
 
     /**
      * Constructs an Airline instance with the provided DatabaseManager.
@@ -22,28 +79,121 @@ public class Airline {
     /**
      * Retrieves all planes in the airline.
      *
-     * @return a list of all planes
+     * @return an unmodifiable list of all planes, in ID order; the planes are read-only
      */
     public List<Plane> getPlanes() {
-        return dbManager.getAllPlanes();
+        return getSnapshot().getPlanes();
+    }
+
+    /**
+     * Returns the current fleet as an immutable snapshot, loading it on first use. Use the snapshot
+     * when several reads must see the same version of the fleet.
+     *
+     * @return the current snapshot
+     */
+    public FleetSnapshot getSnapshot() {
+        FleetSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        writeLock.lock();
+        try {
+            if (snapshot == null) {
+                load();
+            }
+            return snapshot;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the stream of changes made through this airline, see {@link PlaneChange}.
+     * <p>
+     * Each subscriber has a buffer of {@link Flow#defaultBufferSize()} events and receives only as
+     * many as it has requested. When a subscriber's buffer is full, the thread that made the latest
+     * change waits until the subscriber catches up, so a slow consumer slows writers down instead of
+     * losing events. The wait happens after the write lock is released: readers, and other writers
+     * up to the point of publishing, are not held up, and a subscriber may itself change the fleet.
+     * Events are delivered on threads of the current {@link ExecutionMode}.
+     * </p>
+     * <p>
+     * A subscriber sees the changes made after it subscribed. To follow the fleet from a consistent
+     * start, subscribe first, then take {@link #getSnapshot()} and skip the events whose version is
+     * not higher than the snapshot's.
+     * </p>
+     *
+     * @return the change publisher
+     */
+    public Flow.Publisher<PlaneChange> changes() {
+        return changePublisher;
+    }
+
+    /**
+     * Completes the change stream: subscribers receive the events already published and then
+     * {@code onComplete}. The airline stays usable, but later changes are not published.
+     * The database manager is not closed.
+     */
+    @Override
+    public void close() {
+        deliveryLock.lock();
+        try {
+            deliverChanges();
+            changePublisher.close();
+        } finally {
+            deliveryLock.unlock();
+        }
+        changeExecutor.shutdown();
+    }
+
+    /**
+     * Returns the version of the fleet. It grows with every successful change made through this
+     * instance and with every reload, and never decreases.
+     *
+     * @return the current version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Hands every plane to the action one at a time. When the fleet is already cached the cached
+     * planes are used; otherwise the planes are streamed straight from the database without
+     * loading the whole fleet into memory.
+     *
+     * @param action receives each plane
+     * @return the number of planes visited, or -1 if reading from the database failed
+     */
+    public long forEachPlane(Consumer<? super Plane> action) {
+        FleetSnapshot current = snapshot;
+        if (current != null) {
+            current.getPlanes().forEach(action);
+            return current.size();
+        }
+        return dbManager.forEachPlane(action);
     }
 
     /**
      * Adds a new plane to the airline.
      *
+     * If the fleet is cached, the plane is cached as it is and becomes read-only (see {@link Plane}).
+     *
      * @param plane the plane to add
+     * @return true if the plane was saved
      */
-    public void addPlane(Plane plane) {
-        dbManager.addPlane(plane);
+    public boolean addPlane(Plane plane) {
+        return write(() -> dbManager.addPlane(plane), plane);
     }
 
     /**
-     * Updates the details of an existing plane.
+     * Updates the details of an existing plane. Pass an edited copy of the cached plane; if the fleet
+     * is cached, the copy replaces it and becomes read-only (see {@link Plane}).
      *
      * @param plane the updated plane object
+     * @return true if the change was saved
      */
-    public void updatePlane(Plane plane) {
-        dbManager.updatePlane(plane);
+    public boolean updatePlane(Plane plane) {
+        return write(() -> dbManager.updatePlane(plane), plane);
     }
 
     /**
@@ -53,38 +203,334 @@ public class Airline {
      * @return true if the plane was removed successfully, false otherwise
      */
     public boolean removePlane(int planeId) {
-        return dbManager.deletePlane(planeId);
+        lockForWrite();
+        try {
+            boolean removed = dbManager.deletePlane(planeId);
+            if (removed && snapshot != null) {
+                Plane before = cache.remove(planeId);
+                publish();
+                if (before != null) {
+                    recordChange(before, null);
+                }
+            } else if (removed) {
+                version++;
+            }
+            return removed;
+        } finally {
+            unlockAndDeliver();
+        }
+    }
+
+    /**
+     * Adds many planes in batched, chunk-committed transactions.
+     * Readers see either none or all of the added planes.
+     *
+     * @param planes the planes to add
+     * @return the generated IDs of the planes that were added, in input order
+     */
+    public List<Integer> addPlanes(Collection<? extends Plane> planes) {
+        lockForWrite();
+        try {
+            List<Integer> ids = dbManager.addPlanes(planes);
+            // Planes are stored in input order up to the first failure
+            applyBatch(new ArrayList<Plane>(planes).subList(0, ids.size()), ids.size() == planes.size());
+            return ids;
+        } finally {
+            unlockAndDeliver();
+        }
+    }
+
+    /**
+     * Updates many planes in batched, chunk-committed transactions.
+     * Readers see either none or all of the updates.
+     *
+     * @param planes the planes with updated information
+     * @return the IDs of the planes that existed and were updated
+     */
+    public List<Integer> updatePlanes(Collection<? extends Plane> planes) {
+        lockForWrite();
+        try {
+            List<Integer> ids = dbManager.updatePlanes(planes);
+            Set<Integer> updated = new HashSet<>(ids);
+            List<Plane> stored = new ArrayList<>(ids.size());
+            for (Plane plane : planes) {
+                if (updated.contains(plane.getId())) {
+                    stored.add(plane);
+                }
+            }
+            applyBatch(stored, ids.size() == planes.size());
+            return ids;
+        } finally {
+            unlockAndDeliver();
+        }
+    }
+
+    /**
+     * Drops the in-memory fleet so that the next read reloads it from the database.
+     * Use this when the database may have been modified outside of this instance.
+     */
+    public void invalidateCache() {
+        writeLock.lock();
+        try {
+            snapshot = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a single-plane add or update under the write lock and publishes the result.
+     *
+     * @param dbWrite the database write
+     * @param plane   the plane to store in the cache if the write succeeds
+     * @return the result of the database write
+     */
+    private boolean write(BooleanSupplier dbWrite, Plane plane) {
+        lockForWrite();
+        try {
+            if (!dbWrite.getAsBoolean()) {
+                // A plane the cache does not hold was not written either, as in an update of an unknown
+                // ID; the fleet is only reloaded if the cached plane may disagree with the database
+                if (snapshot != null && cache.get(plane.getId()) != null) {
+                    snapshot = null;
+                }
+                return false;
+            }
+            if (snapshot != null) {
+                Plane before = cache.get(plane.getId());
+                cache.put(plane);
+                publish();
+                recordChange(before, plane);
+            } else {
+                version++;
+            }
+            return true;
+        } finally {
+            unlockAndDeliver();
+        }
+    }
+
+    /**
+     * Applies a batch write to the cache; called with the write lock held.
+     *
+     * @param stored   the planes the database stored
+     * @param complete whether every plane of the batch was stored; if not, the fleet is reloaded
+     */
+    private void applyBatch(List<Plane> stored, boolean complete) {
+        if (snapshot == null) {
+            if (!stored.isEmpty()) {
+                version++;
+            }
+            return;
+        }
+        List<Plane> before = new ArrayList<>(stored.size());
+        for (Plane plane : stored) {
+            before.add(cache.get(plane.getId()));
+            cache.put(plane);
+        }
+        if (complete) {
+            if (!stored.isEmpty()) {
+                publish();
+            }
+        } else {
+            snapshot = null;
+            if (!stored.isEmpty()) {
+                version++;
+            }
+        }
+        for (int i = 0; i < stored.size(); i++) {
+            recordChange(before.get(i), stored.get(i));
+        }
+    }
+
+    /** Loads the fleet from the database; called with the write lock held. */
+    private void load() {
+        cache.load(dbManager.getAllPlanes());
+        publish();
+    }
+
+    /** Publishes the cache content as the new snapshot; called with the write lock held. */
+    private void publish() {
+        snapshot = cache.snapshot(++version);
+    }
+
+    /**
+     * Takes the write lock for a change. While the change stream has subscribers the fleet is kept
+     * loaded, because the events need the planes as they were before the change.
+     */
+    private void lockForWrite() {
+        writeLock.lock();
+        if (snapshot == null && changePublisher.hasSubscribers()) {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                writeLock.unlock();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Records the event of a change, stamped with the current version; called with the write lock
+     * held, after the change has been applied. Nothing is recorded while nobody is subscribed.
+     *
+     * @param before the plane before the change, or null if it was added
+     * @param after  the plane after the change, or null if it was removed
+     */
+    private void recordChange(Plane before, Plane after) {
+        if (!changePublisher.hasSubscribers()) {
+            return;
+        }
+        long sequence = ++changeSequence;
+        // Cached planes are frozen, so the events can share them with the snapshots
+        PlaneChange change;
+        if (after == null) {
+            change = new PlaneChange.PlaneRemoved(sequence, version, before);
+        } else if (before == null) {
+            change = new PlaneChange.PlaneAdded(sequence, version, after);
+        } else {
+            change = new PlaneChange.PlaneUpdated(sequence, version, before, after);
+        }
+        undeliveredChanges.add(change);
+    }
+
+    /** Releases the write lock, then submits the events recorded under it. */
+    private void unlockAndDeliver() {
+        writeLock.unlock();
+        while (!undeliveredChanges.isEmpty() && deliveryLock.tryLock()) {
+            try {
+                deliverChanges();
+            } finally {
+                deliveryLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Submits the recorded events in sequence order; called with the delivery lock held. Waits while
+     * a subscriber's buffer is full.
+     */
+    private void deliverChanges() {
+        PlaneChange change;
+        while ((change = undeliveredChanges.poll()) != null) {
+            if (changePublisher.isClosed()) {
+                undeliveredChanges.clear();
+                return;
+            }
+            changePublisher.submit(change);
+        }
     }
 
     /**
      * Finds a plane by its model name.
      *
      * @param model the model name to search for
-     * @return the matching plane, or null if not found
+     * @return the matching read-only plane, or null if not found
      */
     public Plane findPlaneByModel(String model) {
-        return getPlanes().stream()
-                .filter(p -> p.getModel().equalsIgnoreCase(model))
-                .findFirst()
-                .orElse(null);
+        return getSnapshot().findByModel(model);
+    }
+
+    /**
+     * Finds a plane by its ID.
+     *
+     * @param planeId the ID of the plane
+     * @return the matching read-only plane, or null if not found, e.g. because it was removed since
+     *         its ID was looked up
+     */
+    public Plane findPlaneById(int planeId) {
+        return getSnapshot().findById(planeId);
+    }
+
+    /**
+     * Finds all planes matching the given criteria, ordered and paged as the query requests.
+     * <p>
+     * If the fleet is already cached, the query runs over the current snapshot, using its sorted
+     * indexes for selective bounds (see {@link FleetSnapshot#search(PlaneQuery)}). Otherwise the query is translated to SQL so that only
+     * matching rows are read from the database, and the cache is not loaded.
+     * </p>
+     *
+     * @param query the search criteria
+     * @return the matching planes
+     */
+    public List<Plane> search(PlaneQuery query) {
+        FleetSnapshot current = snapshot;
+        if (current != null) {
+            return current.search(query);
+        }
+        return dbManager.findPlanes(query);
+    }
+
+    /**
+     * Returns a columnar snapshot of the fleet for scans and aggregations over many planes.
+     * The snapshot is immutable and reused until the fleet changes.
+     *
+     * @return the fleet in columnar form, in ID order
+     */
+    public FleetColumns getColumns() {
+        return getSnapshot().getColumns();
     }
 
     /**
      * Calculates the total passenger capacity of all planes.
+     * Read from the running per-type aggregates, without scanning the fleet. If the fleet is not
+     * cached, the database's per-type summary table is read instead and the cache is not loaded.
      *
-     * @return the total number of passengers that can be transported
+     * @return the total passenger capacity
      */
     public int getTotalCapacity() {
-        return getPlanes().stream().mapToInt(Plane::getCapacity).sum();
+        FleetSnapshot current = snapshot;
+        if (current == null) {
+            return (int) dbManager.getTypeSummaries().stream().mapToLong(TypeSummary::totalCapacity).sum();
+        }
+        return (int) current.getStatistics().get(PlaneAttribute.CAPACITY).sum();
     }
 
     /**
      * Calculates the total cargo capacity of all planes.
+     * Read from the running per-type aggregates, without scanning the fleet. If the fleet is not
+     * cached, the database's per-type summary table is read instead and the cache is not loaded.
      *
      * @return the total cargo capacity in tons
      */
     public double getTotalCargoCapacity() {
-        return getPlanes().stream().mapToDouble(Plane::getCargoCapacity).sum();
+        FleetSnapshot current = snapshot;
+        if (current == null) {
+            return dbManager.getTypeSummaries().stream().mapToDouble(TypeSummary::totalCargo).sum();
+        }
+        return current.getStatistics().get(PlaneAttribute.CARGO_CAPACITY).sum();
+    }
+
+    /**
+     * Returns count, sum, minimum and maximum of an attribute over the whole fleet. The aggregates are
+     * kept per plane type and updated with every add, update and remove, so reading them is cheap.
+     *
+     * @param attribute the attribute
+     * @return the aggregates
+     */
+    public FleetStatistics.AttributeStats getStatistics(PlaneAttribute attribute) {
+        return getSnapshot().getStatistics().get(attribute);
+    }
+
+    /**
+     * Returns the aggregates of an attribute over the planes of the given types.
+     *
+     * @param attribute the attribute
+     * @param types     plane types, in any case; empty means all types
+     * @return the aggregates
+     */
+    public FleetStatistics.AttributeStats getStatistics(PlaneAttribute attribute, Collection<String> types) {
+        return getSnapshot().getStatistics().get(attribute, types);
+    }
+
+    /**
+     * Returns the aggregates of an attribute for each plane type.
+     *
+     * @param attribute the attribute
+     * @return aggregates per type name
+     */
+    public Map<String, FleetStatistics.AttributeStats> getStatisticsByType(PlaneAttribute attribute) {
+        return getSnapshot().getStatistics().byType(attribute);
     }
 
     /**
@@ -94,10 +540,7 @@ public class Airline {
      * @return the plane's ID, or null if not found
      */
     public Integer getPlaneIdByModel(String model) {
-        return getPlanes().stream()
-                .filter(p -> p.getModel().equalsIgnoreCase(model))
-                .map(Plane::getId)
-                .findFirst()
-                .orElse(null);
+        Plane plane = findPlaneByModel(model);
+        return plane == null ? null : plane.getId();
     }
 }
\ No newline at end of file
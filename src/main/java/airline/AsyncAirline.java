@@ -0,0 +1,228 @@
+package airline;
+
+import airline.util.ExecutionMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous facade over a shared {@link Airline}: every operation runs on a small dedicated
+ * executor and returns a {@link CompletableFuture}, so that callers such as the JavaFX Application
+ * Thread never wait for SQLite.
+ * <p>
+ * The executor has a fixed number of threads and a bounded queue; when the queue is full, new
+ * operations fail at once with {@link RejectedExecutionException} instead of piling up. Every
+ * future fails with {@link TimeoutException} if it is not done within the configured timeout.
+ * </p>
+ * <p>
+ * A future that is cancelled or times out before its operation has started is dropped from the
+ * queue. A read that is already running is interrupted; a write that is already running is always
+ * completed, so the database and the in-memory fleet stay consistent, but its result is discarded.
+ * </p>
+ * <p>
+ * The executor threads are virtual in {@link ExecutionMode#VIRTUAL} mode, as chosen when the facade
+ * is created; their number and the queue stay bounded either way.
+ * </p>
+ */
+public class AsyncAirline implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncAirline.class);
+
+    /** Default number of executor threads. */
+    public static final int DEFAULT_THREADS = 2;
+    /** Default number of operations that may wait for a thread. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 100;
+    /** Default time after which an operation's future fails. */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+    /** How long {@link #close()} waits for started and queued operations. */
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final Airline airline;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    /**
+     * Creates a facade with the default executor size, queue capacity and timeout.
+     *
+     * @param airline the airline to run operations on
+     */
+    public AsyncAirline(Airline airline) {
+        this(airline, DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Creates a facade.
+     *
+     * @param airline       the airline to run operations on
+     * @param threads       number of executor threads
+     * @param queueCapacity number of operations that may wait for a thread
+     * @param timeout       time after which an operation's future fails with {@link TimeoutException}
+     */
+    public AsyncAirline(Airline airline, int threads, int queueCapacity, Duration timeout) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Threads and queue capacity must be positive");
+        }
+        this.airline = airline;
+        this.timeout = timeout;
+        int pool = POOL_NUMBER.incrementAndGet();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), ExecutionMode.threadFactory("airline-async-" + pool + "-"));
+    }
+
+    /** @return the airline the operations run on */
+    public Airline getAirline() {
+        return airline;
+    }
+
+    /** @return a future of all planes, see {@link Airline#getPlanes()} */
+    public CompletableFuture<List<Plane>> getPlanes() {
+        return read(airline::getPlanes);
+    }
+
+    /** @return a future of the current fleet snapshot, see {@link Airline#getSnapshot()} */
+    public CompletableFuture<FleetSnapshot> getSnapshot() {
+        return read(airline::getSnapshot);
+    }
+
+    /**
+     * @param query the search criteria
+     * @return a future of the matching planes, see {@link Airline#search(PlaneQuery)}
+     */
+    public CompletableFuture<List<Plane>> search(PlaneQuery query) {
+        return read(() -> airline.search(query));
+    }
+
+    /**
+     * @param attribute the attribute
+     * @return a future of its fleet-wide aggregates, see {@link Airline#getStatistics(PlaneAttribute)}
+     */
+    public CompletableFuture<FleetStatistics.AttributeStats> getStatistics(PlaneAttribute attribute) {
+        return read(() -> airline.getStatistics(attribute));
+    }
+
+    /**
+     * @param attribute the attribute
+     * @param types     plane types, in any case; empty means all types
+     * @return a future of the aggregates over those types,
+     *         see {@link Airline#getStatistics(PlaneAttribute, Collection)}
+     */
+    public CompletableFuture<FleetStatistics.AttributeStats> getStatistics(PlaneAttribute attribute,
+                                                                          Collection<String> types) {
+        return read(() -> airline.getStatistics(attribute, types));
+    }
+
+    /** @return a future of the total passenger capacity, see {@link Airline#getTotalCapacity()} */
+    public CompletableFuture<Integer> getTotalCapacity() {
+        return read(airline::getTotalCapacity);
+    }
+
+    /** @return a future of the total cargo capacity, see {@link Airline#getTotalCargoCapacity()} */
+    public CompletableFuture<Double> getTotalCargoCapacity() {
+        return read(airline::getTotalCargoCapacity);
+    }
+
+    /**
+     * @param plane the plane to add
+     * @return a future of whether the plane was saved, see {@link Airline#addPlane(Plane)}
+     */
+    public CompletableFuture<Boolean> addPlane(Plane plane) {
+        return write(() -> airline.addPlane(plane));
+    }
+
+    /**
+     * @param plane the changed plane
+     * @return a future of whether the change was saved, see {@link Airline#updatePlane(Plane)}
+     */
+    public CompletableFuture<Boolean> updatePlane(Plane plane) {
+        return write(() -> airline.updatePlane(plane));
+    }
+
+    /**
+     * @param planeId the ID of the plane to remove
+     * @return a future of whether the plane was removed, see {@link Airline#removePlane(int)}
+     */
+    public CompletableFuture<Boolean> removePlane(int planeId) {
+        return write(() -> airline.removePlane(planeId));
+    }
+
+    /**
+     * Stops accepting operations and waits a few seconds for started and queued ones, so that
+     * writes reach the database before it is closed. Operations still running afterwards are interrupted.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Airline operations still running after {} s, interrupting", SHUTDOWN_WAIT_SECONDS);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> read(Callable<T> operation) {
+        return submit(operation, true);
+    }
+
+    private <T> CompletableFuture<T> write(Callable<T> operation) {
+        return submit(operation, false);
+    }
+
+    /**
+     * Runs an operation on the executor and links the returned future to it.
+     *
+     * @param operation      the operation
+     * @param interruptible  whether a running operation may be interrupted when the future is
+     *                       cancelled or times out
+     */
+    private <T> CompletableFuture<T> submit(Callable<T> operation, boolean interruptible) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                if (result.isDone()) {
+                    // Cancelled or timed out while queued
+                    return;
+                }
+                try {
+                    result.complete(operation.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Airline operation rejected: {}", e.getMessage());
+            result.completeExceptionally(e);
+            return result;
+        }
+        result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        result.whenComplete((value, error) -> {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause instanceof CancellationException || cause instanceof TimeoutException) {
+                // Removes a queued task; interrupts a running read
+                task.cancel(interruptible);
+                executor.purge();
+            }
+        });
+        return result;
+    }
+}
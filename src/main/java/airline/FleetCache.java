@@ -0,0 +1,160 @@
+package airline;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writer-side state of the fleet kept by {@link Airline}.
+ * <p>
+ * The planes are held in {@link PersistentTree}s: one by ID, one by case-folded model name and one
+ * sorted index per {@link PlaneAttribute}, together with the running {@link FleetStatistics}. A change
+ * to one plane replaces O(log n) tree nodes and leaves the rest shared, so {@link #snapshot} hands
+ * the current trees to an immutable {@link FleetSnapshot} without copying anything but the
+ * attribute map and the per-type statistics. The cache is only changed by the thread holding the airline's write lock;
+ * readers never see it directly.
+ * </p>
+ * <p>
+ * Planes are {@linkplain Plane#freeze() frozen} as they enter the cache, since snapshots share them.
+ * A cached plane therefore still has the values it was indexed and counted with when it is replaced
+ * or removed.
+ * </p>
+ */
+class FleetCache {
+
+    private static final PlaneAttribute[] ATTRIBUTES = PlaneAttribute.values();
+
+    /** Order of the ID index. */
+    static final Comparator<Plane> BY_ID = Comparator.comparingInt(Plane::getId);
+
+    /** Order of the model index; the ID breaks ties between planes of the same model. */
+    static final Comparator<ModelKey> BY_MODEL =
+            Comparator.comparing(ModelKey::model).thenComparingInt(key -> key.plane().getId());
+
+    /** Entry of the model index: the case-folded model name of a plane. */
+    record ModelKey(String model, Plane plane) {
+        ModelKey(Plane plane) {
+            this(foldModel(plane.getModel()), plane);
+        }
+    }
+
+    private PersistentTree<Plane> byId = PersistentTree.empty(BY_ID);
+    private PersistentTree<ModelKey> byModel = PersistentTree.empty(BY_MODEL);
+    private final Map<PlaneAttribute, PersistentTree<Plane>> byAttribute = new EnumMap<>(PlaneAttribute.class);
+    private FleetStatistics statistics = new FleetStatistics();
+
+    FleetCache() {
+        for (PlaneAttribute attribute : ATTRIBUTES) {
+            byAttribute.put(attribute, PersistentTree.empty(attributeOrder(attribute)));
+        }
+    }
+
+    /**
+     * Replaces the whole cache content with the given planes.
+     *
+     * @param planes planes loaded from the database
+     */
+    void load(Collection<Plane> planes) {
+        List<ModelKey> models = new ArrayList<>(planes.size());
+        statistics = new FleetStatistics();
+        for (Plane plane : planes) {
+            plane.freeze();
+            models.add(new ModelKey(plane));
+            statistics.add(plane);
+        }
+        byId = PersistentTree.of(BY_ID, planes);
+        byModel = PersistentTree.of(BY_MODEL, models);
+        for (PlaneAttribute attribute : ATTRIBUTES) {
+            byAttribute.put(attribute, PersistentTree.of(attributeOrder(attribute), planes));
+        }
+    }
+
+    /**
+     * Inserts or replaces a plane, keyed by its ID. The plane is frozen.
+     *
+     * @param plane the plane to store
+     */
+    void put(Plane plane) {
+        plane.freeze();
+        unindex(get(plane.getId()));
+        byId = byId.with(plane);
+        byModel = byModel.with(new ModelKey(plane));
+        for (PlaneAttribute attribute : ATTRIBUTES) {
+            byAttribute.put(attribute, byAttribute.get(attribute).with(plane));
+        }
+        statistics.add(plane);
+    }
+
+    /**
+     * Removes a plane by ID.
+     *
+     * @param id the ID of the plane to remove
+     * @return the removed plane, or null if it was not cached
+     */
+    Plane remove(int id) {
+        Plane removed = get(id);
+        if (removed != null) {
+            byId = byId.without(removed);
+            unindex(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns a plane by ID.
+     *
+     * @param id the plane ID
+     * @return the cached plane, or null if absent
+     */
+    Plane get(int id) {
+        return byId.find(plane -> Integer.compare(id, plane.getId()));
+    }
+
+    /**
+     * Captures the current content as an immutable snapshot. The trees are shared, so this costs
+     * only a copy of the attribute map and the per-type statistics, independent of the number of planes.
+     *
+     * @param version the version to stamp the snapshot with
+     * @return the snapshot
+     */
+    FleetSnapshot snapshot(long version) {
+        return new FleetSnapshot(version, byId, byModel, new EnumMap<>(byAttribute), statistics.snapshot());
+    }
+
+    /** @return number of cached planes */
+    int size() {
+        return byId.size();
+    }
+
+    /**
+     * Returns the order of the sorted index of an attribute: by value, then by ID.
+     *
+     * @param attribute the attribute
+     * @return the order
+     */
+    static Comparator<Plane> attributeOrder(PlaneAttribute attribute) {
+        return (a, b) -> {
+            int byValue = Double.compare(attribute.valueOf(a), attribute.valueOf(b));
+            return byValue != 0 ? byValue : Integer.compare(a.getId(), b.getId());
+        };
+    }
+
+    static String foldModel(String model) {
+        return PlaneQuery.foldModel(model);
+    }
+
+    /** Removes a plane from the model and attribute indexes and the statistics. */
+    private void unindex(Plane plane) {
+        if (plane == null) {
+            return;
+        }
+        byModel = byModel.without(new ModelKey(plane));
+        for (PlaneAttribute attribute : ATTRIBUTES) {
+            byAttribute.put(attribute, byAttribute.get(attribute).without(plane));
+        }
+        statistics.remove(plane);
+    }
+}
@@ -0,0 +1,467 @@
+package airline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Read-only columnar snapshot of a fleet, built for scans over many planes.
+ * <p>
+ * Every numeric {@link PlaneAttribute} is copied into its own primitive array ({@code int[]} for
+ * integral attributes, {@code double[]} otherwise), the plane type is dictionary-encoded as an
+ * {@code int} code per plane and the model names are case-folded once. Each type code also has a
+ * bitmap of the rows of that type, so a set of types is selected by OR-ing a few bitmaps. Row {@code i} of every column
+ * describes the {@code i}-th plane of the snapshot, in the order the snapshot was built from
+ * (ID order for snapshots taken from {@link Airline}).
+ * </p>
+ * <p>
+ * Numeric bounds are evaluated by {@link #rangeBitmap} into a selection bitmap, one tight pass per
+ * bounded column that neither allocates nor touches a {@link Plane}; the pass uses SIMD instructions
+ * when the Vector API is available (see {@link RangeFilterKernel}). The other kernels work on a
+ * <i>selection vector</i>: an {@code int[]} of row numbers in ascending order and a count.
+ * {@link #filter} ANDs it with the type bitmap ({@link #typeBitmap}), decodes the result into a
+ * selection vector and narrows that by model;
+ * {@link #sort} and {@link #aggregate} then work on the selected rows. {@link Plane} objects are only looked up for
+ * the rows that end up in the result.
+ * </p>
+ * <p>
+ * A search can be given a cancellation check, which is polled every {@value #CANCEL_CHECK_ROWS} rows
+ * of the model scan and the sort; once it turns true the search throws {@link CancellationException}.
+ * </p>
+ * <p>
+ * The values are copied when the snapshot is built, so later changes to the planes are not seen.
+ * Instances are immutable and may be shared between threads.
+ * </p>
+ */
+public final class FleetColumns {
+
+    private static final PlaneAttribute[] ATTRIBUTES = PlaneAttribute.values();
+    private static final RangeFilterKernel KERNEL = RangeFilterKernel.best();
+
+    /** Number of rows scanned or sorted between two polls of a cancellation check. */
+    static final int CANCEL_CHECK_ROWS = 4096;
+
+    /** Cancellation check of searches that run to completion. */
+    static final BooleanSupplier NEVER_CANCELLED = () -> false;
+
+    /** Compares two rows; used by the row sort. */
+    @FunctionalInterface
+    private interface RowOrder {
+        int compare(int a, int b);
+    }
+
+    private final Plane[] planes;
+    private final int[] ids;
+    private final int[][] intColumns = new int[ATTRIBUTES.length][];
+    private final double[][] doubleColumns = new double[ATTRIBUTES.length][];
+    private final int[] typeCodes;
+    private final String[] typeDictionary;
+    private final Map<String, Integer> typeCodesByKey;
+    private final long[][] typeBitmaps;
+    private final String[] models;
+    private final String[] foldedModels;
+
+    private FleetColumns(List<? extends Plane> source) {
+        int size = source.size();
+        planes = source.toArray(new Plane[0]);
+        ids = new int[size];
+        for (PlaneAttribute attribute : ATTRIBUTES) {
+            if (attribute.isIntegral()) {
+                intColumns[attribute.ordinal()] = new int[size];
+            } else {
+                doubleColumns[attribute.ordinal()] = new double[size];
+            }
+        }
+        typeCodes = new int[size];
+        models = new String[size];
+        foldedModels = new String[size];
+
+        List<String> dictionary = new ArrayList<>();
+        Map<String, Integer> codes = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            Plane plane = planes[row];
+            ids[row] = plane.getId();
+            for (PlaneAttribute attribute : ATTRIBUTES) {
+                if (attribute.isIntegral()) {
+                    intColumns[attribute.ordinal()][row] = (int) attribute.valueOf(plane);
+                } else {
+                    doubleColumns[attribute.ordinal()][row] = attribute.valueOf(plane);
+                }
+            }
+            String type = plane.getType() == null ? "" : plane.getType();
+            Integer code = codes.get(typeKey(type));
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(type);
+                codes.put(typeKey(type), code);
+            }
+            typeCodes[row] = code;
+            models[row] = plane.getModel() == null ? "" : plane.getModel();
+            foldedModels[row] = models[row].toLowerCase(Locale.ROOT);
+        }
+        typeDictionary = dictionary.toArray(new String[0]);
+        typeCodesByKey = codes;
+        typeBitmaps = new long[typeDictionary.length][words(size)];
+        for (int row = 0; row < size; row++) {
+            typeBitmaps[typeCodes[row]][row >>> 6] |= 1L << row;
+        }
+    }
+
+    /**
+     * Builds a snapshot of the given planes.
+     *
+     * @param planes the planes; their order becomes the row order
+     * @return the snapshot
+     */
+    public static FleetColumns of(List<? extends Plane> planes) {
+        return new FleetColumns(planes);
+    }
+
+    /** @return number of planes (rows) */
+    public int size() {
+        return planes.length;
+    }
+
+    /**
+     * Returns the plane a row was built from.
+     *
+     * @param row the row number
+     * @return the plane
+     */
+    public Plane plane(int row) {
+        return planes[row];
+    }
+
+    /**
+     * Returns the ID of the plane in a row.
+     *
+     * @param row the row number
+     * @return the plane ID
+     */
+    public int id(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Returns an attribute value as it was when the snapshot was built.
+     *
+     * @param attribute the attribute
+     * @param row       the row number
+     * @return the value
+     */
+    public double value(PlaneAttribute attribute, int row) {
+        int[] ints = intColumns[attribute.ordinal()];
+        return ints != null ? ints[row] : doubleColumns[attribute.ordinal()][row];
+    }
+
+    /**
+     * Returns the dictionary code of the type in a row.
+     *
+     * @param row the row number
+     * @return index into {@link #getTypeDictionary()}
+     */
+    public int typeCode(int row) {
+        return typeCodes[row];
+    }
+
+    /** @return the distinct type names, indexed by type code */
+    public List<String> getTypeDictionary() {
+        return Collections.unmodifiableList(Arrays.asList(typeDictionary));
+    }
+
+    /**
+     * Runs a query against the snapshot: filter, sort and page over the columns, then look up the
+     * planes of the resulting rows.
+     *
+     * @param query the search criteria
+     * @return the matching planes, ordered and paged as the query requests
+     */
+    public List<Plane> search(PlaneQuery query) {
+        return search(query, NEVER_CANCELLED);
+    }
+
+    /**
+     * Runs a query like {@link #search(PlaneQuery)}, giving up once the cancellation check turns true.
+     *
+     * @param query     the search criteria
+     * @param cancelled polled between chunks of rows
+     * @return the matching planes, ordered and paged as the query requests
+     * @throws CancellationException if the check turned true before the search finished
+     */
+    public List<Plane> search(PlaneQuery query, BooleanSupplier cancelled) {
+        int[] rows = new int[planes.length];
+        int count = filter(query, rows, cancelled);
+        checkCancelled(cancelled);
+        sort(rows, count, query, cancelled);
+        checkCancelled(cancelled);
+
+        int from = Math.min(query.getOffset(), count);
+        int to = query.getLimit() < 0 ? count : (int) Math.min((long) from + query.getLimit(), count);
+        List<Plane> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(planes[rows[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Selects the rows matching the criteria of a query; ordering and paging are ignored.
+     *
+     * @param query     the search criteria
+     * @param selection receives the matching row numbers in ascending order; at least {@link #size()} long
+     * @return the number of matching rows
+     */
+    public int filter(PlaneQuery query, int[] selection) {
+        return filter(query, selection, NEVER_CANCELLED);
+    }
+
+    private int filter(PlaneQuery query, int[] selection, BooleanSupplier cancelled) {
+        long[] bitmap = hasBounds(query) ? rangeBitmap(query) : null;
+        if (!query.getTypes().isEmpty()) {
+            long[] types = typeBitmap(query.getTypes());
+            if (bitmap == null) {
+                bitmap = types;
+            } else {
+                for (int word = 0; word < bitmap.length; word++) {
+                    bitmap[word] &= types[word];
+                }
+            }
+        }
+
+        int count = 0;
+        if (bitmap != null) {
+            for (int word = 0; word < bitmap.length; word++) {
+                long bits = bitmap[word];
+                while (bits != 0) {
+                    selection[count++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                }
+            }
+        } else {
+            for (int row = 0; row < planes.length; row++) {
+                selection[row] = row;
+            }
+            count = planes.length;
+        }
+        String fragment = query.getModelFragment();
+        if (!fragment.isEmpty() && count > 0) {
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (i % CANCEL_CHECK_ROWS == 0) {
+                    checkCancelled(cancelled);
+                }
+                int row = selection[i];
+                if (foldedModels[row].contains(fragment)) {
+                    selection[kept++] = row;
+                }
+            }
+            count = kept;
+        }
+        return count;
+    }
+
+    /**
+     * Selects the rows of any of the given types by OR-ing their bitmaps. The result has the same
+     * layout as {@link #rangeBitmap} and can be combined with it word by word.
+     *
+     * @param types type names, in any case; unknown names select nothing
+     * @return the selection bitmap, {@code ceil(size / 64)} words long
+     */
+    public long[] typeBitmap(Collection<String> types) {
+        long[] bitmap = new long[words(planes.length)];
+        for (String type : types) {
+            Integer code = typeCodesByKey.get(typeKey(type));
+            if (code == null) {
+                continue;
+            }
+            long[] rows = typeBitmaps[code];
+            for (int word = 0; word < bitmap.length; word++) {
+                bitmap[word] |= rows[word];
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Evaluates all numeric bounds of a query. Bit {@code r % 64} of word {@code r / 64} is set if row
+     * {@code r} satisfies every bound; the model and type criteria are ignored.
+     *
+     * @param query the search criteria
+     * @return the selection bitmap, {@code ceil(size / 64)} words long
+     */
+    public long[] rangeBitmap(PlaneQuery query) {
+        return rangeBitmap(query, KERNEL);
+    }
+
+    /**
+     * Evaluates all numeric bounds of a query with the given kernel.
+     */
+    long[] rangeBitmap(PlaneQuery query, RangeFilterKernel kernel) {
+        int size = planes.length;
+        long[] bitmap = new long[words(size)];
+        Arrays.fill(bitmap, -1L);
+        if ((size & 63) != 0) {
+            bitmap[bitmap.length - 1] = (1L << size) - 1;
+        }
+        for (PlaneAttribute attribute : ATTRIBUTES) {
+            if (!query.isBounded(attribute)) {
+                continue;
+            }
+            double min = query.getMin(attribute);
+            double max = query.getMax(attribute);
+            int[] ints = intColumns[attribute.ordinal()];
+            if (ints == null) {
+                kernel.keepInRange(doubleColumns[attribute.ordinal()], min, max, bitmap, size);
+                continue;
+            }
+            // Integer columns are compared with the bounds rounded inwards
+            double low = Math.max(Math.ceil(min), Integer.MIN_VALUE);
+            double high = Math.min(Math.floor(max), Integer.MAX_VALUE);
+            if (low > high) {
+                Arrays.fill(bitmap, 0);
+                break;
+            }
+            kernel.keepInRange(ints, (int) low, (int) high, bitmap, size);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Sorts selected rows in the order a query requests, with ties broken by ascending plane ID.
+     * Rows are left as they are if the query does not request an order.
+     *
+     * @param rows  the selected rows
+     * @param count number of selected rows
+     * @param query the query giving the order
+     */
+    public void sort(int[] rows, int count, PlaneQuery query) {
+        sort(rows, count, query, NEVER_CANCELLED);
+    }
+
+    private void sort(int[] rows, int count, PlaneQuery query, BooleanSupplier cancelled) {
+        RowOrder order;
+        PlaneAttribute attribute = query.getSortAttribute();
+        if (query.isSortedByModel()) {
+            order = (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(models[a], models[b]);
+        } else if (attribute != null) {
+            int[] ints = intColumns[attribute.ordinal()];
+            double[] doubles = doubleColumns[attribute.ordinal()];
+            order = ints != null
+                    ? (a, b) -> Integer.compare(ints[a], ints[b])
+                    : (a, b) -> Double.compare(doubles[a], doubles[b]);
+        } else {
+            return;
+        }
+        RowOrder byValue = query.isAscending() ? order : (a, b) -> order.compare(b, a);
+        mergeSort(rows, new int[count], 0, count, (a, b) -> {
+            int result = byValue.compare(a, b);
+            return result != 0 ? result : Integer.compare(ids[a], ids[b]);
+        }, cancelled);
+    }
+
+    /**
+     * Computes count, sum, minimum and maximum of an attribute over selected rows.
+     *
+     * @param attribute the attribute
+     * @param rows      the selected rows
+     * @param count     number of selected rows
+     * @return the aggregates
+     */
+    public FleetStatistics.AttributeStats aggregate(PlaneAttribute attribute, int[] rows, int count) {
+        if (count == 0) {
+            return FleetStatistics.AttributeStats.EMPTY;
+        }
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int[] ints = intColumns[attribute.ordinal()];
+        if (ints != null) {
+            long intSum = 0;
+            int intMin = Integer.MAX_VALUE;
+            int intMax = Integer.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                int value = ints[rows[i]];
+                intSum += value;
+                intMin = Math.min(intMin, value);
+                intMax = Math.max(intMax, value);
+            }
+            sum = intSum;
+            min = intMin;
+            max = intMax;
+        } else {
+            double[] doubles = doubleColumns[attribute.ordinal()];
+            for (int i = 0; i < count; i++) {
+                double value = doubles[rows[i]];
+                sum += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        return new FleetStatistics.AttributeStats(count, sum, min, max);
+    }
+
+    private static boolean hasBounds(PlaneQuery query) {
+        for (PlaneAttribute attribute : ATTRIBUTES) {
+            if (query.isBounded(attribute)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    /**
+     * Throws if a search has been cancelled.
+     *
+     * @throws CancellationException if the check is true
+     */
+    static void checkCancelled(BooleanSupplier cancelled) {
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException("Search cancelled");
+        }
+    }
+
+    /**
+     * Stable top-down merge sort of {@code rows[from, to)}, using {@code buffer} of the same length.
+     * Polls the cancellation check before each part of at least {@value #CANCEL_CHECK_ROWS} rows.
+     */
+    private static void mergeSort(int[] rows, int[] buffer, int from, int to, RowOrder order,
+                                  BooleanSupplier cancelled) {
+        if (to - from < 2) {
+            return;
+        }
+        if (to - from >= CANCEL_CHECK_ROWS) {
+            checkCancelled(cancelled);
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(rows, buffer, from, middle, order, cancelled);
+        mergeSort(rows, buffer, middle, to, order, cancelled);
+        if (order.compare(rows[middle - 1], rows[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(rows, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && order.compare(buffer[left], buffer[right]) <= 0)) {
+                rows[i] = buffer[left++];
+            } else {
+                rows[i] = buffer[right++];
+            }
+        }
+    }
+
+    private static String typeKey(String type) {
+        return type.toLowerCase(Locale.ROOT);
+    }
+}
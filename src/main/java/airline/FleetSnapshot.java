@@ -0,0 +1,199 @@
+package airline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Immutable view of the fleet at one version, as published by {@link Airline}.
+ * <p>
+ * Every successful change to the fleet publishes a new snapshot with a higher version; a snapshot
+ * never changes after it has been published, so it can be read from any thread without locking and
+ * several reads from one snapshot are always consistent with each other.
+ * </p>
+ * <p>
+ * The planes are held in persistent trees (by ID, by case-folded model and one sorted index per
+ * {@link PlaneAttribute}) that consecutive snapshots share except for the paths a change replaced,
+ * so publishing a snapshot after a write does not copy the fleet. Lookups by ID or model cost
+ * O(log n). The columnar form used for broad scans is derived on first use and then kept with the
+ * snapshot.
+ * </p>
+ * <p>
+ * The planes themselves are shared with the airline and with other snapshots, and are frozen: their
+ * setters throw. To change a plane, save an edited copy (see
+ * {@link airline.util.PlaneFactory#copyOf(Plane)}) with {@link Airline#updatePlane(Plane)}.
+ * </p>
+ */
+public final class FleetSnapshot {
+
+    private static final PlaneAttribute[] ATTRIBUTES = PlaneAttribute.values();
+
+    /** Range indexes are walked only if the narrowest range holds at most 1/n of the fleet. */
+    private static final int INDEX_SCAN_FRACTION = 8;
+
+    private final long version;
+    private final PersistentTree<Plane> byId;
+    private final PersistentTree<FleetCache.ModelKey> byModel;
+    private final Map<PlaneAttribute, PersistentTree<Plane>> byAttribute;
+    private final FleetStatistics statistics;
+    private volatile FleetColumns columns;
+
+    /**
+     * @param version     the version of the fleet
+     * @param byId        the planes by ID
+     * @param byModel     the planes by case-folded model, then ID
+     * @param byAttribute the planes by the value of each attribute, then ID
+     * @param statistics  read-only statistics of the planes
+     */
+    FleetSnapshot(long version, PersistentTree<Plane> byId, PersistentTree<FleetCache.ModelKey> byModel,
+                  Map<PlaneAttribute, PersistentTree<Plane>> byAttribute, FleetStatistics statistics) {
+        this.version = version;
+        this.byId = byId;
+        this.byModel = byModel;
+        this.byAttribute = byAttribute;
+        this.statistics = statistics;
+    }
+
+    /** @return the version of the fleet this snapshot shows; higher versions are newer */
+    public long getVersion() {
+        return version;
+    }
+
+    /** @return the planes in ID order, unmodifiable; access by position costs O(log n) */
+    public List<Plane> getPlanes() {
+        return byId.asList();
+    }
+
+    /** @return number of planes */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Returns a plane by ID.
+     *
+     * @param id the plane ID
+     * @return the plane, or null if absent
+     */
+    public Plane findById(int id) {
+        return byId.find(plane -> Integer.compare(id, plane.getId()));
+    }
+
+    /**
+     * Returns the plane with the given model name, ignoring case.
+     * If several planes share the model, the one with the lowest ID is returned.
+     *
+     * @param model the model name
+     * @return the matching plane, or null if none
+     */
+    public Plane findByModel(String model) {
+        String folded = FleetCache.foldModel(model);
+        int first = byModel.countBefore(key -> key.model().compareTo(folded));
+        if (first == byModel.size()) {
+            return null;
+        }
+        FleetCache.ModelKey key = byModel.get(first);
+        return key.model().equals(folded) ? key.plane() : null;
+    }
+
+    /**
+     * Finds the planes matching a query.
+     * <p>
+     * When the query bounds one or more numeric attributes, the range of each bound in its sorted
+     * index is counted in O(log n), and only the planes in the narrowest range are checked against
+     * the remaining criteria. The cost is therefore logarithmic plus the size of that range rather
+     * than the size of the fleet. Without bounds, or when even the narrowest range covers a large
+     * part of the fleet, a sequential pass is cheaper and the query is run over
+     * {@link #getColumns()} instead; an unfiltered query in ID order just pages through the planes.
+     * </p>
+     *
+     * @param query the search criteria
+     * @return the matching planes, ordered and paged as the query requests
+     */
+    public List<Plane> search(PlaneQuery query) {
+        return search(query, FleetColumns.NEVER_CANCELLED);
+    }
+
+    /**
+     * Finds the planes matching a query like {@link #search(PlaneQuery)}, giving up once the
+     * cancellation check turns true. The check is polled between chunks of planes, so a search
+     * overtaken by a newer one stops without scanning the rest of the fleet.
+     *
+     * @param query     the search criteria
+     * @param cancelled polled between chunks of planes
+     * @return the matching planes, ordered and paged as the query requests
+     * @throws CancellationException if the check turned true before the search finished
+     */
+    public List<Plane> search(PlaneQuery query, BooleanSupplier cancelled) {
+        PersistentTree<Plane> narrowest = null;
+        int from = 0;
+        int to = 0;
+        for (PlaneAttribute attribute : ATTRIBUTES) {
+            if (!query.isBounded(attribute)) {
+                continue;
+            }
+            double min = query.getMin(attribute);
+            double max = query.getMax(attribute);
+            if (min > max) {
+                return List.of();
+            }
+            PersistentTree<Plane> index = byAttribute.get(attribute);
+            int first = index.countBefore(plane -> attribute.valueOf(plane) < min ? -1 : 1);
+            int last = index.countBefore(plane -> attribute.valueOf(plane) <= max ? -1 : 1);
+            if (narrowest == null || last - first < to - from) {
+                narrowest = index;
+                from = first;
+                to = last;
+            }
+        }
+
+        if (narrowest == null) {
+            if (query.getTypes().isEmpty() && query.getModelFragment().isEmpty() && query.comparator() == null) {
+                return page(query);
+            }
+            return getColumns().search(query, cancelled);
+        }
+        if (to - from > size() / INDEX_SCAN_FRACTION) {
+            return getColumns().search(query, cancelled);
+        }
+
+        List<Plane> result = new ArrayList<>(to - from);
+        for (int chunk = from; chunk < to; chunk += FleetColumns.CANCEL_CHECK_ROWS) {
+            FleetColumns.checkCancelled(cancelled);
+            narrowest.forEach(chunk, Math.min(chunk + FleetColumns.CANCEL_CHECK_ROWS, to), plane -> {
+                if (query.matches(plane)) {
+                    result.add(plane);
+                }
+            });
+        }
+        result.sort(FleetCache.BY_ID);
+        return query.orderAndPage(result);
+    }
+
+    /** @return the planes in columnar form, built on first use */
+    public FleetColumns getColumns() {
+        FleetColumns result = columns;
+        if (result == null) {
+            result = FleetColumns.of(getPlanes());
+            columns = result;
+        }
+        return result;
+    }
+
+    /** @return read-only per-type statistics of the planes */
+    public FleetStatistics getStatistics() {
+        return statistics;
+    }
+
+    /** Returns the requested page of all planes in ID order. */
+    private List<Plane> page(PlaneQuery query) {
+        int size = size();
+        int from = Math.min(query.getOffset(), size);
+        int to = query.getLimit() < 0 ? size : (int) Math.min((long) from + query.getLimit(), size);
+        List<Plane> result = new ArrayList<>(to - from);
+        byId.forEach(from, to, result::add);
+        return result;
+    }
+}
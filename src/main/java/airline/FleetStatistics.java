@@ -0,0 +1,309 @@
+package airline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Count, sum, minimum, maximum and mean of every {@link PlaneAttribute}, per plane type and for the
+ * whole fleet.
+ * <p>
+ * The statistics are built in a single pass over the planes and can then be kept up to date one plane at
+ * a time with {@link #add}, {@link #remove} and {@link #replace}, so reading them never requires another
+ * scan. Sums and counts are updated in constant time. Minimum and maximum are kept in a sorted multiset
+ * of values per type and attribute, so removing the current extreme costs O(log n) rather than a rescan.
+ * Fleet-wide figures combine the per-type figures, which costs O(number of types).
+ * </p>
+ * <p>
+ * Instances are not thread-safe. {@link #snapshot()} returns a read-only copy that can be shared
+ * between threads.
+ * </p>
+ */
+public class FleetStatistics {
+
+    private static final PlaneAttribute[] ATTRIBUTES = PlaneAttribute.values();
+
+    /**
+     * Aggregate values of one attribute. For an empty set of planes the count and sum are zero and the
+     * minimum, maximum and mean are NaN.
+     *
+     * @param count number of planes
+     * @param sum   sum of the attribute
+     * @param min   smallest value
+     * @param max   largest value
+     */
+    public record AttributeStats(long count, double sum, double min, double max) {
+
+        /** Statistics of no planes. */
+        public static final AttributeStats EMPTY = new AttributeStats(0, 0, Double.NaN, Double.NaN);
+
+        /** @return the average value, or NaN if there are no planes */
+        public double mean() {
+            return count == 0 ? Double.NaN : sum / count;
+        }
+
+        /**
+         * Combines the statistics of two disjoint sets of planes.
+         *
+         * @param other statistics of the other set
+         * @return statistics of both sets together
+         */
+        public AttributeStats combine(AttributeStats other) {
+            if (count == 0) return other;
+            if (other.count == 0) return this;
+            return new AttributeStats(count + other.count, sum + other.sum,
+                    Math.min(min, other.min), Math.max(max, other.max));
+        }
+    }
+
+    /** Running aggregates of the planes of one type. */
+    private static final class Group {
+        private final String type;
+        private long count;
+        private final double[] sums = new double[ATTRIBUTES.length];
+        private final List<TreeMap<Double, Integer>> values = new ArrayList<>(ATTRIBUTES.length);
+        /** Figures of a read-only copy; null for a live group. */
+        private final AttributeStats[] fixed;
+
+        Group(String type) {
+            this.type = type;
+            this.fixed = null;
+            for (int i = 0; i < ATTRIBUTES.length; i++) {
+                values.add(new TreeMap<>());
+            }
+        }
+
+        private Group(Group live) {
+            this.type = live.type;
+            this.count = live.count;
+            this.fixed = new AttributeStats[ATTRIBUTES.length];
+            for (PlaneAttribute attribute : ATTRIBUTES) {
+                fixed[attribute.ordinal()] = live.stats(attribute);
+            }
+        }
+
+        void add(double[] attributeValues) {
+            count++;
+            for (int i = 0; i < ATTRIBUTES.length; i++) {
+                double value = attributeValues[i];
+                sums[i] += value;
+                values.get(i).merge(value, 1, Integer::sum);
+            }
+        }
+
+        void remove(double[] attributeValues) {
+            count--;
+            for (int i = 0; i < ATTRIBUTES.length; i++) {
+                double value = attributeValues[i];
+                sums[i] -= value;
+                values.get(i).computeIfPresent(value, (v, n) -> n == 1 ? null : n - 1);
+            }
+            if (count == 0) {
+                // Drop accumulated rounding error once the group is empty
+                Arrays.fill(sums, 0);
+            }
+        }
+
+        AttributeStats stats(PlaneAttribute attribute) {
+            if (fixed != null) {
+                return fixed[attribute.ordinal()];
+            }
+            TreeMap<Double, Integer> sorted = values.get(attribute.ordinal());
+            if (count == 0 || sorted.isEmpty()) {
+                return AttributeStats.EMPTY;
+            }
+            return new AttributeStats(count, sums[attribute.ordinal()], sorted.firstKey(), sorted.lastKey());
+        }
+    }
+
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+    private long count;
+    private final boolean readOnly;
+
+    /** Creates statistics of an empty fleet. */
+    public FleetStatistics() {
+        this.readOnly = false;
+    }
+
+    private FleetStatistics(FleetStatistics live) {
+        this.readOnly = true;
+        this.count = live.count;
+        live.groups.forEach((key, group) -> groups.put(key, new Group(group)));
+    }
+
+    /**
+     * Computes the statistics of the given planes in one pass.
+     *
+     * @param planes the planes
+     * @return the statistics
+     */
+    public static FleetStatistics of(Collection<? extends Plane> planes) {
+        FleetStatistics statistics = new FleetStatistics();
+        for (Plane plane : planes) {
+            statistics.add(plane);
+        }
+        return statistics;
+    }
+
+    /**
+     * Adds a plane.
+     *
+     * @param plane the plane
+     */
+    public void add(Plane plane) {
+        add(plane.getType(), valuesOf(plane));
+    }
+
+    /**
+     * Adds a plane given by its type and attribute values, indexed by {@link PlaneAttribute#ordinal()}.
+     */
+    void add(String type, double[] attributeValues) {
+        checkWritable();
+        String name = type == null ? "" : type;
+        groups.computeIfAbsent(key(name), k -> new Group(name)).add(attributeValues);
+        count++;
+    }
+
+    /**
+     * Removes a plane that was added before, with the attribute values it had when it was added.
+     *
+     * @param plane the plane
+     */
+    public void remove(Plane plane) {
+        remove(plane.getType(), valuesOf(plane));
+    }
+
+    /**
+     * Removes a plane given by the type and attribute values it was added with.
+     */
+    void remove(String type, double[] attributeValues) {
+        checkWritable();
+        String key = key(type);
+        Group group = groups.get(key);
+        if (group == null) {
+            return;
+        }
+        group.remove(attributeValues);
+        count--;
+        if (group.count == 0) {
+            groups.remove(key);
+        }
+    }
+
+    /**
+     * Replaces a plane by its changed version.
+     *
+     * @param previous the plane as it was added
+     * @param updated  the changed plane
+     */
+    public void replace(Plane previous, Plane updated) {
+        remove(previous);
+        add(updated);
+    }
+
+    /**
+     * Returns a read-only copy of the current figures. Taking it costs O(types × attributes),
+     * independent of the number of planes; changing the copy throws {@link UnsupportedOperationException}.
+     *
+     * @return the copy
+     */
+    public FleetStatistics snapshot() {
+        return readOnly ? this : new FleetStatistics(this);
+    }
+
+    /** @return the number of planes */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of planes of a type.
+     *
+     * @param type the plane type, in any case
+     * @return the number of planes of that type
+     */
+    public long getCount(String type) {
+        Group group = groups.get(key(type));
+        return group == null ? 0 : group.count;
+    }
+
+    /** @return the types present, sorted by name */
+    public Set<String> getTypes() {
+        Set<String> types = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        groups.values().forEach(group -> types.add(group.type));
+        return Collections.unmodifiableSet(types);
+    }
+
+    /**
+     * Returns the statistics of an attribute over the whole fleet.
+     *
+     * @param attribute the attribute
+     * @return the statistics
+     */
+    public AttributeStats get(PlaneAttribute attribute) {
+        AttributeStats result = AttributeStats.EMPTY;
+        for (Group group : groups.values()) {
+            result = result.combine(group.stats(attribute));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the statistics of an attribute over the planes of the given types.
+     *
+     * @param attribute the attribute
+     * @param types     the types, in any case; empty means all types
+     * @return the statistics
+     */
+    public AttributeStats get(PlaneAttribute attribute, Collection<String> types) {
+        if (types.isEmpty()) {
+            return get(attribute);
+        }
+        AttributeStats result = AttributeStats.EMPTY;
+        for (String type : new TreeSet<>(types.stream().map(FleetStatistics::key).toList())) {
+            Group group = groups.get(type);
+            if (group != null) {
+                result = result.combine(group.stats(attribute));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the statistics of an attribute for every type.
+     *
+     * @param attribute the attribute
+     * @return statistics per type name
+     */
+    public Map<String, AttributeStats> byType(PlaneAttribute attribute) {
+        Map<String, AttributeStats> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        groups.values().forEach(group -> result.put(group.type, group.stats(attribute)));
+        return result;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Statistics snapshot is read-only");
+        }
+    }
+
+    private static double[] valuesOf(Plane plane) {
+        double[] values = new double[ATTRIBUTES.length];
+        for (PlaneAttribute attribute : ATTRIBUTES) {
+            values[attribute.ordinal()] = attribute.valueOf(plane);
+        }
+        return values;
+    }
+
+    private static String key(String type) {
+        return type == null ? "" : type.toLowerCase(Locale.ROOT);
+    }
+}
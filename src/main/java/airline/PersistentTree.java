@@ -0,0 +1,352 @@
+package airline;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable sorted set kept in a weight-balanced binary tree, used for the indexes of
+ * {@link FleetSnapshot}.
+ * <p>
+ * {@link #with} and {@link #without} return a new tree that copies only the O(log n) nodes on the
+ * path to the change and shares every other node with this one, so each version of the fleet can
+ * keep its own indexes without copying the fleet. Every node also stores the size of its subtree,
+ * which gives O(log n) access by position and O(log n) counts of the elements below a bound.
+ * </p>
+ * <p>
+ * The order must be total: elements that compare equal replace each other. Instances are immutable
+ * and may be shared between threads.
+ * </p>
+ *
+ * @param <E> the element type
+ */
+final class PersistentTree<E> {
+
+    /** A subtree is rebalanced when one side holds more than DELTA times the other. */
+    private static final int DELTA = 3;
+    /** Chooses between a single and a double rotation. */
+    private static final int RATIO = 2;
+
+    private static final class Node<E> {
+        final E element;
+        final Node<E> left;
+        final Node<E> right;
+        final int size;
+
+        Node(E element, Node<E> left, Node<E> right) {
+            this.element = element;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    private final Comparator<? super E> order;
+    private final Node<E> root;
+
+    private PersistentTree(Comparator<? super E> order, Node<E> root) {
+        this.order = order;
+        this.root = root;
+    }
+
+    /**
+     * Returns an empty tree.
+     *
+     * @param order the order of the elements
+     * @param <E>   the element type
+     * @return the tree
+     */
+    static <E> PersistentTree<E> empty(Comparator<? super E> order) {
+        return new PersistentTree<>(order, null);
+    }
+
+    /**
+     * Builds a balanced tree of the given elements in O(n log n), or O(n) if they are already sorted.
+     *
+     * @param order    the order of the elements
+     * @param elements the elements; no two may compare equal
+     * @param <E>      the element type
+     * @return the tree
+     */
+    @SuppressWarnings("unchecked")
+    static <E> PersistentTree<E> of(Comparator<? super E> order, Collection<? extends E> elements) {
+        E[] sorted = (E[]) elements.toArray();
+        Arrays.sort(sorted, order);
+        return new PersistentTree<>(order, build(sorted, 0, sorted.length));
+    }
+
+    /**
+     * Returns a tree that also holds the element, replacing an element that compares equal to it.
+     *
+     * @param element the element to add
+     * @return the new tree
+     */
+    PersistentTree<E> with(E element) {
+        return new PersistentTree<>(order, insert(root, element));
+    }
+
+    /**
+     * Returns a tree without the element that compares equal to the given one.
+     *
+     * @param element the element to remove
+     * @return the new tree, or this tree if it does not hold the element
+     */
+    PersistentTree<E> without(E element) {
+        Node<E> result = delete(root, element);
+        return result == root ? this : new PersistentTree<>(order, result);
+    }
+
+    /** @return number of elements */
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the element at a position in the order.
+     *
+     * @param index the position, from 0
+     * @return the element
+     * @throws IndexOutOfBoundsException if the position is outside the tree
+     */
+    E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.element;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Finds an element by binary search.
+     *
+     * @param target compares the sought element with the given one, like {@link Comparator#compare}
+     *               with the sought element first
+     * @return the element, or null if none matches
+     */
+    E find(ToIntFunction<? super E> target) {
+        Node<E> node = root;
+        while (node != null) {
+            int comparison = target.applyAsInt(node.element);
+            if (comparison < 0) {
+                node = node.left;
+            } else if (comparison > 0) {
+                node = node.right;
+            } else {
+                return node.element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts the elements before a bound, which is also the position of the first element after it.
+     *
+     * @param position negative for the elements before the bound, zero or positive for the others;
+     *                 must agree with the order of the tree
+     * @return the number of elements before the bound
+     */
+    int countBefore(ToIntFunction<? super E> position) {
+        int count = 0;
+        Node<E> node = root;
+        while (node != null) {
+            if (position.applyAsInt(node.element) < 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Hands the elements at positions {@code [from, to)} to the action, in order.
+     *
+     * @param from   the first position
+     * @param to     the position after the last one
+     * @param action receives each element
+     */
+    void forEach(int from, int to, Consumer<? super E> action) {
+        Iterator<E> elements = iterator(from);
+        for (int i = from; i < to; i++) {
+            action.accept(elements.next());
+        }
+    }
+
+    /** @return an unmodifiable list view of the elements in order; access by position costs O(log n) */
+    List<E> asList() {
+        return new AbstractList<>() {
+            @Override
+            public E get(int index) {
+                return PersistentTree.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return PersistentTree.this.size();
+            }
+
+            @Override
+            public Iterator<E> iterator() {
+                return PersistentTree.this.iterator(0);
+            }
+        };
+    }
+
+    /** Iterates in order from a position, in O(log n) plus O(1) amortized per element. */
+    private Iterator<E> iterator(int from) {
+        Deque<Node<E>> path = new ArrayDeque<>();
+        Node<E> node = root;
+        int index = from;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (index <= leftSize) {
+                path.push(node);
+                if (index == leftSize) {
+                    break;
+                }
+                node = node.left;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<E> next = path.pop();
+                for (Node<E> child = next.right; child != null; child = child.left) {
+                    path.push(child);
+                }
+                return next.element;
+            }
+        };
+    }
+
+    private Node<E> insert(Node<E> node, E element) {
+        if (node == null) {
+            return new Node<>(element, null, null);
+        }
+        int comparison = order.compare(element, node.element);
+        if (comparison < 0) {
+            return balance(node.element, insert(node.left, element), node.right);
+        } else if (comparison > 0) {
+            return balance(node.element, node.left, insert(node.right, element));
+        }
+        return new Node<>(element, node.left, node.right);
+    }
+
+    private Node<E> delete(Node<E> node, E element) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = order.compare(element, node.element);
+        if (comparison < 0) {
+            Node<E> left = delete(node.left, element);
+            return left == node.left ? node : balance(node.element, left, node.right);
+        } else if (comparison > 0) {
+            Node<E> right = delete(node.right, element);
+            return right == node.right ? node : balance(node.element, node.left, right);
+        }
+        return glue(node.left, node.right);
+    }
+
+    /** Joins the two subtrees of a removed node, taking the new root from the larger one. */
+    private static <E> Node<E> glue(Node<E> left, Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.size > right.size) {
+            Node<E> max = left;
+            while (max.right != null) {
+                max = max.right;
+            }
+            return balance(max.element, deleteMax(left), right);
+        }
+        Node<E> min = right;
+        while (min.left != null) {
+            min = min.left;
+        }
+        return balance(min.element, left, deleteMin(right));
+    }
+
+    private static <E> Node<E> deleteMin(Node<E> node) {
+        return node.left == null ? node.right : balance(node.element, deleteMin(node.left), node.right);
+    }
+
+    private static <E> Node<E> deleteMax(Node<E> node) {
+        return node.right == null ? node.left : balance(node.element, node.left, deleteMax(node.right));
+    }
+
+    /**
+     * Creates a node whose subtrees were balanced before one of them changed by one element,
+     * rotating once or twice if they are now out of balance.
+     */
+    private static <E> Node<E> balance(E element, Node<E> left, Node<E> right) {
+        int leftSize = size(left);
+        int rightSize = size(right);
+        if (leftSize + rightSize <= 1) {
+            return new Node<>(element, left, right);
+        }
+        if (rightSize > DELTA * leftSize) {
+            if (size(right.left) < RATIO * size(right.right)) {
+                return new Node<>(right.element, new Node<>(element, left, right.left), right.right);
+            }
+            Node<E> inner = right.left;
+            return new Node<>(inner.element,
+                    new Node<>(element, left, inner.left),
+                    new Node<>(right.element, inner.right, right.right));
+        }
+        if (leftSize > DELTA * rightSize) {
+            if (size(left.right) < RATIO * size(left.left)) {
+                return new Node<>(left.element, left.left, new Node<>(element, left.right, right));
+            }
+            Node<E> inner = left.right;
+            return new Node<>(inner.element,
+                    new Node<>(left.element, left.left, inner.left),
+                    new Node<>(element, inner.right, right));
+        }
+        return new Node<>(element, left, right);
+    }
+
+    private static <E> Node<E> build(E[] sorted, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Node<>(sorted[middle], build(sorted, from, middle), build(sorted, middle + 1, to));
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -4,6 +4,11 @@ package airline;
  * Abstract base class representing a generic airplane.
  * Contains common properties such as model, capacity, fuel consumption, and speed.
  * Subclasses should represent specific types of aircraft.
+ * <p>
+ * A plane becomes read-only once an {@link Airline} has cached it, because the same instance is then
+ * shared by every {@link FleetSnapshot} that contains it. Its setters throw from that point on; to
+ * change it, save an edited copy (see {@link airline.util.PlaneFactory#copyOf(Plane)}).
+ * </p>
  */
 public abstract class Plane {
     private int id;
@@ -17,6 +22,8 @@ public abstract class Plane {
     protected int serviceCeiling;
     protected String imagePath;
     protected String type;
+    /** Set once by the airline's writer before the plane is published; never cleared. */
+    private boolean frozen;
 
     /**
      * Constructs a new Plane with the specified parameters.
@@ -50,31 +57,37 @@ public abstract class Plane {
 
     /** @param id the unique ID to set for the plane */
     public void setId(int id) {
+        checkMutable();
         this.id = id;
     }
 
     /** @param model the model name to set */
     public void setModel(String model) {
+        checkMutable();
         this.model = model;
     }
 
     /** @param capacity the passenger capacity to set */
     public void setCapacity(int capacity) {
+        checkMutable();
         this.capacity = capacity;
     }
 
     /** @param cargoCapacity the cargo capacity (in tons) to set */
     public void setCargoCapacity(double cargoCapacity) {
+        checkMutable();
         this.cargoCapacity = cargoCapacity;
     }
 
     /** @param range the flight range (in kilometers) to set */
     public void setRange(int range) {
+        checkMutable();
         this.range = range;
     }
 
     /** @param fuelConsumption the fuel consumption (liters per hour) to set */
     public void setFuelConsumption(double fuelConsumption) {
+        checkMutable();
         this.fuelConsumption = fuelConsumption;
     }
 
@@ -85,6 +98,7 @@ public abstract class Plane {
 
     /** @param cruisingSpeed the cruising speed to set (km/h) */
     public void setCruisingSpeed(double cruisingSpeed) {
+        checkMutable();
         this.cruisingSpeed = cruisingSpeed;
     }
 
@@ -95,6 +109,7 @@ public abstract class Plane {
 
     /** @param maxSpeed the maximum speed to set (km/h) */
     public void setMaxSpeed(double maxSpeed) {
+        checkMutable();
         this.maxSpeed = maxSpeed;
     }
 
@@ -105,6 +120,7 @@ public abstract class Plane {
 
     /** @param serviceCeiling the service ceiling to set (meters) */
     public void setServiceCeiling(int serviceCeiling) {
+        checkMutable();
         this.serviceCeiling = serviceCeiling;
     }
 
@@ -140,6 +156,7 @@ public abstract class Plane {
 
     /** @param imagePath the file path of the image to set */
     public void setImagePath(String imagePath) {
+        checkMutable();
         this.imagePath = imagePath;
     }
 
@@ -150,9 +167,26 @@ public abstract class Plane {
 
     /** @param type the type of the plane (e.g., cargo, passenger) */
     public void setType(String type) {
+        checkMutable();
         this.type = type;
     }
 
+    /** @return true if the plane is held by an airline's cache and can no longer be changed */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /** Makes the plane read-only; called by the airline before it shares the plane with readers. */
+    void freeze() {
+        frozen = true;
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new IllegalStateException("Plane " + id + " is shared by the fleet cache; edit a copy instead");
+        }
+    }
+
     /**
      * Returns a formatted string representation of the plane and its properties.
      *
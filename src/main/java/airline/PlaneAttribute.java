@@ -0,0 +1,47 @@
+package airline;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Numeric attributes of a {@link Plane} that can be filtered, sorted and aggregated.
+ * Each constant knows how to read its value from a plane and which column stores it in the database.
+ */
+public enum PlaneAttribute {
+    CAPACITY("capacity", true, Plane::getCapacity),
+    CARGO_CAPACITY("cargo_capacity", false, Plane::getCargoCapacity),
+    RANGE("range_km", true, Plane::getRange),
+    FUEL_CONSUMPTION("fuel_consumption", false, Plane::getFuelConsumption),
+    CRUISING_SPEED("cruising_speed", false, Plane::getCruisingSpeed),
+    MAX_SPEED("max_speed", false, Plane::getMaxSpeed),
+    SERVICE_CEILING("service_ceiling", true, Plane::getServiceCeiling);
+
+    private final String column;
+    private final boolean integral;
+    private final ToDoubleFunction<Plane> getter;
+
+    PlaneAttribute(String column, boolean integral, ToDoubleFunction<Plane> getter) {
+        this.column = column;
+        this.integral = integral;
+        this.getter = getter;
+    }
+
+    /** @return the name of the "planes" table column holding this attribute */
+    public String getColumn() {
+        return column;
+    }
+
+    /** @return true if the attribute is stored as an integer */
+    public boolean isIntegral() {
+        return integral;
+    }
+
+    /**
+     * Reads this attribute from a plane.
+     *
+     * @param plane the plane
+     * @return the attribute value
+     */
+    public double valueOf(Plane plane) {
+        return getter.applyAsDouble(plane);
+    }
+}
@@ -0,0 +1,84 @@
+package airline;
+
+/**
+ * A change of one plane, as published by {@link Airline#changes()}.
+ * <p>
+ * Every change made through an airline produces one event, in the order the changes were made.
+ * Events carry the plane as it was before and after the change; both are the read-only instances the
+ * airline cached (see {@link Plane}), so an event stays valid however the fleet changes later. The
+ * sequence number grows by one with every event; the version is the
+ * {@linkplain FleetSnapshot#getVersion() fleet version} that first includes the change, so a
+ * consumer that starts from a snapshot skips the events whose version is not higher than the
+ * snapshot's.
+ * </p>
+ */
+public sealed interface PlaneChange permits PlaneChange.PlaneAdded, PlaneChange.PlaneUpdated, PlaneChange.PlaneRemoved {
+
+    /** @return the position of this event in the stream, starting at 1 */
+    long sequence();
+
+    /** @return the fleet version that includes this change */
+    long version();
+
+    /** @return the ID of the changed plane */
+    int planeId();
+
+    /** @return the plane before the change, or null if it was added */
+    Plane before();
+
+    /** @return the plane after the change, or null if it was removed */
+    Plane after();
+
+    /**
+     * A plane was added.
+     *
+     * @param sequence the position of the event in the stream
+     * @param version  the fleet version that includes the change
+     * @param after    the added plane
+     */
+    record PlaneAdded(long sequence, long version, Plane after) implements PlaneChange {
+        @Override
+        public int planeId() {
+            return after.getId();
+        }
+
+        @Override
+        public Plane before() {
+            return null;
+        }
+    }
+
+    /**
+     * A plane was changed.
+     *
+     * @param sequence the position of the event in the stream
+     * @param version  the fleet version that includes the change
+     * @param before   the plane before the change
+     * @param after    the plane after the change
+     */
+    record PlaneUpdated(long sequence, long version, Plane before, Plane after) implements PlaneChange {
+        @Override
+        public int planeId() {
+            return after.getId();
+        }
+    }
+
+    /**
+     * A plane was removed.
+     *
+     * @param sequence the position of the event in the stream
+     * @param version  the fleet version that no longer includes the plane
+     * @param before   the removed plane
+     */
+    record PlaneRemoved(long sequence, long version, Plane before) implements PlaneChange {
+        @Override
+        public int planeId() {
+            return before.getId();
+        }
+
+        @Override
+        public Plane after() {
+            return null;
+        }
+    }
+}
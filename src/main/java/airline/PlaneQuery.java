@@ -0,0 +1,318 @@
+package airline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Search criteria for planes: a model name fragment, inclusive min/max bounds on any
+ * {@link PlaneAttribute}, and a set of allowed plane types, plus the order of the result
+ * and an optional page (offset and limit).
+ * Criteria that are not set do not restrict the result; without an explicit order
+ * planes are returned by ID.
+ * <p>
+ * Setters return the query itself so criteria can be chained:
+ * {@code new PlaneQuery().modelContains("boeing").between(PlaneAttribute.FUEL_CONSUMPTION, 2, 5)}.
+ * </p>
+ */
+public class PlaneQuery {
+
+    private static final PlaneAttribute[] ATTRIBUTES = PlaneAttribute.values();
+
+    private String modelFragment = "";
+    private final double[] mins = new double[ATTRIBUTES.length];
+    private final double[] maxs = new double[ATTRIBUTES.length];
+    private final Set<String> types = new HashSet<>();
+
+    private boolean sortByModel = false;
+    private PlaneAttribute sortAttribute = null;
+    private boolean ascending = true;
+    private int offset = 0;
+    private int limit = -1;
+
+    /**
+     * Creates a query with no criteria, matching every plane.
+     */
+    public PlaneQuery() {
+        Arrays.fill(mins, Double.NaN);
+        Arrays.fill(maxs, Double.NaN);
+    }
+
+    /**
+     * Restricts the result to planes whose model contains the given text, ignoring case.
+     *
+     * @param fragment part of the model name; null or empty means any model
+     * @return this query
+     */
+    public PlaneQuery modelContains(String fragment) {
+        this.modelFragment = foldModel(fragment == null ? "" : fragment.trim());
+        return this;
+    }
+
+    /**
+     * Folds the case of a model name the way model criteria compare it, for every alphabet.
+     * The database search registers the same folding as an SQL function.
+     *
+     * @param model the model name, may be null
+     * @return the folded name, empty for null
+     */
+    public static String foldModel(String model) {
+        return model == null ? "" : model.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Sets an inclusive lower bound on an attribute.
+     *
+     * @param attribute the attribute
+     * @param min       the lowest accepted value
+     * @return this query
+     */
+    public PlaneQuery min(PlaneAttribute attribute, double min) {
+        mins[attribute.ordinal()] = min;
+        return this;
+    }
+
+    /**
+     * Sets an inclusive upper bound on an attribute.
+     *
+     * @param attribute the attribute
+     * @param max       the highest accepted value
+     * @return this query
+     */
+    public PlaneQuery max(PlaneAttribute attribute, double max) {
+        maxs[attribute.ordinal()] = max;
+        return this;
+    }
+
+    /**
+     * Sets both bounds on an attribute.
+     *
+     * @param attribute the attribute
+     * @param min       the lowest accepted value
+     * @param max       the highest accepted value
+     * @return this query
+     */
+    public PlaneQuery between(PlaneAttribute attribute, double min, double max) {
+        return min(attribute, min).max(attribute, max);
+    }
+
+    /**
+     * Restricts the result to the given plane types, ignoring case.
+     *
+     * @param types allowed type names (see {@link airline.util.PlaneFactory#getAvailableTypes()});
+     *              an empty collection means any type
+     * @return this query
+     */
+    public PlaneQuery types(Collection<String> types) {
+        this.types.clear();
+        for (String type : types) {
+            this.types.add(type.toLowerCase(Locale.ROOT));
+        }
+        return this;
+    }
+
+    /**
+     * Orders the result by model name, ignoring case.
+     *
+     * @param ascending true for A to Z, false for Z to A
+     * @return this query
+     */
+    public PlaneQuery orderByModel(boolean ascending) {
+        this.sortByModel = true;
+        this.sortAttribute = null;
+        this.ascending = ascending;
+        return this;
+    }
+
+    /**
+     * Orders the result by a numeric attribute. Planes with equal values stay in ID order.
+     *
+     * @param attribute the attribute to sort by
+     * @param ascending true for ascending order, false for descending
+     * @return this query
+     */
+    public PlaneQuery orderBy(PlaneAttribute attribute, boolean ascending) {
+        this.sortByModel = false;
+        this.sortAttribute = attribute;
+        this.ascending = ascending;
+        return this;
+    }
+
+    /**
+     * Skips the first matching planes.
+     *
+     * @param offset number of planes to skip
+     * @return this query
+     */
+    public PlaneQuery offset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative: " + offset);
+        }
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Limits the number of returned planes.
+     *
+     * @param limit maximum number of planes, or a negative value for no limit
+     * @return this query
+     */
+    public PlaneQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /** @return the lower-cased model fragment, empty if not set */
+    public String getModelFragment() {
+        return modelFragment;
+    }
+
+    /** @return true if the attribute has a lower bound */
+    public boolean hasMin(PlaneAttribute attribute) {
+        return !Double.isNaN(mins[attribute.ordinal()]);
+    }
+
+    /** @return true if the attribute has an upper bound */
+    public boolean hasMax(PlaneAttribute attribute) {
+        return !Double.isNaN(maxs[attribute.ordinal()]);
+    }
+
+    /** @return the lower bound, or negative infinity if not set */
+    public double getMin(PlaneAttribute attribute) {
+        return hasMin(attribute) ? mins[attribute.ordinal()] : Double.NEGATIVE_INFINITY;
+    }
+
+    /** @return the upper bound, or positive infinity if not set */
+    public double getMax(PlaneAttribute attribute) {
+        return hasMax(attribute) ? maxs[attribute.ordinal()] : Double.POSITIVE_INFINITY;
+    }
+
+    /** @return true if the attribute has at least one bound */
+    public boolean isBounded(PlaneAttribute attribute) {
+        return hasMin(attribute) || hasMax(attribute);
+    }
+
+    /** @return the lower-cased allowed types, empty if any type is allowed */
+    public Set<String> getTypes() {
+        return Collections.unmodifiableSet(types);
+    }
+
+    /** @return true if the result is ordered by model name */
+    public boolean isSortedByModel() {
+        return sortByModel;
+    }
+
+    /** @return the attribute the result is ordered by, or null if not ordered by an attribute */
+    public PlaneAttribute getSortAttribute() {
+        return sortAttribute;
+    }
+
+    /** @return true if the ordering is ascending */
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /** @return number of matching planes to skip */
+    public int getOffset() {
+        return offset;
+    }
+
+    /** @return maximum number of planes to return, negative if unlimited */
+    public int getLimit() {
+        return limit;
+    }
+
+    /** @return true if only a page of the result is requested */
+    public boolean isPaged() {
+        return offset > 0 || limit >= 0;
+    }
+
+    /**
+     * Returns the ordering requested by this query, with ties broken by ascending ID.
+     *
+     * @return the comparator, or null if the result is kept in ID order
+     */
+    public Comparator<Plane> comparator() {
+        Comparator<Plane> order;
+        if (sortByModel) {
+            order = Comparator.comparing(Plane::getModel, String.CASE_INSENSITIVE_ORDER);
+        } else if (sortAttribute != null) {
+            order = Comparator.comparingDouble(sortAttribute::valueOf);
+        } else {
+            return null;
+        }
+        if (!ascending) {
+            order = order.reversed();
+        }
+        return order.thenComparingInt(Plane::getId);
+    }
+
+    /**
+     * Runs this query against an in-memory list of planes by checking every plane.
+     *
+     * @param planes the planes to search, in ID order
+     * @return the matching planes, ordered and paged
+     */
+    public List<Plane> select(List<Plane> planes) {
+        return orderAndPage(planes.stream().filter(this::matches).toList());
+    }
+
+    /**
+     * Applies the ordering and page of this query to an already filtered list in ID order.
+     *
+     * @param matches planes that satisfy the query criteria
+     * @return the ordered page of planes
+     */
+    public List<Plane> orderAndPage(List<Plane> matches) {
+        List<Plane> result = matches;
+        Comparator<Plane> order = comparator();
+        if (order != null) {
+            result = new ArrayList<>(matches);
+            result.sort(order);
+        }
+        if (isPaged()) {
+            int from = Math.min(offset, result.size());
+            int to = limit < 0 ? result.size() : (int) Math.min((long) from + limit, result.size());
+            result = result.subList(from, to);
+        }
+        return result;
+    }
+
+    /**
+     * Checks a single plane against every criterion of this query.
+     *
+     * @param plane the plane to check
+     * @return true if the plane satisfies the query
+     */
+    public boolean matches(Plane plane) {
+        for (PlaneAttribute attribute : ATTRIBUTES) {
+            if (isBounded(attribute)) {
+                double value = attribute.valueOf(plane);
+                if (value < getMin(attribute) || value > getMax(attribute)) {
+                    return false;
+                }
+            }
+        }
+        if (!modelFragment.isEmpty() && !foldModel(plane.getModel()).contains(modelFragment)) {
+            return false;
+        }
+        return types.isEmpty() || matchesType(plane.getType());
+    }
+
+    /** Compares without lower-casing the plane type, which would allocate a string per plane. */
+    private boolean matchesType(String planeType) {
+        for (String type : types) {
+            if (type.equalsIgnoreCase(planeType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,66 @@
+package airline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates range bounds over a primitive column and clears the bits of the rows outside the range
+ * in a selection bitmap. Bit {@code r % 64} of {@code bitmap[r / 64]} stands for row {@code r}; rows
+ * at or beyond {@code size} are never touched.
+ * <p>
+ * {@link #best()} returns the SIMD implementation built on the {@code jdk.incubator.vector} module
+ * when the JVM was started with {@code --add-modules jdk.incubator.vector}, and the scalar one
+ * otherwise. Both produce identical bitmaps.
+ * </p>
+ */
+interface RangeFilterKernel {
+
+    /**
+     * Keeps only the rows whose value lies in {@code [min, max]}.
+     *
+     * @param column the column
+     * @param min    inclusive lower bound
+     * @param max    inclusive upper bound
+     * @param bitmap the selection to narrow
+     * @param size   number of rows
+     */
+    void keepInRange(int[] column, int min, int max, long[] bitmap, int size);
+
+    /**
+     * Keeps only the rows whose value lies in {@code [min, max]}.
+     *
+     * @param column the column
+     * @param min    inclusive lower bound
+     * @param max    inclusive upper bound
+     * @param bitmap the selection to narrow
+     * @param size   number of rows
+     */
+    void keepInRange(double[] column, double min, double max, long[] bitmap, int size);
+
+    /** @return a short name of the implementation, for logs and benchmarks */
+    String name();
+
+    /**
+     * Returns the fastest kernel available in this JVM.
+     *
+     * @return the vectorized kernel if the Vector API module is present, the scalar kernel otherwise
+     */
+    static RangeFilterKernel best() {
+        Logger logger = LoggerFactory.getLogger(RangeFilterKernel.class);
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // Loaded by name so that this interface does not link against the incubator module
+                RangeFilterKernel kernel = (RangeFilterKernel) Class.forName("airline.VectorRangeFilterKernel")
+                        .getDeclaredConstructor().newInstance();
+                logger.info("Using {} range filter kernel", kernel.name());
+                return kernel;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.warn("Vector API is present but unusable, falling back to scalar range filter", e);
+            }
+        } else {
+            logger.info("Using scalar range filter kernel; start the JVM with "
+                    + "--add-modules jdk.incubator.vector to use the vectorized one");
+        }
+        return new ScalarRangeFilterKernel();
+    }
+}
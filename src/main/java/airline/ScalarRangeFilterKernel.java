@@ -0,0 +1,47 @@
+package airline;
+
+/**
+ * Plain-Java {@link RangeFilterKernel}: one comparison per row, written as simple counted loops over
+ * the column so that the JIT can unroll them.
+ */
+final class ScalarRangeFilterKernel implements RangeFilterKernel {
+
+    @Override
+    public void keepInRange(int[] column, int min, int max, long[] bitmap, int size) {
+        for (int word = 0, base = 0; base < size; word++, base += 64) {
+            long bits = bitmap[word];
+            if (bits == 0) {
+                continue;
+            }
+            int end = Math.min(64, size - base);
+            long keep = 0;
+            for (int i = 0; i < end; i++) {
+                int value = column[base + i];
+                keep |= (value >= min && value <= max ? 1L : 0L) << i;
+            }
+            bitmap[word] = bits & keep;
+        }
+    }
+
+    @Override
+    public void keepInRange(double[] column, double min, double max, long[] bitmap, int size) {
+        for (int word = 0, base = 0; base < size; word++, base += 64) {
+            long bits = bitmap[word];
+            if (bits == 0) {
+                continue;
+            }
+            int end = Math.min(64, size - base);
+            long keep = 0;
+            for (int i = 0; i < end; i++) {
+                double value = column[base + i];
+                keep |= (value >= min && value <= max ? 1L : 0L) << i;
+            }
+            bitmap[word] = bits & keep;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
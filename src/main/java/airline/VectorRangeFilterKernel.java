@@ -0,0 +1,86 @@
+package airline;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD {@link RangeFilterKernel} built on the incubating Vector API.
+ * <p>
+ * Each 64-row word of the bitmap is filled from {@code 64 / lanes} vector comparisons: the lanes of
+ * a load are compared with both bounds at once and the resulting mask is packed into the word with
+ * {@code VectorMask.toLong()}. Words whose rows have all been rejected by an earlier bound are skipped.
+ * The last, partial word is handled one row at a time.
+ * </p>
+ * <p>
+ * Only instantiated through {@link RangeFilterKernel#best()}, which checks that the
+ * {@code jdk.incubator.vector} module is present.
+ * </p>
+ */
+final class VectorRangeFilterKernel implements RangeFilterKernel {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void keepInRange(int[] column, int min, int max, long[] bitmap, int size) {
+        int lanes = INTS.length();
+        int fullWords = size >>> 6;
+        for (int word = 0; word < fullWords; word++) {
+            long bits = bitmap[word];
+            if (bits == 0) {
+                continue;
+            }
+            int base = word << 6;
+            long keep = 0;
+            for (int offset = 0; offset < 64; offset += lanes) {
+                IntVector values = IntVector.fromArray(INTS, column, base + offset);
+                long inRange = values.compare(VectorOperators.GE, min)
+                        .and(values.compare(VectorOperators.LE, max))
+                        .toLong();
+                keep |= inRange << offset;
+            }
+            bitmap[word] = bits & keep;
+        }
+        for (int row = fullWords << 6; row < size; row++) {
+            int value = column[row];
+            if (value < min || value > max) {
+                bitmap[row >>> 6] &= ~(1L << row);
+            }
+        }
+    }
+
+    @Override
+    public void keepInRange(double[] column, double min, double max, long[] bitmap, int size) {
+        int lanes = DOUBLES.length();
+        int fullWords = size >>> 6;
+        for (int word = 0; word < fullWords; word++) {
+            long bits = bitmap[word];
+            if (bits == 0) {
+                continue;
+            }
+            int base = word << 6;
+            long keep = 0;
+            for (int offset = 0; offset < 64; offset += lanes) {
+                DoubleVector values = DoubleVector.fromArray(DOUBLES, column, base + offset);
+                long inRange = values.compare(VectorOperators.GE, min)
+                        .and(values.compare(VectorOperators.LE, max))
+                        .toLong();
+                keep |= inRange << offset;
+            }
+            bitmap[word] = bits & keep;
+        }
+        for (int row = fullWords << 6; row < size; row++) {
+            double value = column[row];
+            if (!(value >= min && value <= max)) {
+                bitmap[row >>> 6] &= ~(1L << row);
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + INTS.vectorBitSize() + "-bit)";
+    }
+}
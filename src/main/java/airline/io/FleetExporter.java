@@ -0,0 +1,98 @@
+package airline.io;
+
+import airline.Airline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes the fleet to CSV or JSON-lines files.
+ * <p>
+ * Planes are taken from {@link Airline#forEachPlane}, so each plane is formatted and written as soon
+ * as it is read and no list of the whole fleet is built. The output can be read back with
+ * {@link FleetImporter}.
+ * </p>
+ */
+public class FleetExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetExporter.class);
+
+    private final Airline airline;
+
+    /**
+     * Creates an exporter.
+     *
+     * @param airline the airline whose planes are exported
+     */
+    public FleetExporter(Airline airline) {
+        this.airline = airline;
+    }
+
+    /**
+     * Exports the fleet to a file whose format is derived from its extension.
+     *
+     * @param target the CSV or JSON-lines file; replaced if it exists
+     * @return the number of planes written
+     * @throws IOException if the file cannot be written or the planes cannot be read
+     */
+    public long exportFile(Path target) throws IOException {
+        return exportFile(target, FleetFormat.forFile(target));
+    }
+
+    /**
+     * Exports the fleet to a file in the given format.
+     *
+     * @param target the output file; replaced if it exists
+     * @param format the output format
+     * @return the number of planes written
+     * @throws IOException if the file cannot be written or the planes cannot be read
+     */
+    public long exportFile(Path target, FleetFormat format) throws IOException {
+        logger.info("Exporting fleet as {} to {}", format, target);
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            long count = exportTo(writer, format);
+            logger.info("Exported {} planes to {}", count, target);
+            return count;
+        }
+    }
+
+    /**
+     * Exports the fleet to an open writer. The writer is flushed but not closed.
+     *
+     * @param out    the destination
+     * @param format the output format
+     * @return the number of planes written
+     * @throws IOException if writing fails or the planes cannot be read
+     */
+    public long exportTo(Writer out, FleetFormat format) throws IOException {
+        if (format == FleetFormat.CSV) {
+            out.write(PlaneCodec.csvHeader());
+            out.write('\n');
+        }
+        long count;
+        try {
+            count = airline.forEachPlane(plane -> {
+                try {
+                    out.write(format == FleetFormat.CSV ? PlaneCodec.toCsv(plane) : PlaneCodec.toJson(plane));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        if (count < 0) {
+            throw new IOException("Failed to read planes from the database");
+        }
+        return count;
+    }
+}
@@ -0,0 +1,29 @@
+package airline.io;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * File formats understood by {@link FleetImporter} and {@link FleetExporter}.
+ * Both use the column names of the "planes" table as field names.
+ */
+public enum FleetFormat {
+    /** Comma-separated values with a header line. */
+    CSV,
+    /** One flat JSON object per line. */
+    JSON_LINES;
+
+    /**
+     * Picks the format from a file extension: ".csv", or ".jsonl"/".ndjson"/".json".
+     *
+     * @param file the file
+     * @return the matching format
+     * @throws IllegalArgumentException if the extension is not recognised
+     */
+    public static FleetFormat forFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) return CSV;
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) return JSON_LINES;
+        throw new IllegalArgumentException("Unknown fleet file format: " + file);
+    }
+}
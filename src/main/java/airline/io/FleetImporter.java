@@ -0,0 +1,388 @@
+package airline.io;
+
+import airline.Airline;
+import airline.Plane;
+import airline.util.ExecutionMode;
+import db.DatabaseManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streams planes from CSV or JSON-lines files into the fleet.
+ * <p>
+ * The file is read one line at a time; every row goes through {@link airline.util.PlaneFactory#createPlane}
+ * and valid planes are collected into batches that a separate writer thread stores with
+ * {@link Airline#addPlanes}. At most {@value #QUEUE_CAPACITY} batches wait between the reader and the
+ * writer, so when the database is slower than parsing the reader simply blocks. The importer itself
+ * therefore holds a number of rows that depends on the batch size, not on the size of the file. The
+ * airline does not: if its fleet is loaded (or anyone subscribes to its changes), every stored plane
+ * is also added to the in-memory fleet. Import large files through an {@link Airline} whose fleet has
+ * not been read to keep them out of the heap. The writer is a virtual thread in
+ * {@link ExecutionMode#VIRTUAL} mode.
+ * </p>
+ * <p>
+ * Rows that cannot be parsed or stored are written to an error file (first line number, reason and
+ * the original text with its line breaks escaped, separated by tabs) instead of stopping the import,
+ * so the rejected rows can be fixed and imported again.
+ * </p>
+ * <p>
+ * CSV files must start with a header naming the columns of the "planes" table
+ * ({@code type, model, capacity, cargo_capacity, range_km, fuel_consumption, cruising_speed,
+ * max_speed, service_ceiling} and optionally {@code image_path}). A quoted field may span up to
+ * {@value #MAX_RECORD_LINES} lines; its line breaks are read as {@code \n}. A line whose quoted field
+ * does not close is rejected on its own, and reading resumes with the line after it.
+ * JSON-lines files contain one flat object with the same keys per line.
+ * </p>
+ */
+public class FleetImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetImporter.class);
+
+    /** Number of parsed batches allowed to wait for the database writer. */
+    private static final int QUEUE_CAPACITY = 2;
+
+    /** Most lines one CSV record may span, so an unclosed quote cannot swallow the rest of the file. */
+    static final int MAX_RECORD_LINES = 64;
+
+    /** Default number of rows between progress reports. */
+    public static final long DEFAULT_PROGRESS_INTERVAL = 10_000;
+
+    /**
+     * Receives progress reports while an import is running and once when it finishes.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(ImportResult progress);
+    }
+
+    /**
+     * Counters of an import.
+     *
+     * @param rowsRead      data rows read from the input (header excluded)
+     * @param rowsImported  rows stored in the database
+     * @param rowsRejected  rows that failed parsing or storage
+     * @param elapsedMillis time since the import started
+     */
+    public record ImportResult(long rowsRead, long rowsImported, long rowsRejected, long elapsedMillis) {
+
+        /** @return rows read per second since the import started */
+        public double rowsPerSecond() {
+            return elapsedMillis == 0 ? rowsRead : rowsRead * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("read %d, imported %d, rejected %d in %d ms (%.0f rows/s)",
+                    rowsRead, rowsImported, rowsRejected, elapsedMillis, rowsPerSecond());
+        }
+    }
+
+    /** A parsed plane with the input it came from, so a failed write can be reported like a bad row. */
+    private record Row(long lineNumber, String text, Plane plane) {
+    }
+
+    private static final List<Row> END_OF_INPUT = List.of();
+
+    private final Airline airline;
+    private final int batchSize;
+    private final long progressInterval;
+
+    /**
+     * Creates an importer with the default batch size and progress interval.
+     *
+     * @param airline the airline receiving the planes
+     */
+    public FleetImporter(Airline airline) {
+        this(airline, DatabaseManager.DEFAULT_BATCH_SIZE, DEFAULT_PROGRESS_INTERVAL);
+    }
+
+    /**
+     * Creates an importer.
+     *
+     * @param airline          the airline receiving the planes
+     * @param batchSize        number of planes stored per database batch
+     * @param progressInterval number of rows between progress reports
+     */
+    public FleetImporter(Airline airline, int batchSize, long progressInterval) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.airline = airline;
+        this.batchSize = batchSize;
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Imports a file whose format is derived from its extension.
+     *
+     * @param source    the CSV or JSON-lines file
+     * @param errorFile where rejected rows are written; created only if a row is rejected
+     * @param listener  progress callback, may be null
+     * @return the final counters
+     * @throws IOException if the input cannot be read or the error file cannot be written
+     */
+    public ImportResult importFile(Path source, Path errorFile, ProgressListener listener) throws IOException {
+        return importFile(source, FleetFormat.forFile(source), errorFile, listener);
+    }
+
+    /**
+     * Imports a file in the given format.
+     *
+     * @param source    the input file
+     * @param format    the input format
+     * @param errorFile where rejected rows are written; created only if a row is rejected
+     * @param listener  progress callback, may be null
+     * @return the final counters
+     * @throws IOException if the input cannot be read or the error file cannot be written
+     */
+    public ImportResult importFile(Path source, FleetFormat format, Path errorFile, ProgressListener listener)
+            throws IOException {
+        logger.info("Importing {} fleet file {}", format, source);
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+             ErrorLog errors = new ErrorLog(errorFile)) {
+            ImportResult result = run(reader, format, errors, listener);
+            logger.info("Import of {} finished: {}", source, result);
+            return result;
+        }
+    }
+
+    /**
+     * Imports from an open reader. The reader is not closed.
+     *
+     * @param input     the input text
+     * @param format    the input format
+     * @param errorFile where rejected rows are written; created only if a row is rejected
+     * @param listener  progress callback, may be null
+     * @return the final counters
+     * @throws IOException if the input cannot be read or the error file cannot be written
+     */
+    public ImportResult importFrom(Reader input, FleetFormat format, Path errorFile, ProgressListener listener)
+            throws IOException {
+        BufferedReader reader = input instanceof BufferedReader br ? br : new BufferedReader(input);
+        try (ErrorLog errors = new ErrorLog(errorFile)) {
+            return run(reader, format, errors, listener);
+        }
+    }
+
+    private ImportResult run(BufferedReader reader, FleetFormat format, ErrorLog errors, ProgressListener listener)
+            throws IOException {
+        long start = System.currentTimeMillis();
+        AtomicLong imported = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicReference<RuntimeException> writerFailure = new AtomicReference<>();
+        BlockingQueue<List<Row>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        Thread writer = ExecutionMode.start("fleet-import-writer", () -> {
+            try {
+                List<Row> batch;
+                while ((batch = queue.take()) != END_OF_INPUT) {
+                    int stored = airline.addPlanes(batch.stream().map(Row::plane).toList()).size();
+                    imported.addAndGet(stored);
+                    for (Row row : batch.subList(stored, batch.size())) {
+                        rejected.incrementAndGet();
+                        errors.write(row.lineNumber(), "database write failed", row.text());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                writerFailure.set(e);
+                queue.clear();
+            }
+        });
+
+        long rowsRead = 0;
+        long lineNumber = 0;
+        List<String> header = null;
+        List<Row> batch = new ArrayList<>(batchSize);
+        try {
+            Deque<String> pushedBack = new ArrayDeque<>();
+            String line;
+            while ((line = nextLine(reader, pushedBack)) != null && writerFailure.get() == null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                long recordLine = lineNumber;
+                // A line break inside a quoted CSV field continues the record on the next line
+                if (format == FleetFormat.CSV && PlaneCodec.endsInQuotedField(line)) {
+                    List<String> continuation = continuation(reader, pushedBack, line);
+                    if (!continuation.isEmpty()) {
+                        lineNumber += continuation.size();
+                        line = line + "\n" + String.join("\n", continuation);
+                    }
+                }
+                if (format == FleetFormat.CSV && header == null) {
+                    header = PlaneCodec.splitCsv(line).stream().map(h -> h.toLowerCase(Locale.ROOT)).toList();
+                    continue;
+                }
+                rowsRead++;
+                try {
+                    Map<String, String> fields = format == FleetFormat.CSV
+                            ? csvFields(header, line)
+                            : PlaneCodec.parseJsonObject(line);
+                    batch.add(new Row(recordLine, line, PlaneCodec.toPlane(fields)));
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                    errors.write(recordLine, e.getMessage(), line);
+                }
+                if (batch.size() == batchSize) {
+                    hand(queue, batch, writer);
+                    batch = new ArrayList<>(batchSize);
+                }
+                if (listener != null && rowsRead % progressInterval == 0) {
+                    listener.onProgress(new ImportResult(rowsRead, imported.get(), rejected.get(),
+                            System.currentTimeMillis() - start));
+                }
+            }
+            if (!batch.isEmpty()) {
+                hand(queue, batch, writer);
+            }
+            hand(queue, END_OF_INPUT, writer);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            // Stops the writer if the reader failed before handing over END_OF_INPUT
+            writer.interrupt();
+        }
+        if (writerFailure.get() instanceof UncheckedIOException e) {
+            // The writer could not record a rejected plane in the error file
+            throw e.getCause();
+        }
+        if (writerFailure.get() != null) {
+            throw new IOException("Import aborted after a database failure", writerFailure.get());
+        }
+
+        ImportResult result = new ImportResult(rowsRead, imported.get(), rejected.get(),
+                System.currentTimeMillis() - start);
+        if (listener != null) {
+            listener.onProgress(result);
+        }
+        return result;
+    }
+
+    private static String nextLine(BufferedReader reader, Deque<String> pushedBack) throws IOException {
+        return pushedBack.isEmpty() ? reader.readLine() : pushedBack.poll();
+    }
+
+    /**
+     * Reads the lines that continue a CSV record whose first line ends inside a quoted field.
+     * If the field is not closed within {@value #MAX_RECORD_LINES} lines or before the end of the input,
+     * the lines read ahead are pushed back, so only the first line is rejected.
+     *
+     * @return the further lines of the record, or an empty list if the field never closes
+     */
+    private static List<String> continuation(BufferedReader reader, Deque<String> pushedBack, String first)
+            throws IOException {
+        List<String> lines = new ArrayList<>();
+        StringBuilder record = new StringBuilder(first);
+        String next;
+        while (lines.size() + 1 < MAX_RECORD_LINES && (next = nextLine(reader, pushedBack)) != null) {
+            lines.add(next);
+            record.append('\n').append(next);
+            if (!PlaneCodec.endsInQuotedField(record.toString())) {
+                return lines;
+            }
+        }
+        for (int i = lines.size() - 1; i >= 0; i--) {
+            pushedBack.addFirst(lines.get(i));
+        }
+        return List.of();
+    }
+
+    /**
+     * Passes a batch to the writer, blocking while the queue is full (this is the backpressure).
+     * Gives up if the writer thread has stopped, so a database failure cannot leave the reader stuck.
+     */
+    private static void hand(BlockingQueue<List<Row>> queue, List<Row> batch, Thread writer)
+            throws InterruptedException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (!writer.isAlive()) {
+                return;
+            }
+        }
+    }
+
+    private static Map<String, String> csvFields(List<String> header, String line) {
+        List<String> values = PlaneCodec.splitCsv(line);
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " fields but found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return fields;
+    }
+
+    /**
+     * Error file opened on the first rejected row. Shared by the reader and the writer thread.
+     * Guarded by a lock rather than a monitor, so a virtual thread writing to the file is not pinned.
+     */
+    private static final class ErrorLog implements AutoCloseable {
+        private final Path file;
+        private final ReentrantLock lock = new ReentrantLock();
+        private BufferedWriter out;
+
+        ErrorLog(Path file) {
+            this.file = file;
+        }
+
+        void write(long lineNumber, String reason, String text) {
+            if (file == null) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (out == null) {
+                    out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                }
+                out.write(lineNumber + "\t" + reason + "\t"
+                        + text.replace("\r", "\\r").replace("\n", "\\n"));
+                out.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            lock.lock();
+            try {
+                if (out != null) {
+                    out.close();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package airline.io;
+
+import airline.Plane;
+import airline.util.PlaneFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts planes to and from the flat record formats used by the importer and exporter.
+ * Field names match the columns of the "planes" table.
+ */
+final class PlaneCodec {
+
+    /** Record fields in their canonical order. */
+    static final List<String> FIELDS = List.of(
+            "type", "model", "capacity", "cargo_capacity", "range_km", "fuel_consumption",
+            "cruising_speed", "max_speed", "service_ceiling", "image_path"
+    );
+
+    private PlaneCodec() {
+    }
+
+    /**
+     * Builds a plane from named field values using {@link PlaneFactory#createPlane}.
+     *
+     * @param fields field name to value; "image_path" is optional
+     * @return the new plane (without an ID)
+     * @throws IllegalArgumentException if a required field is missing or malformed, or the type is unknown
+     */
+    static Plane toPlane(Map<String, String> fields) {
+        Plane plane = PlaneFactory.createPlane(
+                required(fields, "type"),
+                required(fields, "model"),
+                Integer.parseInt(required(fields, "capacity")),
+                Double.parseDouble(required(fields, "cargo_capacity")),
+                Integer.parseInt(required(fields, "range_km")),
+                Double.parseDouble(required(fields, "fuel_consumption")),
+                Double.parseDouble(required(fields, "cruising_speed")),
+                Double.parseDouble(required(fields, "max_speed")),
+                Integer.parseInt(required(fields, "service_ceiling"))
+        );
+        String image = fields.get("image_path");
+        if (image != null && !image.isBlank()) {
+            plane.setImagePath(image);
+        }
+        return plane;
+    }
+
+    /**
+     * Tells whether CSV text ends inside a quoted field, so the record continues on the next line.
+     * Quotes are read as in {@link #splitCsv}, so a quote inside an unquoted value opens nothing.
+     *
+     * @param text the CSV text read so far
+     * @return true if a quoted field is still open
+     */
+    static boolean endsInQuotedField(String text) {
+        return scanCsv(text, null);
+    }
+
+    /**
+     * Splits one CSV record into fields. A field may be quoted with double quotes if the quote is its
+     * first non-blank character; a doubled quote inside a quoted field stands for a literal quote and
+     * line breaks are kept. A quote anywhere else is part of the value.
+     *
+     * @param line the CSV record
+     * @return the field values
+     * @throws IllegalArgumentException if a quoted field is not closed
+     */
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        if (scanCsv(line, values)) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        return values;
+    }
+
+    /**
+     * Reads CSV text field by field.
+     *
+     * @param text   the CSV text
+     * @param values receives the trimmed field values, or null if only the quoting state is needed
+     * @return true if the text ends inside a quoted field
+     */
+    private static boolean scanCsv(String text, List<String> values) {
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"' && !fieldStarted) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (c == ',') {
+                if (values != null) {
+                    values.add(current.toString().trim());
+                }
+                current.setLength(0);
+                fieldStarted = false;
+            } else {
+                current.append(c);
+                fieldStarted |= !Character.isWhitespace(c);
+            }
+        }
+        if (values != null && !quoted) {
+            values.add(current.toString().trim());
+        }
+        return quoted;
+    }
+
+    /**
+     * Parses a single flat JSON object whose values are strings, numbers, booleans or null.
+     * Nested objects and arrays are rejected.
+     *
+     * @param line the JSON text
+     * @return field name to value as text; JSON null becomes a null value
+     * @throws IllegalArgumentException if the text is not a flat JSON object
+     */
+    static Map<String, String> parseJsonObject(String line) {
+        JsonReader reader = new JsonReader(line);
+        Map<String, String> fields = new LinkedHashMap<>();
+        reader.expect('{');
+        if (!reader.tryConsume('}')) {
+            do {
+                String name = reader.readString();
+                reader.expect(':');
+                fields.put(name, reader.readScalar());
+            } while (reader.tryConsume(','));
+            reader.expect('}');
+        }
+        reader.expectEnd();
+        return fields;
+    }
+
+    /**
+     * Returns the field values of a plane in {@link #FIELDS} order; numbers use a locale-independent format.
+     *
+     * @param plane the plane
+     * @return the values as text, with null for a missing image path
+     */
+    static String[] values(Plane plane) {
+        return new String[]{
+                plane.getType(),
+                plane.getModel(),
+                String.valueOf(plane.getCapacity()),
+                String.valueOf(plane.getCargoCapacity()),
+                String.valueOf(plane.getRange()),
+                String.valueOf(plane.getFuelConsumption()),
+                String.valueOf(plane.getCruisingSpeed()),
+                String.valueOf(plane.getMaxSpeed()),
+                String.valueOf(plane.getServiceCeiling()),
+                plane.getImagePath()
+        };
+    }
+
+    /** @return the CSV header line */
+    static String csvHeader() {
+        return String.join(",", FIELDS);
+    }
+
+    /**
+     * Formats a plane as one CSV record, quoting values that contain commas, quotes or line breaks.
+     * A line break inside a quoted value continues the record on the next line.
+     *
+     * @param plane the plane
+     * @return the CSV record without a line terminator
+     */
+    static String toCsv(Plane plane) {
+        String[] values = values(plane);
+        StringBuilder sb = new StringBuilder(128);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            String value = values[i] == null ? "" : values[i];
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                sb.append(value);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats a plane as a flat JSON object on one line.
+     *
+     * @param plane the plane
+     * @return the JSON text without a line terminator
+     */
+    static String toJson(Plane plane) {
+        String[] values = values(plane);
+        StringBuilder sb = new StringBuilder(256).append('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('"').append(FIELDS.get(i)).append("\": ");
+            boolean text = i < 2 || i == values.length - 1;
+            if (values[i] == null) {
+                sb.append("null");
+            } else if (text) {
+                appendJsonString(sb, values[i]);
+            } else {
+                sb.append(values[i]);
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+        return value.trim();
+    }
+
+    /**
+     * Minimal cursor over JSON text, enough for flat objects.
+     */
+    private static final class JsonReader {
+        private final String text;
+        private int pos = 0;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        void expect(char c) {
+            skipWhitespace();
+            if (pos >= text.length() || text.charAt(pos) != c) {
+                throw new IllegalArgumentException("Expected '" + c + "' at position " + pos);
+            }
+            pos++;
+        }
+
+        boolean tryConsume(char c) {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw new IllegalArgumentException("Unexpected text after JSON object at position " + pos);
+            }
+        }
+
+        String readScalar() {
+            skipWhitespace();
+            if (pos >= text.length()) {
+                throw new IllegalArgumentException("Unexpected end of JSON");
+            }
+            char c = text.charAt(pos);
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '{' || c == '[') {
+                throw new IllegalArgumentException("Nested values are not supported at position " + pos);
+            }
+            int start = pos;
+            while (pos < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("Missing value at position " + start);
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n' -> sb.append('\n');
+                    case 't' -> sb.append('\t');
+                    case 'r' -> sb.append('\r');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            throw new IllegalArgumentException("Bad unicode escape at position " + pos);
+                        }
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> sb.append(escaped);
+                }
+            }
+            throw new IllegalArgumentException("Unterminated string");
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package airline.util;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Kind of threads the application starts for its background work: CLI sessions, import jobs and
+ * the asynchronous airline operations.
+ * <p>
+ * The mode is chosen once at start-up (see the {@code --virtual-threads} flag of {@code Main}) and
+ * read whenever such a thread is created. In {@link #VIRTUAL} mode blocking JDBC calls made from
+ * those threads are not run on the virtual thread itself but handed to a small pool of platform
+ * threads owned by {@link db.DatabaseManager}, so that a thread pinned inside the SQLite driver
+ * never holds one of the few carrier threads.
+ * </p>
+ */
+public enum ExecutionMode {
+
+    /** One daemon platform thread per task, as the application has always done. */
+    PLATFORM,
+
+    /** One virtual thread per task. */
+    VIRTUAL;
+
+    private static volatile ExecutionMode current = PLATFORM;
+
+    /** @return the mode threads are currently created in */
+    public static ExecutionMode current() {
+        return current;
+    }
+
+    /**
+     * Sets the mode for threads created from now on. Threads that are already running keep their kind.
+     *
+     * @param mode the new mode
+     */
+    public static void set(ExecutionMode mode) {
+        current = mode == null ? PLATFORM : mode;
+    }
+
+    /**
+     * Returns a mode by its name, ignoring case.
+     *
+     * @param name "platform" or "virtual"
+     * @return the matching mode
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static ExecutionMode parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Starts a thread of the current mode. Platform threads are daemons, like virtual threads,
+     * so that none of them keeps the JVM alive.
+     *
+     * @param name the thread name
+     * @param task the work to run
+     * @return the started thread
+     */
+    public static Thread start(String name, Runnable task) {
+        return current.builder().name(name).start(task);
+    }
+
+    /**
+     * Returns a factory of threads of the current mode, named {@code prefix1}, {@code prefix2}, ...
+     * The mode is fixed when the factory is created.
+     *
+     * @param prefix the thread name prefix
+     * @return the thread factory
+     */
+    public static ThreadFactory threadFactory(String prefix) {
+        return current.builder().name(prefix, 1).factory();
+    }
+
+    private Thread.Builder builder() {
+        return this == VIRTUAL ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+    }
+}
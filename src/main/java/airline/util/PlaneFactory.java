@@ -65,6 +65,22 @@ public class PlaneFactory {
         return plane;
     }
 
+    /**
+     * Creates an independent copy of a plane with the same type, ID, attributes and image, e.g. to be
+     * edited and saved without touching the instance other threads may be reading.
+     *
+     * @param plane the plane to copy
+     * @return the copy
+     * @throws IllegalArgumentException if the plane's type is unknown
+     */
+    public static Plane copyOf(Plane plane) {
+        Plane copy = createPlane(plane.getType(), plane.getModel(), plane.getCapacity(), plane.getCargoCapacity(),
+                plane.getRange(), plane.getFuelConsumption(), plane.getCruisingSpeed(), plane.getMaxSpeed(),
+                plane.getServiceCeiling());
+        copy.setId(plane.getId());
+        copy.setImagePath(plane.getImagePath());
+        return copy;
+    }
 
     /**
      * Returns an unmodifiable list of available plane types.
@@ -0,0 +1,413 @@
+package db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteConfig;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A small, long-lived pool of SQLite connections.
+ * <p>
+ * SQLite allows only one writer at a time, so the pool keeps a single writer connection
+ * guarded by a fair lock, plus a bounded set of read-only reader connections that are
+ * opened lazily and reused. Connections handed out by the pool are thin proxies whose
+ * {@code close()} returns them to the pool, so callers keep the usual try-with-resources style.
+ * </p>
+ * <p>
+ * In-memory databases cannot be shared between connections, so for such URLs every
+ * checkout (read or write) goes through the writer connection.
+ * </p>
+ * <p>
+ * A checkout only asks the database whether a connection is still valid if a call on it failed
+ * while it was checked out, or if it sat idle for longer than {@link #VALIDATION_IDLE_NANOS}.
+ * A connection that is already closed is replaced without asking.
+ * </p>
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    /** Default number of read-only connections kept by the pool. */
+    public static final int DEFAULT_READER_COUNT = 4;
+
+    /** Default time to wait for a free connection before giving up. */
+    public static final long DEFAULT_CHECKOUT_TIMEOUT_MS = 30_000;
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /** Idle time after which a connection is validated again before it is handed out. */
+    static final long VALIDATION_IDLE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final String dbUrl;
+    private final boolean inMemory;
+    private final int maxReaders;
+    private final long checkoutTimeoutMs;
+    private final StorageProfile profile;
+
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+    private Connection writer;
+
+    private final BlockingQueue<Connection> idleReaders;
+    private final List<Connection> allReaders = new ArrayList<>();
+    private final AtomicInteger openReaders = new AtomicInteger();
+
+    /** Connections on which a call failed; validated at their next checkout. */
+    private final Set<Connection> suspect = ConcurrentHashMap.newKeySet();
+    /** When each connection was last returned to the pool, in {@link System#nanoTime()}. */
+    private final Map<Connection, Long> returnedAt = new ConcurrentHashMap<>();
+
+    private volatile boolean closed = false;
+
+    // Metrics
+    private final AtomicLong readerCheckouts = new AtomicLong();
+    private final AtomicLong writerCheckouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong replacedConnections = new AtomicLong();
+    private final AtomicLong validations = new AtomicLong();
+
+    /**
+     * Creates a pool with the default number of readers and checkout timeout, and the
+     * {@linkplain StorageProfile#configured() configured} storage profile.
+     *
+     * @param dbUrl JDBC SQLite URL
+     */
+    public ConnectionPool(String dbUrl) {
+        this(dbUrl, DEFAULT_READER_COUNT, DEFAULT_CHECKOUT_TIMEOUT_MS, StorageProfile.configured());
+    }
+
+    /**
+     * Creates a pool for the given database.
+     *
+     * @param dbUrl             JDBC SQLite URL
+     * @param maxReaders        maximum number of read-only connections (at least 1)
+     * @param checkoutTimeoutMs how long a caller waits for a free connection, in milliseconds
+     * @param profile           pragmas applied to every connection when it is opened
+     */
+    public ConnectionPool(String dbUrl, int maxReaders, long checkoutTimeoutMs, StorageProfile profile) {
+        if (maxReaders < 1) {
+            throw new IllegalArgumentException("Pool must have at least one reader: " + maxReaders);
+        }
+        this.dbUrl = dbUrl;
+        this.inMemory = isInMemoryUrl(dbUrl);
+        this.maxReaders = maxReaders;
+        this.checkoutTimeoutMs = checkoutTimeoutMs;
+        this.profile = profile;
+        this.idleReaders = new ArrayBlockingQueue<>(maxReaders);
+        logger.info("Connection pool created for {} (readers: {}, in-memory: {}, profile: {})",
+                dbUrl, maxReaders, inMemory, profile);
+    }
+
+    /**
+     * Checks out the single writer connection. Writers are serialized: the caller holds
+     * the writer until the returned connection is closed.
+     *
+     * @return a pooled writer connection
+     * @throws SQLException if the pool is closed, the wait times out, or the connection cannot be opened
+     */
+    public Connection writer() throws SQLException {
+        ensureOpen();
+        long start = System.nanoTime();
+        try {
+            if (!writerLock.tryLock(checkoutTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Timed out waiting for the writer connection: " + dbUrl);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the writer connection", e);
+        }
+        try {
+            ensureOpen();
+            if (writer == null || !isHealthy(writer)) {
+                if (writer != null) {
+                    replacedConnections.incrementAndGet();
+                    logger.warn("Writer connection to {} failed health check, reopening", dbUrl);
+                    closeQuietly(writer);
+                }
+                writer = openConnection(false);
+            }
+        } catch (SQLException | RuntimeException e) {
+            writerLock.unlock();
+            throw e;
+        }
+        recordCheckout(writerCheckouts, start);
+        return wrap(writer, this::releaseWriter);
+    }
+
+    /**
+     * Checks out a read-only connection. For in-memory databases this is the writer connection.
+     *
+     * @return a pooled reader connection
+     * @throws SQLException if the pool is closed, the wait times out, or the connection cannot be opened
+     */
+    public Connection reader() throws SQLException {
+        if (inMemory) {
+            return writer();
+        }
+        ensureOpen();
+        long start = System.nanoTime();
+        Connection conn = idleReaders.poll();
+        if (conn == null && openReaders.incrementAndGet() <= maxReaders) {
+            try {
+                conn = openConnection(true);
+                synchronized (allReaders) {
+                    allReaders.add(conn);
+                }
+            } catch (SQLException e) {
+                openReaders.decrementAndGet();
+                throw e;
+            }
+        } else if (conn == null) {
+            openReaders.decrementAndGet();
+            try {
+                conn = idleReaders.poll(checkoutTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a reader connection", e);
+            }
+            if (conn == null) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Timed out waiting for a reader connection: " + dbUrl);
+            }
+        }
+        if (!isHealthy(conn)) {
+            replacedConnections.incrementAndGet();
+            logger.warn("Reader connection to {} failed health check, reopening", dbUrl);
+            Connection replacement;
+            try {
+                replacement = openConnection(true);
+            } catch (SQLException e) {
+                forgetReader(conn);
+                closeQuietly(conn);
+                throw e;
+            }
+            synchronized (allReaders) {
+                allReaders.remove(conn);
+                allReaders.add(replacement);
+            }
+            closeQuietly(conn);
+            conn = replacement;
+        }
+        recordCheckout(readerCheckouts, start);
+        return wrap(conn, this::releaseReader);
+    }
+
+    /**
+     * Returns a snapshot of the pool's usage counters.
+     *
+     * @return current pool metrics
+     */
+    public PoolMetrics getMetrics() {
+        return new PoolMetrics(
+                readerCheckouts.get(),
+                writerCheckouts.get(),
+                totalWaitNanos.get(),
+                maxWaitNanos.get(),
+                timeouts.get(),
+                replacedConnections.get(),
+                validations.get(),
+                inMemory ? 0 : Math.min(openReaders.get(), maxReaders),
+                idleReaders.size()
+        );
+    }
+
+    /** @return the JDBC URL this pool connects to */
+    public String getDbUrl() {
+        return dbUrl;
+    }
+
+    /** @return true if {@link #close()} has been called */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes every pooled connection. Idle readers are closed at once; readers that are checked
+     * out at this moment stay usable and are closed as soon as they are returned. The writer is
+     * closed once its current holder, if any, returns it, and this method waits for that.
+     * Further checkouts fail with {@link SQLException}.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        List<Connection> idle = new ArrayList<>();
+        idleReaders.drainTo(idle);
+        for (Connection conn : idle) {
+            forgetReader(conn);
+            closeQuietly(conn);
+        }
+
+        writerLock.lock();
+        try {
+            if (writer != null) {
+                closeQuietly(writer);
+                writer = null;
+            }
+        } finally {
+            writerLock.unlock();
+        }
+        logger.info("Connection pool for {} closed. {}", dbUrl, getMetrics());
+    }
+
+    private void releaseWriter(Connection conn) {
+        try {
+            // Only the outermost checkout may reset the connection; nested checkouts share its transaction
+            if (writerLock.getHoldCount() == 1 && !conn.isClosed() && !conn.getAutoCommit()) {
+                logger.warn("Writer connection returned with an open transaction, rolling back");
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to reset writer connection, it will be reopened", e);
+            closeQuietly(conn);
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    private void releaseReader(Connection conn) {
+        // Re-check after the offer: close() may have drained the idle queue in between
+        if (closed || !idleReaders.offer(conn) || (closed && idleReaders.remove(conn))) {
+            forgetReader(conn);
+            closeQuietly(conn);
+        }
+    }
+
+    private void forgetReader(Connection conn) {
+        synchronized (allReaders) {
+            allReaders.remove(conn);
+        }
+        openReaders.decrementAndGet();
+    }
+
+    private Connection openConnection(boolean readOnly) throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        if (readOnly) {
+            config.setReadOnly(true);
+        }
+        Connection conn = DriverManager.getConnection(dbUrl, config.toProperties());
+        try {
+            profile.apply(conn, readOnly);
+            ModelFolding.register(conn);
+        } catch (SQLException e) {
+            closeQuietly(conn);
+            throw e;
+        }
+        logger.debug("Opened {} connection: {}", readOnly ? "reader" : "writer", dbUrl);
+        return conn;
+    }
+
+    private boolean isHealthy(Connection conn) {
+        try {
+            if (conn.isClosed()) {
+                return false;
+            }
+            boolean failed = suspect.remove(conn);
+            Long returned = returnedAt.get(conn);
+            if (!failed && (returned == null || System.nanoTime() - returned < VALIDATION_IDLE_NANOS)) {
+                return true;
+            }
+            validations.incrementAndGet();
+            return conn.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void recordCheckout(AtomicLong counter, long startNanos) {
+        long waited = System.nanoTime() - startNanos;
+        counter.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed: " + dbUrl);
+        }
+    }
+
+    private void closeQuietly(Connection conn) {
+        suspect.remove(conn);
+        returnedAt.remove(conn);
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            logger.debug("Error closing pooled connection to {}", dbUrl, e);
+        }
+    }
+
+    /**
+     * Wraps a physical connection so that {@code close()} hands it back to the pool
+     * instead of closing it. Closing the same proxy twice is a no-op. A call that fails with
+     * {@link SQLException} marks the connection for validation at its next checkout.
+     */
+    private Connection wrap(Connection target, Consumer<Connection> release) {
+        AtomicBoolean returned = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        if (returned.compareAndSet(false, true)) {
+                            returnedAt.put(target, System.nanoTime());
+                            release.accept(target);
+                        }
+                        yield null;
+                    }
+                    case "isClosed" -> returned.get() || target.isClosed();
+                    case "unwrap" -> target.unwrap((Class<?>) args[0]);
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Pooled[" + target + "]";
+                    default -> {
+                        if (returned.get()) {
+                            throw new SQLException("Connection has already been returned to the pool");
+                        }
+                        try {
+                            yield method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            if (e.getCause() instanceof SQLException) {
+                                suspect.add(target);
+                            }
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    static boolean isInMemoryUrl(String url) {
+        String lower = url.toLowerCase();
+        if (!lower.startsWith("jdbc:sqlite:")) {
+            return false;
+        }
+        String target = lower.substring("jdbc:sqlite:".length());
+        return target.isEmpty()
+                || target.startsWith(":memory:")
+                || target.startsWith("file::memory:")
+                || (target.startsWith("file:") && target.contains("mode=memory"));
+    }
+}
@@ -2,33 +2,123 @@ package db;
 
 import airline.*;
 import airline.util.PlaneFactory;
+import db.WriteBehindQueue.Kind;
+import db.WriteBehindQueue.PendingWrite;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Manages SQLite database operations related to the Plane entities.
  * Handles creation, insertion, update, deletion, and retrieval of plane data.
+ * Connections are taken from a long-lived {@link ConnectionPool}: writes go through
+ * the single writer connection, reads through the read-only reader connections.
+ * When called from a virtual thread, the JDBC work of every operation runs on a small pool of
+ * platform threads, one per pooled connection (see {@link JdbcExecutor}), so that the driver never
+ * pins a carrier thread.
  * All major actions and exceptions are logged using SLF4J.
+ * <p>
+ * In the optional write-behind mode (see {@link WriteBehindPolicy}) adds, updates and deletes are
+ * queued and committed in groups by a background thread; reads commit the queue first, so they
+ * always see every change made through this manager. This mode assumes the manager is the only
+ * writer of the database: it assigns the IDs of new planes itself.
+ * </p>
  */
-public class DatabaseManager {
+public class DatabaseManager implements AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseManager.class);
 
     // Default database URL (for main app)
     private static final String DEFAULT_DB_URL = "jdbc:sqlite:src/main/resources/airline.db";
+    /** Default number of rows written and committed together by the batch operations. */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    /** Default number of rows the driver fetches at a time when planes are streamed. */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO planes (type, model, capacity, cargo_capacity, range_km,
+                                fuel_consumption, cruising_speed, max_speed,
+                                service_ceiling, image_path)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?);
+        """;
+
+    /** Insert with an ID chosen by the write-behind mode; the ID is the last parameter. */
+    private static final String INSERT_WITH_ID_SQL = """
+            INSERT INTO planes (type, model, capacity, cargo_capacity, range_km,
+                                fuel_consumption, cruising_speed, max_speed,
+                                service_ceiling, image_path, id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);
+        """;
+
+    private static final String UPDATE_SQL = """
+            UPDATE planes SET
+                type = ?, model = ?, capacity = ?, cargo_capacity = ?, range_km = ?,
+                fuel_consumption = ?, cruising_speed = ?, max_speed = ?,
+                service_ceiling = ?, image_path = ?
+            WHERE id = ?;
+        """;
+
+    /*
+     * Per-type totals maintained by triggers, so they are read without scanning "planes".
+     * Minimum and maximum are not kept here: they cannot be maintained on delete without a rescan,
+     * and the in-memory FleetStatistics keeps them instead.
+     */
+    private static final String SUMMARY_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS plane_type_summary (
+                type TEXT PRIMARY KEY COLLATE NOCASE,
+                plane_count INTEGER NOT NULL DEFAULT 0,
+                total_capacity INTEGER NOT NULL DEFAULT 0,
+                total_cargo REAL NOT NULL DEFAULT 0
+            );
+        """;
+
+    private static final String SUMMARY_ADD_NEW = """
+                INSERT INTO plane_type_summary (type, plane_count, total_capacity, total_cargo)
+                VALUES (NEW.type, 1, IFNULL(NEW.capacity, 0), IFNULL(NEW.cargo_capacity, 0))
+                ON CONFLICT (type) DO UPDATE SET
+                    plane_count = plane_count + 1,
+                    total_capacity = total_capacity + excluded.total_capacity,
+                    total_cargo = total_cargo + excluded.total_cargo;
+        """;
+
+    private static final String SUMMARY_SUBTRACT_OLD = """
+                UPDATE plane_type_summary SET
+                    plane_count = plane_count - 1,
+                    total_capacity = total_capacity - IFNULL(OLD.capacity, 0),
+                    total_cargo = total_cargo - IFNULL(OLD.cargo_capacity, 0)
+                WHERE type = OLD.type;
+                DELETE FROM plane_type_summary WHERE type = OLD.type AND plane_count <= 0;
+        """;
+
     private final String dbUrl;
+    private final ConnectionPool pool;
+    private final JdbcExecutor jdbc;
+    /** Queue of the write-behind mode; null when changes are committed one by one. */
+    private final WriteBehindQueue writeBehind;
+    /** Last ID given to a new plane in write-behind mode. */
+    private final AtomicInteger lastId = new AtomicInteger();
 
     /**
      * Constructs a DatabaseManager and ensures the required table exists, using default DB URL.
      */
     public DatabaseManager() {
-        this.dbUrl = DEFAULT_DB_URL;
+        this(DEFAULT_DB_URL);
         logger.info("DatabaseManager CONSTRUCTOR LOG: initialization with dbUrl = {}", dbUrl);
-        createTableIfNotExists();
     }
 
 
@@ -37,8 +127,51 @@ public class DatabaseManager {
      * @param dbUrl JDBC SQLite URL (e.g., "jdbc:sqlite:memory:" or file path)
      */
     public DatabaseManager(String dbUrl) {
+        this(dbUrl, ConnectionPool.DEFAULT_READER_COUNT);
+    }
+
+    /**
+     * Constructs a DatabaseManager with a custom database URL and connection pool size, using the
+     * {@linkplain StorageProfile#configured() configured} storage profile.
+     *
+     * @param dbUrl          JDBC SQLite URL
+     * @param readerPoolSize number of read-only connections kept open alongside the writer
+     */
+    public DatabaseManager(String dbUrl, int readerPoolSize) {
+        this(dbUrl, readerPoolSize, StorageProfile.configured());
+    }
+
+    /**
+     * Constructs a DatabaseManager with full control over the connection pool and storage settings.
+     *
+     * @param dbUrl          JDBC SQLite URL
+     * @param readerPoolSize number of read-only connections kept open alongside the writer
+     * @param profile        SQLite pragmas applied to every connection (see {@link StorageProfile})
+     */
+    public DatabaseManager(String dbUrl, int readerPoolSize, StorageProfile profile) {
+        this(dbUrl, readerPoolSize, profile, null);
+    }
+
+    /**
+     * Constructs a DatabaseManager that optionally queues its writes and commits them in groups.
+     *
+     * @param dbUrl          JDBC SQLite URL
+     * @param readerPoolSize number of read-only connections kept open alongside the writer
+     * @param profile        SQLite pragmas applied to every connection (see {@link StorageProfile})
+     * @param writeBehind    when to commit queued writes, or null to commit every write at once
+     */
+    public DatabaseManager(String dbUrl, int readerPoolSize, StorageProfile profile, WriteBehindPolicy writeBehind) {
         this.dbUrl = dbUrl;
-        createTableIfNotExists();
+        this.pool = new ConnectionPool(dbUrl, readerPoolSize, ConnectionPool.DEFAULT_CHECKOUT_TIMEOUT_MS, profile);
+        this.jdbc = new JdbcExecutor(readerPoolSize + 1);
+        jdbc.run(this::createTableIfNotExists);
+        if (writeBehind != null) {
+            lastId.set(jdbc.call(this::selectLastId));
+            this.writeBehind = new WriteBehindQueue(writeBehind, this::writeGroup);
+            logger.info("Write-behind enabled for {}: {}", dbUrl, writeBehind);
+        } else {
+            this.writeBehind = null;
+        }
     }
 
     /**
@@ -61,9 +194,16 @@ public class DatabaseManager {
                 image_path TEXT
             );
         """;
-        try (Connection conn = connect();
+        try (Connection conn = pool.writer();
              Statement stmt = conn.createStatement()) {
             stmt.execute(sql);
+            // Indexes backing findPlanes(): one per filterable column
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_planes_type ON planes (type COLLATE NOCASE);");
+            for (PlaneAttribute attribute : PlaneAttribute.values()) {
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_planes_" + attribute.getColumn()
+                        + " ON planes (" + attribute.getColumn() + ");");
+            }
+            createSummaryTable(conn, stmt);
             logger.info("Checked/created 'planes' table in DB: {}", dbUrl);
         } catch (SQLException e) {
             logger.error("Error creating planes table in DB: {}", dbUrl, e);
@@ -71,52 +211,118 @@ public class DatabaseManager {
     }
 
     /**
-     * Establishes a connection to the SQLite database.
-     *
-     * @return the established SQL Connection
-     * @throws SQLException if connection fails
+     * Creates the "plane_type_summary" table and the triggers that keep it in step with "planes".
+     * The triggers run inside the statement that changes "planes", so the totals are updated in the
+     * same transaction as the rows, including batch writes. A database created before the table
+     * existed is summarised once when the table is still empty.
      */
-    private Connection connect() throws SQLException {
+    private void createSummaryTable(Connection conn, Statement stmt) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
         try {
-            Class.forName("org.sqlite.JDBC");
-        } catch (ClassNotFoundException e) {
-            logger.error("SQLite JDBC driver not found.", e);
+            stmt.execute(SUMMARY_TABLE_SQL);
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_planes_summary_insert AFTER INSERT ON planes BEGIN"
+                    + SUMMARY_ADD_NEW + "END;");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_planes_summary_delete AFTER DELETE ON planes BEGIN"
+                    + SUMMARY_SUBTRACT_OLD + "END;");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_planes_summary_update"
+                    + " AFTER UPDATE OF type, capacity, cargo_capacity ON planes BEGIN"
+                    + SUMMARY_SUBTRACT_OLD + SUMMARY_ADD_NEW + "END;");
+            stmt.execute("""
+                INSERT INTO plane_type_summary (type, plane_count, total_capacity, total_cargo)
+                SELECT type, COUNT(*), IFNULL(SUM(capacity), 0), IFNULL(SUM(cargo_capacity), 0)
+                FROM planes
+                WHERE NOT EXISTS (SELECT 1 FROM plane_type_summary)
+                GROUP BY type COLLATE NOCASE;
+            """);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
         }
-        Connection conn = DriverManager.getConnection(this.dbUrl);
-        logger.debug("Established DB connection: {}", dbUrl);
-        return conn;
+    }
+
+    /**
+     * Returns a snapshot of the connection pool counters (checkouts, wait times, timeouts).
+     *
+     * @return current pool metrics
+     */
+    public PoolMetrics getPoolMetrics() {
+        return pool.getMetrics();
+    }
+
+    /** @return true if writes are queued and committed in groups, see {@link WriteBehindPolicy} */
+    public boolean isWriteBehind() {
+        return writeBehind != null;
+    }
+
+    /**
+     * Commits every queued write now and waits until it is durable. Does nothing unless the manager
+     * is in write-behind mode.
+     *
+     * @return true if every write queued so far is committed and none has been dropped since the
+     *         previous flush because the database rejected it
+     */
+    public boolean flush() {
+        return writeBehind == null || writeBehind.flush(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Like {@link #flush()}, but gives up after the timeout. The queued writes are still committed
+     * in the background.
+     *
+     * @param timeout the longest time to wait
+     * @return false if the timeout passed first, or as {@link #flush()}
+     */
+    public boolean awaitFlush(Duration timeout) {
+        return writeBehind == null || writeBehind.flush(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Commits the queued writes, if any, and waits for JDBC calls already handed to the platform
+     * pool, then closes all pooled connections. The manager cannot be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+        jdbc.close();
+        pool.close();
     }
 
     /**
      * Inserts a new plane into the database and logs the operation.
+     * On success the generated ID is stored in the plane via {@link Plane#setId(int)}.
      *
      * @param plane the plane to be added
+     * @return true if the plane was inserted, false otherwise
      */
-    public void addPlane(Plane plane) {
-        String sql = """
-            INSERT INTO planes (type, model, capacity, cargo_capacity, range_km, 
-                                fuel_consumption, cruising_speed, max_speed, 
-                                service_ceiling, image_path)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?);
-        """;
-        try (Connection conn = connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    public boolean addPlane(Plane plane) {
+        return jdbc.call(() -> insertPlane(plane));
+    }
 
-            pstmt.setString(1, plane.getType());
-            pstmt.setString(2, plane.getModel());
-            pstmt.setInt(3, plane.getCapacity());
-            pstmt.setDouble(4, plane.getCargoCapacity());
-            pstmt.setInt(5, plane.getRange());
-            pstmt.setDouble(6, plane.getFuelConsumption());
-            pstmt.setDouble(7, plane.getCruisingSpeed());
-            pstmt.setDouble(8, plane.getMaxSpeed());
-            pstmt.setInt(9, plane.getServiceCeiling());
-            pstmt.setString(10, plane.getImagePath());
+    private boolean insertPlane(Plane plane) {
+        if (writeBehind != null) {
+            return queueInsert(plane);
+        }
+        try (Connection conn = pool.writer();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
 
+            bindPlane(pstmt, plane);
             pstmt.executeUpdate();
-            logger.info("Plane '{}' added to DB (type: {})", plane.getModel(), plane.getType());
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    plane.setId(keys.getInt(1));
+                }
+            }
+            logger.info("Plane '{}' added to DB (type: {}, ID: {})", plane.getModel(), plane.getType(), plane.getId());
+            return true;
         } catch (SQLException e) {
             logger.error("Error adding plane '{}' to DB", plane.getModel(), e);
+            return false;
         }
     }
 
@@ -124,38 +330,38 @@ public class DatabaseManager {
      * Updates an existing plane's data in the database and logs the operation.
      *
      * @param plane the plane with updated information
+     * @return true if a row was updated, false otherwise
      */
-    public void updatePlane(Plane plane) {
-        String sql = """
-            UPDATE planes SET
-                type = ?, model = ?, capacity = ?, cargo_capacity = ?, range_km = ?,
-                fuel_consumption = ?, cruising_speed = ?, max_speed = ?,
-                service_ceiling = ?, image_path = ?
-            WHERE id = ?;
-        """;
-        try (Connection conn = connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    public boolean updatePlane(Plane plane) {
+        return jdbc.call(() -> updatePlaneRow(plane));
+    }
 
-            pstmt.setString(1, plane.getType());
-            pstmt.setString(2, plane.getModel());
-            pstmt.setInt(3, plane.getCapacity());
-            pstmt.setDouble(4, plane.getCargoCapacity());
-            pstmt.setInt(5, plane.getRange());
-            pstmt.setDouble(6, plane.getFuelConsumption());
-            pstmt.setDouble(7, plane.getCruisingSpeed());
-            pstmt.setDouble(8, plane.getMaxSpeed());
-            pstmt.setInt(9, plane.getServiceCeiling());
-            pstmt.setString(10, plane.getImagePath());
+    private boolean updatePlaneRow(Plane plane) {
+        if (writeBehind != null) {
+            if (!writeBehind.addIfExists(new PendingWrite(Kind.UPDATE, plane.getId(), PlaneFactory.copyOf(plane)),
+                    this::rowExists)) {
+                logger.warn("Update attempted for non-existent plane ID: {}", plane.getId());
+                return false;
+            }
+            return true;
+        }
+        try (Connection conn = pool.writer();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+
+            bindPlane(pstmt, plane);
             pstmt.setInt(11, plane.getId());
 
             int affected = pstmt.executeUpdate();
             if (affected > 0) {
                 logger.info("Plane '{}' (ID: {}) updated in DB", plane.getModel(), plane.getId());
+                return true;
             } else {
                 logger.warn("Update attempted for non-existent plane ID: {}", plane.getId());
+                return false;
             }
         } catch (SQLException e) {
             logger.error("Error updating plane '{}' (ID: {}) in DB", plane.getModel(), plane.getId(), e);
+            return false;
         }
     }
 
@@ -166,8 +372,19 @@ public class DatabaseManager {
      * @return true if deletion was successful, false otherwise
      */
     public boolean deletePlane(int id) {
+        return jdbc.call(() -> deletePlaneRow(id));
+    }
+
+    private boolean deletePlaneRow(int id) {
+        if (writeBehind != null) {
+            if (!writeBehind.addIfExists(new PendingWrite(Kind.DELETE, id, null), this::rowExists)) {
+                logger.warn("Delete attempted for non-existent plane ID: {}", id);
+                return false;
+            }
+            return true;
+        }
         String sql = "DELETE FROM planes WHERE id = ?;";
-        try (Connection conn = connect();
+        try (Connection conn = pool.writer();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             int affected = pstmt.executeUpdate();
@@ -184,45 +401,200 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Inserts many planes using JDBC batching, committing every {@link #DEFAULT_BATCH_SIZE} rows.
+     *
+     * @param planes the planes to insert
+     * @return the generated IDs, in the order of the input
+     * @see #addPlanes(Collection, int)
+     */
+    public List<Integer> addPlanes(Collection<? extends Plane> planes) {
+        return addPlanes(planes, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Inserts many planes using JDBC batching.
+     * Rows are sent and committed in chunks of {@code batchSize}; the generated ID of every inserted
+     * plane is stored via {@link Plane#setId(int)}. If a chunk fails it is rolled back and the
+     * remaining planes are not inserted, while earlier chunks stay committed.
+     *
+     * @param planes    the planes to insert
+     * @param batchSize number of rows per batch and per commit
+     * @return the generated IDs of the inserted planes, in the order of the input
+     */
+    public List<Integer> addPlanes(Collection<? extends Plane> planes, int batchSize) {
+        return jdbc.call(() -> insertPlanes(planes, batchSize));
+    }
+
+    private List<Integer> insertPlanes(Collection<? extends Plane> planes, int batchSize) {
+        List<Integer> ids = new ArrayList<>(planes.size());
+        if (planes.isEmpty()) {
+            return ids;
+        }
+        if (writeBehind != null) {
+            for (Plane plane : planes) {
+                if (!queueInsert(plane)) {
+                    break;
+                }
+                ids.add(plane.getId());
+            }
+            return ids;
+        }
+        try (Connection conn = pool.writer();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL);
+             Statement lastId = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            List<Plane> chunk = new ArrayList<>(batchSize);
+            for (Plane plane : planes) {
+                bindPlane(pstmt, plane);
+                pstmt.addBatch();
+                chunk.add(plane);
+                if (chunk.size() == batchSize) {
+                    commitInsertChunk(conn, pstmt, lastId, chunk, ids);
+                }
+            }
+            commitInsertChunk(conn, pstmt, lastId, chunk, ids);
+            conn.setAutoCommit(true);
+            logger.info("Batch-inserted {} planes into DB", ids.size());
+        } catch (SQLException e) {
+            logger.error("Error batch-inserting planes into DB ({} of {} inserted)", ids.size(), planes.size(), e);
+        }
+        return ids;
+    }
+
+    /**
+     * Updates many planes using JDBC batching, committing every {@link #DEFAULT_BATCH_SIZE} rows.
+     *
+     * @param planes the planes with updated information
+     * @return the IDs of the planes that existed and were updated
+     * @see #updatePlanes(Collection, int)
+     */
+    public List<Integer> updatePlanes(Collection<? extends Plane> planes) {
+        return updatePlanes(planes, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Updates many planes using JDBC batching.
+     * Rows are sent and committed in chunks of {@code batchSize}. If a chunk fails it is rolled back
+     * and the remaining planes are not updated, while earlier chunks stay committed.
+     *
+     * @param planes    the planes with updated information
+     * @param batchSize number of rows per batch and per commit
+     * @return the IDs of the planes that existed and were updated
+     */
+    public List<Integer> updatePlanes(Collection<? extends Plane> planes, int batchSize) {
+        return jdbc.call(() -> updatePlaneRows(planes, batchSize));
+    }
+
+    private List<Integer> updatePlaneRows(Collection<? extends Plane> planes, int batchSize) {
+        List<Integer> ids = new ArrayList<>(planes.size());
+        if (planes.isEmpty()) {
+            return ids;
+        }
+        if (writeBehind != null) {
+            for (Plane plane : planes) {
+                if (writeBehind.addIfExists(new PendingWrite(Kind.UPDATE, plane.getId(), PlaneFactory.copyOf(plane)),
+                        this::rowExists)) {
+                    ids.add(plane.getId());
+                }
+            }
+            return ids;
+        }
+        try (Connection conn = pool.writer();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+            conn.setAutoCommit(false);
+            List<Plane> chunk = new ArrayList<>(batchSize);
+            for (Plane plane : planes) {
+                bindPlane(pstmt, plane);
+                pstmt.setInt(11, plane.getId());
+                pstmt.addBatch();
+                chunk.add(plane);
+                if (chunk.size() == batchSize) {
+                    commitUpdateChunk(conn, pstmt, chunk, ids);
+                }
+            }
+            commitUpdateChunk(conn, pstmt, chunk, ids);
+            conn.setAutoCommit(true);
+            logger.info("Batch-updated {} of {} planes in DB", ids.size(), planes.size());
+        } catch (SQLException e) {
+            logger.error("Error batch-updating planes in DB ({} of {} updated)", ids.size(), planes.size(), e);
+        }
+        return ids;
+    }
+
+    /**
+     * Executes and commits the pending insert batch. The IDs are derived from last_insert_rowid():
+     * the writer connection is exclusive and the table uses AUTOINCREMENT, so the rows of one
+     * transaction receive consecutive IDs.
+     */
+    private void commitInsertChunk(Connection conn, PreparedStatement pstmt, Statement lastId,
+                                   List<Plane> chunk, List<Integer> ids) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            pstmt.executeBatch();
+            int last;
+            try (ResultSet rs = lastId.executeQuery("SELECT last_insert_rowid();")) {
+                last = rs.getInt(1);
+            }
+            conn.commit();
+            int first = last - chunk.size() + 1;
+            for (int i = 0; i < chunk.size(); i++) {
+                chunk.get(i).setId(first + i);
+                ids.add(first + i);
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            chunk.clear();
+        }
+    }
+
+    /**
+     * Executes and commits the pending update batch, collecting the IDs of rows that were found.
+     */
+    private void commitUpdateChunk(Connection conn, PreparedStatement pstmt,
+                                   List<Plane> chunk, List<Integer> ids) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            int[] counts = pstmt.executeBatch();
+            conn.commit();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                    ids.add(chunk.get(i).getId());
+                }
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            chunk.clear();
+        }
+    }
+
     /**
      * Retrieves all planes stored in the database and logs the action.
      *
      * @return a list of all Plane objects from the database
      */
     public List<Plane> getAllPlanes() {
+        return jdbc.call(() -> selectAllPlanes());
+    }
+
+    private List<Plane> selectAllPlanes() {
+        flushBeforeRead();
         List<Plane> list = new ArrayList<>();
         String sql = "SELECT * FROM planes;";
-        try (Connection conn = connect();
+        try (Connection conn = pool.reader();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
-                int id = rs.getInt("id");
-                String type = rs.getString("type");
-                String model = rs.getString("model");
-                int capacity = rs.getInt("capacity");
-                double cargo = rs.getDouble("cargo_capacity");
-                int range = rs.getInt("range_km");
-                double fuel = rs.getDouble("fuel_consumption");
-                double cruisingSpeed = rs.getDouble("cruising_speed");
-                double maxSpeed = rs.getDouble("max_speed");
-                int serviceCeiling = rs.getInt("service_ceiling");
-                String image = rs.getString("image_path");
-
-                Plane p = PlaneFactory.createPlane(
-                        type,
-                        model,
-                        capacity,
-                        cargo,
-                        range,
-                        fuel,
-                        cruisingSpeed,
-                        maxSpeed,
-                        serviceCeiling
-                );
-                p.setId(id);
-                p.setImagePath(image);
-                list.add(p);
+                list.add(readPlane(rs));
             }
             logger.info("Loaded {} planes from DB", list.size());
         } catch (SQLException e) {
@@ -230,4 +602,437 @@ public class DatabaseManager {
         }
         return list;
     }
+
+    /**
+     * Reads the per-type totals from the "plane_type_summary" table. The table is maintained by
+     * triggers, so this costs one row per type regardless of the size of the fleet.
+     *
+     * @return totals per type, sorted by type; empty if the query fails
+     */
+    public List<TypeSummary> getTypeSummaries() {
+        return jdbc.call(() -> selectTypeSummaries());
+    }
+
+    private List<TypeSummary> selectTypeSummaries() {
+        flushBeforeRead();
+        List<TypeSummary> summaries = new ArrayList<>();
+        String sql = "SELECT type, plane_count, total_capacity, total_cargo FROM plane_type_summary ORDER BY type;";
+        try (Connection conn = pool.reader();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                summaries.add(new TypeSummary(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getDouble(4)));
+            }
+        } catch (SQLException e) {
+            logger.error("Error reading plane type summaries", e);
+        }
+        return summaries;
+    }
+
+    /**
+     * Counts how many planes refer to each image path.
+     *
+     * @return number of planes per non-empty "image_path" value, or null if the query fails
+     *         (callers deleting unreferenced images must not treat a failure as "no references")
+     */
+    public Map<String, Integer> getImageReferenceCounts() {
+        return jdbc.call(() -> selectImageReferenceCounts());
+    }
+
+    private Map<String, Integer> selectImageReferenceCounts() {
+        flushBeforeRead();
+        Map<String, Integer> counts = new HashMap<>();
+        String sql = "SELECT image_path, COUNT(*) FROM planes WHERE image_path IS NOT NULL AND image_path <> '' GROUP BY image_path;";
+        try (Connection conn = pool.reader();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getInt(2));
+            }
+        } catch (SQLException e) {
+            logger.error("Error counting image references", e);
+            return null;
+        }
+        return counts;
+    }
+
+    /**
+     * Reads every plane from the database and hands it to the action as soon as its row is read,
+     * without collecting the fleet into a list.
+     *
+     * @param action receives each plane, in id order
+     * @return the number of planes visited, or -1 if reading failed
+     */
+    public long forEachPlane(Consumer<? super Plane> action) {
+        return forEachPlane(action, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Reads every plane from the database and hands it to the action as soon as its row is read.
+     * The reader connection is held until the last row has been processed. When called from a
+     * virtual thread, the action runs on the platform thread that reads the rows.
+     *
+     * @param action    receives each plane, in id order
+     * @param fetchSize number of rows the driver fetches at a time
+     * @return the number of planes visited, or -1 if reading failed
+     */
+    public long forEachPlane(Consumer<? super Plane> action, int fetchSize) {
+        return jdbc.call(() -> scanPlanes(action, fetchSize));
+    }
+
+    private long scanPlanes(Consumer<? super Plane> action, int fetchSize) {
+        flushBeforeRead();
+        long count = 0;
+        try (Connection conn = pool.reader();
+             Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(fetchSize);
+            try (ResultSet rs = stmt.executeQuery("SELECT * FROM planes ORDER BY id;")) {
+                while (rs.next()) {
+                    action.accept(readPlane(rs));
+                    count++;
+                }
+            }
+            logger.info("Streamed {} planes from DB", count);
+            return count;
+        } catch (SQLException e) {
+            logger.error("Error streaming planes from DB after {} rows", count, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Opens a lazy stream over all planes, in id order. Rows are read from the database only as
+     * the stream is consumed, and the underlying connection stays checked out until the stream
+     * is closed, so callers must use try-with-resources.
+     * For an in-memory database this holds the writer connection, blocking writes until closed.
+     * Rows are read on the consuming thread, even a virtual one; virtual threads should prefer
+     * {@link #forEachPlane(Consumer, int)}, which reads on the platform pool.
+     *
+     * @param fetchSize number of rows the driver fetches at a time
+     * @return a stream of planes that must be closed; empty if the query could not be started
+     * @throws IllegalStateException from a terminal operation if reading a row fails
+     */
+    public Stream<Plane> streamPlanes(int fetchSize) {
+        jdbc.run(this::flushBeforeRead);
+        Connection conn = null;
+        Statement stmt = null;
+        ResultSet rs;
+        try {
+            conn = pool.reader();
+            stmt = conn.createStatement();
+            stmt.setFetchSize(fetchSize);
+            rs = stmt.executeQuery("SELECT * FROM planes ORDER BY id;");
+        } catch (SQLException e) {
+            logger.error("Error opening plane stream", e);
+            closeQuietly(stmt);
+            closeQuietly(conn);
+            return Stream.empty();
+        }
+
+        ResultSet cursor = rs;
+        Statement statement = stmt;
+        Connection connection = conn;
+        Spliterator<Plane> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Plane> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(readPlane(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    logger.error("Error reading plane from stream", e);
+                    throw new IllegalStateException("Failed to read plane from database", e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            closeQuietly(cursor);
+            closeQuietly(statement);
+            closeQuietly(connection);
+        });
+    }
+
+    /**
+     * Retrieves the planes matching the given criteria.
+     * The criteria, ordering and page are translated into a parameterized SQL query,
+     * so only the requested rows are read and turned into Plane objects.
+     * Model names are matched and sorted with the same case folding as a cached search in any alphabet
+     * (see {@link ModelFolding}), so both return the same planes.
+     *
+     * @param query the search criteria
+     * @return the matching planes
+     */
+    public List<Plane> findPlanes(PlaneQuery query) {
+        return jdbc.call(() -> selectPlanes(query));
+    }
+
+    private List<Plane> selectPlanes(PlaneQuery query) {
+        flushBeforeRead();
+        List<Plane> list = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM planes WHERE 1 = 1");
+
+        if (!query.getModelFragment().isEmpty()) {
+            sql.append(" AND instr(").append(ModelFolding.FOLD_FUNCTION).append("(model), ?) > 0");
+            params.add(query.getModelFragment());
+        }
+        for (PlaneAttribute attribute : PlaneAttribute.values()) {
+            if (query.hasMin(attribute)) {
+                sql.append(" AND ").append(attribute.getColumn()).append(" >= ?");
+                params.add(query.getMin(attribute));
+            }
+            if (query.hasMax(attribute)) {
+                sql.append(" AND ").append(attribute.getColumn()).append(" <= ?");
+                params.add(query.getMax(attribute));
+            }
+        }
+        if (!query.getTypes().isEmpty()) {
+            sql.append(" AND type COLLATE NOCASE IN (");
+            sql.append(String.join(", ", Collections.nCopies(query.getTypes().size(), "?")));
+            sql.append(")");
+            params.addAll(query.getTypes());
+        }
+
+        String direction = query.isAscending() ? " ASC" : " DESC";
+        if (query.isSortedByModel()) {
+            sql.append(" ORDER BY model COLLATE ").append(ModelFolding.COLLATION).append(direction).append(", id");
+        } else if (query.getSortAttribute() != null) {
+            sql.append(" ORDER BY ").append(query.getSortAttribute().getColumn()).append(direction).append(", id");
+        } else {
+            sql.append(" ORDER BY id");
+        }
+        if (query.isPaged()) {
+            sql.append(" LIMIT ? OFFSET ?");
+            params.add(query.getLimit() < 0 ? -1 : query.getLimit());
+            params.add(query.getOffset());
+        }
+
+        try (Connection conn = pool.reader();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(readPlane(rs));
+                }
+            }
+            logger.info("Query matched {} planes", list.size());
+        } catch (SQLException e) {
+            logger.error("Error querying planes from DB: {}", sql, e);
+        }
+        return list;
+    }
+
+    /**
+     * Queues the insert of a plane under a new ID, which is stored in the plane once it is queued.
+     */
+    private boolean queueInsert(Plane plane) {
+        int id = lastId.incrementAndGet();
+        Plane image = PlaneFactory.copyOf(plane);
+        image.setId(id);
+        if (!writeBehind.add(new PendingWrite(Kind.INSERT, id, image))) {
+            logger.error("Write-behind queue closed; plane '{}' not added", plane.getModel());
+            return false;
+        }
+        plane.setId(id);
+        return true;
+    }
+
+    /**
+     * Tells whether the database row of a plane exists, ignoring queued writes.
+     */
+    private boolean rowExists(int id) {
+        try (Connection conn = pool.reader();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM planes WHERE id = ?;")) {
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            logger.error("Error checking plane ID {} in DB", id, e);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the highest plane ID ever handed out by the database, so that write-behind IDs never
+     * reuse the ID of a deleted plane.
+     */
+    private int selectLastId() {
+        String sql = """
+            SELECT MAX(IFNULL((SELECT seq FROM sqlite_sequence WHERE name = 'planes'), 0),
+                       IFNULL((SELECT MAX(id) FROM planes), 0));
+        """;
+        try (Connection conn = pool.writer();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.getInt(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read the last plane ID from " + dbUrl, e);
+        }
+    }
+
+    /**
+     * Commits queued writes before a read, so that the read sees them.
+     */
+    private void flushBeforeRead() {
+        if (writeBehind != null && !writeBehind.flush(Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
+            logger.warn("Some queued plane writes were dropped before reading {}", dbUrl);
+        }
+    }
+
+    /**
+     * Commits a group of queued writes in one transaction. If the transaction fails, the writes are
+     * retried one per transaction and those the database still rejects are logged and dropped.
+     *
+     * @return the number of dropped writes
+     */
+    private int writeGroup(Collection<PendingWrite> group) {
+        try {
+            int unmatched = commitGroup(group);
+            logger.info("Group-committed {} plane changes", group.size());
+            return unmatched;
+        } catch (SQLException e) {
+            logger.error("Group commit of {} plane changes failed, retrying one by one", group.size(), e);
+        }
+        int dropped = 0;
+        for (PendingWrite write : group) {
+            try {
+                dropped += commitGroup(List.of(write));
+            } catch (SQLException e) {
+                dropped++;
+                logger.error("Dropped queued {} of plane ID {}", write.kind(), write.id(), e);
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Writes queued changes with one JDBC batch per kind and commits them together.
+     *
+     * @return the number of updates that found no row, e.g. because the insert of the plane was
+     *         dropped; they are logged and count as dropped
+     */
+    private int commitGroup(Collection<PendingWrite> group) throws SQLException {
+        try (Connection conn = pool.writer();
+             PreparedStatement insert = conn.prepareStatement(INSERT_WITH_ID_SQL);
+             PreparedStatement update = conn.prepareStatement(UPDATE_SQL);
+             PreparedStatement delete = conn.prepareStatement("DELETE FROM planes WHERE id = ?;")) {
+            conn.setAutoCommit(false);
+            try {
+                for (PendingWrite write : group) {
+                    switch (write.kind()) {
+                        case INSERT -> {
+                            bindPlane(insert, write.image());
+                            insert.setInt(11, write.id());
+                            insert.addBatch();
+                        }
+                        case UPDATE -> {
+                            bindPlane(update, write.image());
+                            update.setInt(11, write.id());
+                            update.addBatch();
+                        }
+                        case DELETE -> {
+                            delete.setInt(1, write.id());
+                            delete.addBatch();
+                        }
+                    }
+                }
+                insert.executeBatch();
+                int[] updated = update.executeBatch();
+                delete.executeBatch();
+                conn.commit();
+                return countUnmatchedUpdates(group, updated);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Counts and logs the updates of a group whose batch update count is zero. The counts are in the
+     * order the updates were added to the batch, which is the order of the group.
+     */
+    private int countUnmatchedUpdates(Collection<PendingWrite> group, int[] updateCounts) {
+        int unmatched = 0;
+        int index = 0;
+        for (PendingWrite write : group) {
+            if (write.kind() != Kind.UPDATE) {
+                continue;
+            }
+            if (index < updateCounts.length && updateCounts[index] == 0) {
+                unmatched++;
+                logger.error("Dropped queued UPDATE of plane ID {}: no such row", write.id());
+            }
+            index++;
+        }
+        return unmatched;
+    }
+
+    /**
+     * Binds the ten data columns of a plane, in the order used by INSERT_SQL and UPDATE_SQL.
+     */
+    private void bindPlane(PreparedStatement pstmt, Plane plane) throws SQLException {
+        pstmt.setString(1, plane.getType());
+        pstmt.setString(2, plane.getModel());
+        pstmt.setInt(3, plane.getCapacity());
+        pstmt.setDouble(4, plane.getCargoCapacity());
+        pstmt.setInt(5, plane.getRange());
+        pstmt.setDouble(6, plane.getFuelConsumption());
+        pstmt.setDouble(7, plane.getCruisingSpeed());
+        pstmt.setDouble(8, plane.getMaxSpeed());
+        pstmt.setInt(9, plane.getServiceCeiling());
+        pstmt.setString(10, plane.getImagePath());
+    }
+
+    /**
+     * Builds a Plane from the current row of a result set over the "planes" table.
+     */
+    private Plane readPlane(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        String type = rs.getString("type");
+        String model = rs.getString("model");
+        int capacity = rs.getInt("capacity");
+        double cargo = rs.getDouble("cargo_capacity");
+        int range = rs.getInt("range_km");
+        double fuel = rs.getDouble("fuel_consumption");
+        double cruisingSpeed = rs.getDouble("cruising_speed");
+        double maxSpeed = rs.getDouble("max_speed");
+        int serviceCeiling = rs.getInt("service_ceiling");
+        String image = rs.getString("image_path");
+
+        Plane p = PlaneFactory.createPlane(
+                type,
+                model,
+                capacity,
+                cargo,
+                range,
+                fuel,
+                cruisingSpeed,
+                maxSpeed,
+                serviceCeiling
+        );
+        p.setId(id);
+        p.setImagePath(image);
+        return p;
+    }
+
+    /** Closes a JDBC resource, logging instead of throwing if that fails. */
+    private static void closeQuietly(AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception e) {
+            logger.debug("Error closing JDBC resource", e);
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking JDBC work called from virtual threads on a small pool of platform threads.
+ * <p>
+ * The SQLite driver holds monitors and runs native code while it waits for the database, and a
+ * virtual thread doing either is pinned to its carrier. With only as many carriers as there are
+ * cores, a few such calls would stall every other virtual thread in the JVM. Instead, a virtual
+ * caller hands its call to this pool and parks until the result is ready; the parked thread does
+ * not occupy a carrier. The pool has one thread per pooled connection, so it never takes more
+ * threads than can make progress at once, and calls beyond that wait in its queue.
+ * </p>
+ * <p>
+ * Calls from platform threads run directly on the caller, exactly as before.
+ * </p>
+ */
+class JdbcExecutor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcExecutor.class);
+
+    /** How long an idle pool thread is kept before it ends. */
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    /** How long {@link #close()} waits for calls that are still running. */
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param threads number of platform threads, normally the number of pooled connections
+     */
+    JdbcExecutor(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("JDBC executor needs at least one thread: " + threads);
+        }
+        int pool = POOL_NUMBER.incrementAndGet();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "jdbc-" + pool + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs a call, on the pool if the current thread is virtual and directly otherwise.
+     * A virtual caller waits for the result even if it is interrupted, because the call may be a
+     * write that has already started; the interrupt status is restored afterwards.
+     *
+     * @param call the JDBC work
+     * @return the result of the call
+     */
+    <T> T call(Supplier<T> call) {
+        if (!Thread.currentThread().isVirtual()) {
+            return call.get();
+        }
+        Future<T> future;
+        try {
+            future = executor.submit(call::get);
+        } catch (RejectedExecutionException e) {
+            // Closed: run directly so the call fails the usual way on the closed connection pool
+            return call.get();
+        }
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("JDBC call failed", cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Runs a call without a result, see {@link #call(Supplier)}.
+     *
+     * @param call the JDBC work
+     */
+    void run(Runnable call) {
+        call(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Stops accepting calls and waits a few seconds for the ones already handed over.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("JDBC calls still running after {} s", SHUTDOWN_WAIT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
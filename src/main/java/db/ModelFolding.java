@@ -0,0 +1,55 @@
+package db;
+
+import airline.PlaneQuery;
+import org.sqlite.Collation;
+import org.sqlite.Function;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * SQL counterparts of the in-memory model comparisons, registered on every pooled connection.
+ * <p>
+ * SQLite's {@code LIKE}, {@code lower()} and {@code NOCASE} fold ASCII letters only, so Cyrillic
+ * model names would match and sort differently in the database than in a cached fleet. The function
+ * {@value #FOLD_FUNCTION}{@code (text)} folds with {@link PlaneQuery#foldModel(String)} and the
+ * collation {@value #COLLATION} orders like {@link PlaneQuery#comparator()}.
+ * </p>
+ */
+final class ModelFolding {
+
+    /** Name of the SQL function returning the case-folded model name. */
+    static final String FOLD_FUNCTION = "fold_model";
+
+    /** Name of the collation ordering model names case-insensitively. */
+    static final String COLLATION = "MODEL";
+
+    private ModelFolding() {
+    }
+
+    /**
+     * Registers the function and the collation on a freshly opened connection.
+     *
+     * @param conn the SQLite connection
+     * @throws SQLException if the driver rejects the registration
+     */
+    static void register(Connection conn) throws SQLException {
+        Function.create(conn, FOLD_FUNCTION, new Function() {
+            @Override
+            protected void xFunc() throws SQLException {
+                String model = value_text(0);
+                if (model == null) {
+                    result();
+                } else {
+                    result(PlaneQuery.foldModel(model));
+                }
+            }
+        }, 1, Function.FLAG_DETERMINISTIC);
+        Collation.create(conn, COLLATION, new Collation() {
+            @Override
+            protected int xCompare(String a, String b) {
+                return String.CASE_INSENSITIVE_ORDER.compare(a, b);
+            }
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package db;
+
+/**
+ * Immutable snapshot of {@link ConnectionPool} usage counters.
+ *
+ * @param readerCheckouts     number of reader connections handed out
+ * @param writerCheckouts     number of writer connections handed out
+ * @param totalWaitNanos      total time callers spent waiting for a connection, in nanoseconds
+ * @param maxWaitNanos        longest single wait for a connection, in nanoseconds
+ * @param timeouts            number of checkouts that gave up waiting
+ * @param replacedConnections number of connections reopened after a failed health check
+ * @param validations         number of health checks that queried the database
+ * @param openReaders         number of reader connections currently open
+ * @param idleReaders         number of reader connections currently idle in the pool
+ */
+public record PoolMetrics(
+        long readerCheckouts,
+        long writerCheckouts,
+        long totalWaitNanos,
+        long maxWaitNanos,
+        long timeouts,
+        long replacedConnections,
+        long validations,
+        int openReaders,
+        int idleReaders
+) {
+
+    /** @return total number of checkouts, readers and writer combined */
+    public long totalCheckouts() {
+        return readerCheckouts + writerCheckouts;
+    }
+
+    /** @return average wait per checkout in milliseconds, or 0 if nothing was checked out */
+    public double averageWaitMillis() {
+        long total = totalCheckouts();
+        return total == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "checkouts: %d (readers %d, writer %d), avg wait: %.3f ms, max wait: %.3f ms, timeouts: %d, replaced: %d, validated: %d",
+                totalCheckouts(), readerCheckouts, writerCheckouts, averageWaitMillis(),
+                maxWaitNanos / 1_000_000.0, timeouts, replacedConnections, validations);
+    }
+}
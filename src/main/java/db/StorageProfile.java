@@ -0,0 +1,131 @@
+package db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * SQLite storage settings applied to every connection when it is opened.
+ * <p>
+ * Two presets are provided: {@link #THROUGHPUT} favours write speed and concurrent reads
+ * ({@code synchronous=NORMAL}, large cache, memory-mapped I/O), while {@link #DURABILITY}
+ * syncs every commit to disk ({@code synchronous=FULL}). Both use write-ahead logging,
+ * so readers never block the writer and the writer never blocks readers.
+ * </p>
+ * <p>
+ * The application uses the preset named by the system property {@value #PROPERTY}
+ * (see {@link #configured()}), which {@code Main} sets from its {@code --storage=} flag.
+ * </p>
+ *
+ * @param journalMode   how SQLite keeps its rollback journal
+ * @param synchronous   how often SQLite waits for data to reach the disk
+ * @param cacheSizeKib  page cache size in KiB
+ * @param mmapSizeBytes maximum number of bytes of the database file to memory-map (0 disables mmap)
+ * @param tempStore     where temporary tables and indices are kept
+ * @param busyTimeoutMs how long a connection retries when the database is locked, in milliseconds
+ */
+public record StorageProfile(
+        JournalMode journalMode,
+        Synchronous synchronous,
+        int cacheSizeKib,
+        long mmapSizeBytes,
+        TempStore tempStore,
+        int busyTimeoutMs
+) {
+
+    /** Values of {@code PRAGMA journal_mode}. */
+    public enum JournalMode { DELETE, TRUNCATE, PERSIST, MEMORY, WAL, OFF }
+
+    /** Values of {@code PRAGMA synchronous}. */
+    public enum Synchronous { OFF, NORMAL, FULL, EXTRA }
+
+    /** Values of {@code PRAGMA temp_store}. */
+    public enum TempStore { DEFAULT, FILE, MEMORY }
+
+    /** Fast writes and concurrent reads; the last commits may be lost on power failure, never corrupted. */
+    public static final StorageProfile THROUGHPUT =
+            new StorageProfile(JournalMode.WAL, Synchronous.NORMAL, 64 * 1024, 256L * 1024 * 1024, TempStore.MEMORY, 5_000);
+
+    /** Every commit is synced to disk before it returns. */
+    public static final StorageProfile DURABILITY =
+            new StorageProfile(JournalMode.WAL, Synchronous.FULL, 16 * 1024, 0, TempStore.DEFAULT, 10_000);
+
+    /** System property naming the preset used by the application: "throughput" or "durability". */
+    public static final String PROPERTY = "airline.storage";
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageProfile.class);
+
+    /**
+     * Checks that no setting is missing or out of range.
+     *
+     * @throws IllegalArgumentException if a setting is invalid
+     */
+    public StorageProfile {
+        if (journalMode == null || synchronous == null || tempStore == null) {
+            throw new IllegalArgumentException("Storage profile settings must not be null");
+        }
+        if (cacheSizeKib < 0 || mmapSizeBytes < 0 || busyTimeoutMs < 0) {
+            throw new IllegalArgumentException("Storage profile sizes must not be negative");
+        }
+    }
+
+    /**
+     * Returns the preset named by the system property {@value #PROPERTY}, or {@link #THROUGHPUT}
+     * if the property is not set or names no preset.
+     *
+     * @return the preset the application should use
+     */
+    public static StorageProfile configured() {
+        String name = System.getProperty(PROPERTY);
+        if (name == null || name.isBlank()) {
+            return THROUGHPUT;
+        }
+        try {
+            return forName(name);
+        } catch (IllegalArgumentException e) {
+            logger.warn("{}; using the throughput profile", e.getMessage());
+            return THROUGHPUT;
+        }
+    }
+
+    /**
+     * Returns a preset by its name ("throughput" or "durability", case-insensitive).
+     *
+     * @param name the preset name
+     * @return the matching preset
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static StorageProfile forName(String name) {
+        return switch (name.trim().toLowerCase()) {
+            case "throughput" -> THROUGHPUT;
+            case "durability" -> DURABILITY;
+            default -> throw new IllegalArgumentException("Unknown storage profile: " + name);
+        };
+    }
+
+    /**
+     * Applies this profile to a freshly opened connection.
+     * The journal mode is persistent and can only be changed by a writable connection,
+     * so it is skipped for read-only connections.
+     *
+     * @param conn     the connection to configure
+     * @param readOnly whether the connection was opened read-only
+     * @throws SQLException if a pragma cannot be applied
+     */
+    void apply(Connection conn, boolean readOnly) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMs);
+            if (!readOnly) {
+                stmt.execute("PRAGMA journal_mode = " + journalMode.name());
+            }
+            stmt.execute("PRAGMA synchronous = " + synchronous.name());
+            // A negative cache_size is interpreted by SQLite as KiB rather than pages
+            stmt.execute("PRAGMA cache_size = " + (-cacheSizeKib));
+            stmt.execute("PRAGMA mmap_size = " + mmapSizeBytes);
+            stmt.execute("PRAGMA temp_store = " + tempStore.name());
+        }
+    }
+}
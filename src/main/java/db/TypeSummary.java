@@ -0,0 +1,12 @@
+package db;
+
+/**
+ * Totals of one plane type as kept in the "plane_type_summary" table.
+ *
+ * @param type          plane type, as first stored
+ * @param planeCount    number of planes of the type
+ * @param totalCapacity sum of passenger capacity
+ * @param totalCargo    sum of cargo capacity, in tons
+ */
+public record TypeSummary(String type, long planeCount, long totalCapacity, double totalCargo) {
+}
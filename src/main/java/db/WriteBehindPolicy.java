@@ -0,0 +1,36 @@
+package db;
+
+import java.time.Duration;
+
+/**
+ * Settings of the write-behind mode of {@link DatabaseManager}.
+ * <p>
+ * In this mode adds, updates and deletes are queued instead of being committed one by one. Queued
+ * changes to the same plane are merged, and the queue is committed as one transaction when it holds
+ * {@code maxBatchSize} planes or when its oldest change is {@code maxDelay} old, whichever comes
+ * first. One commit, and so one sync to disk, then covers a whole group of changes.
+ * </p>
+ *
+ * @param maxBatchSize number of queued planes that triggers a commit at once
+ * @param maxDelay     longest time a change waits in the queue before it is committed
+ * @param capacity     number of planes the queue holds at most; callers wait while it is full
+ */
+public record WriteBehindPolicy(int maxBatchSize, Duration maxDelay, int capacity) {
+
+    /** Commits every 500 planes or 200 ms, queueing up to 10,000 planes. */
+    public static final WriteBehindPolicy DEFAULT = new WriteBehindPolicy(500, Duration.ofMillis(200), 10_000);
+
+    /**
+     * @throws IllegalArgumentException if a size is not positive, the capacity is smaller than the
+     *                                  batch size, or the delay is negative
+     */
+    public WriteBehindPolicy {
+        if (maxBatchSize < 1 || capacity < maxBatchSize) {
+            throw new IllegalArgumentException(
+                    "Invalid write-behind sizes: batch " + maxBatchSize + ", capacity " + capacity);
+        }
+        if (maxDelay == null || maxDelay.isNegative()) {
+            throw new IllegalArgumentException("Invalid write-behind delay: " + maxDelay);
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package db;
+
+import airline.Plane;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Queue of plane changes waiting to be committed by the write-behind mode of {@link DatabaseManager}.
+ * <p>
+ * Changes are kept per plane ID: a later change to a queued plane replaces or cancels the earlier one
+ * (see {@link PendingWrite#merge}), so a plane edited many times is written once. A background thread
+ * takes the whole queue whenever the {@link WriteBehindPolicy} says so and hands it to a
+ * {@link GroupWriter}, which commits it as one transaction. Until that commit ends the taken changes
+ * stay visible through {@link #find(int)}.
+ * </p>
+ * <p>
+ * One shutdown hook, shared by all queues, commits whatever is still queued when the JVM exits
+ * without {@link #close()} having been called, e.g. on Ctrl+C. Until it is closed, a queue stays
+ * reachable through its flusher thread and the hook's list of open queues, so a
+ * {@link DatabaseManager} in write-behind mode must be closed when it is no longer used.
+ * </p>
+ */
+final class WriteBehindQueue implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private static final AtomicInteger QUEUE_NUMBER = new AtomicInteger();
+
+    /** Queues the shutdown hook drains; a queue leaves the set when it is closed. */
+    private static final Set<WriteBehindQueue> OPEN_QUEUES = ConcurrentHashMap.newKeySet();
+    private static final AtomicBoolean HOOK_REGISTERED = new AtomicBoolean();
+
+    /** Kind of a queued change. */
+    enum Kind { INSERT, UPDATE, DELETE }
+
+    /**
+     * A queued change of one plane.
+     *
+     * @param kind  what to do with the row
+     * @param id    the plane ID
+     * @param image the values to write; a private copy, null for {@link Kind#DELETE}
+     */
+    record PendingWrite(Kind kind, int id, Plane image) {
+
+        /**
+         * Combines an earlier queued change of a plane with a later one. A delete is final: nothing
+         * queued after it may bring the row back or cancel the delete.
+         *
+         * @param earlier the change already queued
+         * @param later   the new change
+         * @return the single change with the same effect, or null if together they change nothing
+         */
+        static PendingWrite merge(PendingWrite earlier, PendingWrite later) {
+            if (earlier.kind() == Kind.DELETE) {
+                return earlier;
+            }
+            if (earlier.kind() == Kind.INSERT) {
+                return switch (later.kind()) {
+                    // The row was never written: insert the latest values, or skip it altogether
+                    case UPDATE, INSERT -> new PendingWrite(Kind.INSERT, later.id(), later.image());
+                    case DELETE -> null;
+                };
+            }
+            return later;
+        }
+    }
+
+    /**
+     * Commits a group of changes.
+     */
+    interface GroupWriter {
+        /**
+         * @param group the changes, at most one per plane
+         * @return the number of changes that could not be written or found no row, and were dropped
+         */
+        int write(Collection<PendingWrite> group);
+    }
+
+    private final WriteBehindPolicy policy;
+    private final GroupWriter writer;
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Signalled when the flusher may have work: a change was queued, a flush requested, or closing. */
+    private final Condition work = lock.newCondition();
+    /** Signalled when a group has been taken from the queue and the queue has room again. */
+    private final Condition space = lock.newCondition();
+    /** Signalled when a group commit has ended. */
+    private final Condition committed = lock.newCondition();
+
+    private LinkedHashMap<Integer, PendingWrite> pending = new LinkedHashMap<>();
+    private Map<Integer, PendingWrite> inFlight = Map.of();
+    private long oldestQueuedNanos;
+    private long queuedSequence;
+    private long committedSequence;
+    private long droppedWrites;
+    private boolean flushRequested;
+    private boolean closed;
+
+    private final Thread flusher;
+
+    /**
+     * Creates the queue and starts its flusher thread.
+     *
+     * @param policy when to commit
+     * @param writer commits the groups
+     */
+    WriteBehindQueue(WriteBehindPolicy policy, GroupWriter writer) {
+        this.policy = policy;
+        this.writer = writer;
+        int number = QUEUE_NUMBER.incrementAndGet();
+        this.flusher = new Thread(this::flushLoop, "db-write-behind-" + number);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        OPEN_QUEUES.add(this);
+        if (HOOK_REGISTERED.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(WriteBehindQueue::drainAllOnExit, "db-write-behind-exit"));
+        }
+    }
+
+    /**
+     * Queues a change, merging it with a queued change of the same plane. Waits while the queue is
+     * full.
+     *
+     * @param write the change
+     * @return true if queued, false if the queue is closed
+     */
+    boolean add(PendingWrite write) {
+        lock.lock();
+        try {
+            if (!awaitRoom(write.id())) {
+                return false;
+            }
+            enqueue(write);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a change of a plane that must already exist, e.g. an update or a delete. The plane
+     * exists if its latest queued or in-flight change is not a delete, or, if it has none, if the
+     * check of the database row says so. The check and the enqueue happen under the queue lock, so
+     * no change of the plane can be queued or committed in between.
+     *
+     * @param write           the change
+     * @param storedRowExists tells whether the plane's database row exists; called under the lock
+     * @return true if queued, false if the plane does not exist or the queue is closed
+     */
+    boolean addIfExists(PendingWrite write, IntPredicate storedRowExists) {
+        lock.lock();
+        try {
+            if (!awaitRoom(write.id())) {
+                return false;
+            }
+            PendingWrite queued = latest(write.id());
+            boolean exists = queued != null ? queued.kind() != Kind.DELETE : storedRowExists.test(write.id());
+            if (exists) {
+                enqueue(write);
+            }
+            return exists;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits while the queue is full and holds no change of the plane; called with the lock held.
+     *
+     * @return false if the queue is closed
+     */
+    private boolean awaitRoom(int id) {
+        while (!closed && pending.size() >= policy.capacity() && !pending.containsKey(id)) {
+            flushRequested = true;
+            work.signal();
+            space.awaitUninterruptibly();
+        }
+        return !closed;
+    }
+
+    /** Merges a change into the queue; called with the lock held. */
+    private void enqueue(PendingWrite write) {
+        if (pending.isEmpty()) {
+            oldestQueuedNanos = System.nanoTime();
+        }
+        PendingWrite earlier = pending.remove(write.id());
+        PendingWrite merged = earlier == null ? write : PendingWrite.merge(earlier, write);
+        if (merged != null) {
+            pending.put(write.id(), merged);
+        }
+        queuedSequence++;
+        work.signal();
+    }
+
+    /**
+     * Returns the latest change of a plane that is queued or being committed.
+     *
+     * @param id the plane ID
+     * @return the change, or null if the plane's database row is up to date
+     */
+    PendingWrite find(int id) {
+        lock.lock();
+        try {
+            return latest(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PendingWrite latest(int id) {
+        PendingWrite write = pending.get(id);
+        return write != null ? write : inFlight.get(id);
+    }
+
+    /**
+     * Commits every change queued so far without waiting for a threshold, and waits for the commit.
+     *
+     * @param timeout the longest time to wait
+     * @param unit    the unit of the timeout
+     * @return true if those changes are committed and no queued change has been dropped since the
+     *         previous flush; false on timeout, failure, or if the queue was closed first
+     */
+    boolean flush(long timeout, TimeUnit unit) {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            long target = queuedSequence;
+            if (committedSequence < target) {
+                flushRequested = true;
+                work.signal();
+            }
+            while (committedSequence < target) {
+                if (!flusher.isAlive() || nanos <= 0) {
+                    return false;
+                }
+                try {
+                    nanos = committed.awaitNanos(nanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            boolean complete = droppedWrites == 0;
+            droppedWrites = 0;
+            return complete;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting changes and waits until the flusher has committed everything queued.
+     */
+    @Override
+    public void close() {
+        shutdown();
+        OPEN_QUEUES.remove(this);
+    }
+
+    private static void drainAllOnExit() {
+        for (WriteBehindQueue queue : OPEN_QUEUES) {
+            queue.drainOnExit();
+        }
+    }
+
+    private void drainOnExit() {
+        lock.lock();
+        try {
+            if (!pending.isEmpty()) {
+                logger.info("JVM exiting: committing {} queued plane changes", pending.size());
+            }
+        } finally {
+            lock.unlock();
+        }
+        shutdown();
+    }
+
+    private void shutdown() {
+        lock.lock();
+        try {
+            closed = true;
+            work.signal();
+            space.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        boolean interrupted = false;
+        while (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushLoop() {
+        lock.lock();
+        try {
+            while (true) {
+                if (pending.isEmpty()) {
+                    // Merged changes may cancel out: nothing left to write counts as committed
+                    committedSequence = queuedSequence;
+                    committed.signalAll();
+                    if (closed) {
+                        return;
+                    }
+                    work.awaitUninterruptibly();
+                    continue;
+                }
+                if (!closed && !flushRequested && pending.size() < policy.maxBatchSize()) {
+                    long wait = policy.maxDelay().toNanos() - (System.nanoTime() - oldestQueuedNanos);
+                    if (wait > 0) {
+                        try {
+                            work.awaitNanos(wait);
+                        } catch (InterruptedException e) {
+                            // Never interrupted on purpose; commit what is queued
+                        }
+                        continue;
+                    }
+                }
+                Map<Integer, PendingWrite> group = pending;
+                long target = queuedSequence;
+                pending = new LinkedHashMap<>();
+                inFlight = group;
+                flushRequested = false;
+                space.signalAll();
+
+                lock.unlock();
+                int dropped;
+                try {
+                    dropped = writeGroup(group.values());
+                } finally {
+                    lock.lock();
+                }
+
+                inFlight = Map.of();
+                droppedWrites += dropped;
+                committedSequence = target;
+                if (!pending.isEmpty()) {
+                    oldestQueuedNanos = System.nanoTime();
+                }
+                committed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int writeGroup(Collection<PendingWrite> group) {
+        long start = System.nanoTime();
+        try {
+            int dropped = writer.write(group);
+            logger.debug("Group commit of {} plane changes in {} ms", group.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return dropped;
+        } catch (RuntimeException e) {
+            logger.error("Group commit of {} plane changes failed", group.size(), e);
+            return group.size();
+        }
+    }
+}
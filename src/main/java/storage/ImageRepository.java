@@ -0,0 +1,201 @@
+package storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed storage for plane images.
+ * <p>
+ * An image is stored under the SHA-256 of its content ({@code images/ab/abcdef....jpg}), so two planes
+ * with the same picture share one file regardless of the original file names, and two different
+ * pictures with the same name can no longer overwrite or shadow each other. The hash is computed while
+ * the file is copied, so every image is read only once.
+ * </p>
+ * <p>
+ * The "planes.image_path" column is the reference count: {@link #collectGarbage} deletes stored images
+ * that no plane refers to any more. Only files created by this repository are ever deleted; images
+ * referenced by their original names are left alone.
+ * </p>
+ */
+public class ImageRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageRepository.class);
+
+    /** Default image directory, relative to the working directory. */
+    public static final Path DEFAULT_DIRECTORY = Path.of("images");
+
+    /**
+     * Default age below which unreferenced images are kept, so that an image stored for a plane that is
+     * still being edited is not collected before the plane is saved.
+     */
+    public static final Duration DEFAULT_GRACE_PERIOD = Duration.ofHours(1);
+
+    private static final Pattern STORED_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,5})?");
+
+    private final Path root;
+
+    /** Opens the repository in the default directory. */
+    public ImageRepository() {
+        this(DEFAULT_DIRECTORY);
+    }
+
+    /**
+     * Opens the repository in the given directory, which is created when the first image is stored.
+     *
+     * @param root the image directory
+     */
+    public ImageRepository(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Copies an image into the repository unless an identical image is already stored.
+     *
+     * @param source the image file
+     * @return the stored path, to be saved in "planes.image_path"
+     * @throws IOException if the file cannot be read or written
+     */
+    public String store(Path source) throws IOException {
+        Files.createDirectories(root);
+        Path temp = Files.createTempFile(root, "upload", ".tmp");
+        try {
+            MessageDigest digest = ContentHash.newDigest();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                in.transferTo(out);
+            }
+            String hash = ContentHash.toHex(digest);
+            Path existing = findStored(hash);
+            Path target = existing != null ? existing : pathFor(hash, extensionOf(source));
+
+            if (existing != null) {
+                logger.info("Image {} is already stored as {}", source.getFileName(), target);
+            } else {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                    logger.info("Stored image {} as {}", source.getFileName(), target);
+                } catch (FileAlreadyExistsException e) {
+                    // Stored concurrently with identical content
+                    logger.debug("Image {} was stored concurrently", target);
+                }
+            }
+            return toReference(target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Deletes stored images that no plane refers to.
+     *
+     * @param referenceCounts number of planes per "planes.image_path" value
+     * @param gracePeriod     images modified more recently than this are kept even if unreferenced
+     * @return the number of deleted images
+     */
+    public int collectGarbage(Map<String, Integer> referenceCounts, Duration gracePeriod) {
+        return collectGarbage(referenceCounts, gracePeriod, file -> { });
+    }
+
+    /**
+     * Deletes stored images that no plane refers to and reports each deleted file, e.g. so that its
+     * thumbnails can be deleted too (see {@link ThumbnailStore#forget}).
+     *
+     * @param referenceCounts number of planes per "planes.image_path" value
+     * @param gracePeriod     images modified more recently than this are kept even if unreferenced
+     * @param onDeleted       receives every deleted image
+     * @return the number of deleted images
+     */
+    public int collectGarbage(Map<String, Integer> referenceCounts, Duration gracePeriod, Consumer<Path> onDeleted) {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        Set<Path> referenced = new HashSet<>();
+        referenceCounts.forEach((path, count) -> {
+            if (count != null && count > 0) {
+                referenced.add(normalize(Path.of(path)));
+            }
+        });
+        Instant cutoff = Instant.now().minus(gracePeriod);
+
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!Files.isRegularFile(file)
+                        || !STORED_NAME.matcher(file.getFileName().toString()).matches()
+                        || referenced.contains(normalize(file))
+                        || Files.getLastModifiedTime(file).toInstant().isAfter(cutoff)) {
+                    continue;
+                }
+                Files.delete(file);
+                deleted++;
+                logger.info("Deleted unreferenced image {}", file);
+                onDeleted.accept(file);
+            }
+        } catch (IOException e) {
+            logger.error("Image garbage collection in {} failed after {} deletions", root, deleted, e);
+        }
+        return deleted;
+    }
+
+    /** @return the image directory */
+    public Path getRoot() {
+        return root;
+    }
+
+    private Path pathFor(String hash, String extension) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + extension);
+    }
+
+    /**
+     * Finds an image with the given hash, whatever extension it was stored with.
+     */
+    private Path findStored(String hash) throws IOException {
+        Path dir = root.resolve(hash.substring(0, 2));
+        if (!Files.isDirectory(dir)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.equals(hash) || name.startsWith(hash + ".");
+                    })
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+
+    private static String extensionOf(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String extension = dot < 0 ? "" : name.substring(dot).toLowerCase(Locale.ROOT);
+        return extension.matches("\\.[a-z0-9]{1,5}") ? extension : "";
+    }
+
+    private static String toReference(Path stored) {
+        return stored.toString().replace('\\', '/');
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
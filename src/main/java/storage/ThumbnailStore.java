@@ -0,0 +1,298 @@
+package storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Keeps pre-scaled copies of plane images in a local cache directory.
+ * <p>
+ * Every image is stored once per {@link Size}, named by the SHA-256 of the source file, so identical
+ * pictures share their thumbnails and an edited source gets new ones. To avoid re-reading sources on
+ * every lookup, the store remembers the size, modification time and hash of each source path in an
+ * index file and hashes the source again only when its size or modification time changes. New index
+ * entries are kept in memory and the index file is written once at the end of {@link #precompute}
+ * and on {@link #close()}, not once per source.
+ * </p>
+ * <p>
+ * Thumbnails are written as JPEG files to a temporary name and then moved into place, so a reader
+ * never sees a partially written file. When a source image is deleted, {@link #forget} deletes its
+ * thumbnails as well; the image garbage collection of {@link ImageRepository} reports the images it
+ * deletes for that purpose.
+ * </p>
+ */
+public class ThumbnailStore implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailStore.class);
+
+    /** Default cache directory, relative to the working directory. */
+    public static final Path DEFAULT_DIRECTORY = Path.of("cache", "thumbnails");
+
+    private static final String INDEX_FILE = "index.properties";
+
+    /**
+     * Thumbnail sizes; images are scaled down to the given width, never up.
+     */
+    public enum Size {
+        /** Pictures on the plane cards. */
+        CARD(180),
+        /** The full-size image viewer. */
+        PREVIEW(800);
+
+        private final int width;
+
+        Size(int width) {
+            this.width = width;
+        }
+
+        /** @return the maximum width in pixels */
+        public int getWidth() {
+            return width;
+        }
+    }
+
+    private final Path directory;
+    private final Properties index = new Properties();
+    /** True while the index has entries that are not in the index file yet; guarded by {@code index}. */
+    private boolean indexDirty;
+
+    /**
+     * Opens the store in the default directory.
+     */
+    public ThumbnailStore() {
+        this(DEFAULT_DIRECTORY);
+    }
+
+    /**
+     * Opens the store in the given directory, which is created when the first thumbnail is written.
+     *
+     * @param directory the cache directory
+     */
+    public ThumbnailStore(Path directory) {
+        this.directory = directory;
+        Path indexFile = directory.resolve(INDEX_FILE);
+        if (Files.isRegularFile(indexFile)) {
+            try (InputStream in = Files.newInputStream(indexFile)) {
+                index.load(in);
+            } catch (IOException e) {
+                logger.warn("Could not read thumbnail index {}, sources will be hashed again", indexFile, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the thumbnail of an image, generating it first if the source is new or has changed.
+     *
+     * @param source the source image
+     * @param size   the thumbnail size
+     * @return the thumbnail file, or empty if the source is missing or is not a readable image
+     */
+    public Optional<Path> thumbnail(Path source, Size size) {
+        try {
+            String hash = hashOf(source);
+            Path target = pathFor(hash, size);
+            if (!Files.isRegularFile(target) && !generate(source, target, size)) {
+                return Optional.empty();
+            }
+            return Optional.of(target);
+        } catch (IOException e) {
+            logger.warn("Failed to get {} thumbnail for {}", size, source, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Generates all missing thumbnails for the given images, for example when the application starts
+     * or after an import. Sources that are missing or unreadable are skipped.
+     *
+     * @param sources the source images
+     * @param sizes   the sizes to generate
+     * @return the number of thumbnails that are available afterwards
+     */
+    public int precompute(Collection<Path> sources, Size... sizes) {
+        long start = System.currentTimeMillis();
+        int available = 0;
+        try {
+            for (Path source : sources) {
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                for (Size size : sizes) {
+                    if (thumbnail(source, size).isPresent()) {
+                        available++;
+                    }
+                }
+            }
+        } finally {
+            saveIndex();
+        }
+        logger.info("Thumbnails ready: {} for {} images in {} ms",
+                available, sources.size(), System.currentTimeMillis() - start);
+        return available;
+    }
+
+    /**
+     * Deletes the thumbnails of a source image that has been deleted and drops it from the index.
+     * Thumbnails shared with another indexed source of the same content are kept. A source that was
+     * never indexed has no thumbnails to find, so nothing is deleted for it.
+     *
+     * @param source the deleted source image
+     * @return the number of thumbnail files deleted
+     */
+    public int forget(Path source) {
+        String hash;
+        synchronized (index) {
+            String entry = (String) index.remove(keyOf(source));
+            if (entry == null) {
+                return 0;
+            }
+            indexDirty = true;
+            hash = entry.substring(entry.lastIndexOf(':') + 1);
+            for (Object other : index.values()) {
+                if (((String) other).endsWith(":" + hash)) {
+                    return 0;
+                }
+            }
+        }
+        int deleted = 0;
+        for (Size size : Size.values()) {
+            Path thumbnail = pathFor(hash, size);
+            try {
+                if (Files.deleteIfExists(thumbnail)) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                logger.warn("Could not delete thumbnail {}", thumbnail, e);
+            }
+        }
+        logger.debug("Deleted {} thumbnails of {}", deleted, source);
+        return deleted;
+    }
+
+    /**
+     * Writes the index entries added since the last save to the index file.
+     */
+    @Override
+    public void close() {
+        saveIndex();
+    }
+
+    /** @return the cache directory */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Looks up the content hash of a source, hashing it only if it is not indexed or has changed.
+     */
+    private String hashOf(Path source) throws IOException {
+        String key = keyOf(source);
+        long length = Files.size(source);
+        FileTime modified = Files.getLastModifiedTime(source);
+        String stamp = length + ":" + modified.toMillis() + ":";
+
+        synchronized (index) {
+            String entry = index.getProperty(key);
+            if (entry != null && entry.startsWith(stamp)) {
+                return entry.substring(stamp.length());
+            }
+        }
+        String hash = ContentHash.of(source);
+        synchronized (index) {
+            index.setProperty(key, stamp + hash);
+            indexDirty = true;
+        }
+        return hash;
+    }
+
+    private static String keyOf(Path source) {
+        return source.toAbsolutePath().normalize().toString();
+    }
+
+    private Path pathFor(String hash, Size size) {
+        return directory.resolve(size.name().toLowerCase()).resolve(hash + ".jpg");
+    }
+
+    private boolean generate(Path source, Path target, Size size) throws IOException {
+        BufferedImage image = ImageIO.read(source.toFile());
+        if (image == null) {
+            logger.warn("Not a readable image: {}", source);
+            return false;
+        }
+        BufferedImage scaled = scale(image, size.getWidth());
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "thumb", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                if (!ImageIO.write(scaled, "jpg", out)) {
+                    throw new IOException("No JPEG writer available");
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.debug("Generated {} thumbnail {} from {}", size, target.getFileName(), source);
+        return true;
+    }
+
+    /**
+     * Scales an image down to the given width, keeping its aspect ratio. Transparent areas become
+     * white because JPEG has no alpha channel.
+     */
+    private static BufferedImage scale(BufferedImage image, int maxWidth) {
+        int width = Math.min(maxWidth, image.getWidth());
+        int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private void saveIndex() {
+        synchronized (index) {
+            if (!indexDirty) {
+                return;
+            }
+            try {
+                Files.createDirectories(directory);
+                // Written beside the index and moved over it, so a crash leaves the previous index intact
+                Path temp = Files.createTempFile(directory, "index", ".tmp");
+                try {
+                    try (OutputStream out = Files.newOutputStream(temp)) {
+                        index.store(out, "Thumbnail source index: size:modified:sha256");
+                    }
+                    Files.move(temp, directory.resolve(INDEX_FILE),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+                indexDirty = false;
+            } catch (IOException e) {
+                logger.warn("Could not save thumbnail index in {}", directory, e);
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import airline.*;
 import airline.util.PlaneFactory;
 import db.DatabaseManager;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -15,12 +16,18 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import storage.ImageRepository;
+import storage.ThumbnailStore;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
 import java.util.function.UnaryOperator;
 
 import org.slf4j.Logger;
@@ -35,8 +42,54 @@ public class AirlineAppGUI extends Application {
 
     private static final Logger logger = LoggerFactory.getLogger(AirlineAppGUI.class);
 
-    private final Airline airline = new Airline(new DatabaseManager());
-    private final FlowPane planeTiles = new FlowPane(10, 10);
+    private final DatabaseManager dbManager = new DatabaseManager();
+    private final Airline airline = new Airline(dbManager);
+    // Saves and deletions run here so that the FX thread never waits for SQLite
+    private final AsyncAirline asyncAirline = new AsyncAirline(airline);
+    /** A search; if {@code boundsTypes} is not null, also the bounds of those types for the min/max fields. */
+    private record FilterRequest(PlaneQuery query, List<String> boundsTypes) {
+    }
+
+    private record FilterResult(PlaneQuery query, List<Plane> planes, SummaryTotals totals,
+                                Map<PlaneAttribute, FleetStatistics.AttributeStats> bounds) {
+    }
+
+    /**
+     * The count and sums shown in the summary bar. Only these are needed for the planes on screen,
+     * so they are plain running totals rather than a {@link FleetStatistics} with its min/max multisets.
+     */
+    private static final class SummaryTotals {
+        private int count;
+        private long passengers;
+        private double cargo;
+
+        static SummaryTotals of(List<Plane> planes) {
+            SummaryTotals totals = new SummaryTotals();
+            for (Plane plane : planes) {
+                totals.add(plane);
+            }
+            return totals;
+        }
+
+        void add(Plane plane) {
+            count++;
+            passengers += plane.getCapacity();
+            cargo += plane.getCargoCapacity();
+        }
+
+        void remove(Plane plane) {
+            count--;
+            passengers -= plane.getCapacity();
+            cargo -= plane.getCargoCapacity();
+        }
+    }
+
+    private final FilterEngine<FilterRequest, FilterResult> filterEngine = new FilterEngine<>(
+            this::runFilter, this::showFilterResult, Platform::runLater, FilterEngine.DEFAULT_DEBOUNCE_MS);
+    private final ImageRepository imageRepository = new ImageRepository();
+    private final ThumbnailStore thumbnailStore = new ThumbnailStore();
+    private final ThumbnailLoader thumbnails = new ThumbnailLoader(thumbnailStore);
+    private final PlaneGrid planeGrid = new PlaneGrid(thumbnails, this::showEditDialog, this::deletePlane, this::showFullImage);
     private final VBox filtersBox = new VBox(10);
 
     private final HBox summaryBar = new HBox(20);
@@ -57,10 +110,11 @@ public class AirlineAppGUI extends Application {
     private ComboBox<String> sortOrder;
 
     private boolean updatingMinMax = false;
+    // Set while the min/max fields wait for the bounds of newly selected types
+    private boolean boundsStale = false;
 
-    private int filteredTotalPlanes = 0;
-    private int filteredTotalPassengers = 0;
-    private double filteredTotalCargo = 0.0;
+    // Totals of the planes currently shown, kept up to date as planes are changed
+    private SummaryTotals shownTotals = new SummaryTotals();
 
     /**
      * The main entry point for the JavaFX application.
@@ -72,9 +126,12 @@ public class AirlineAppGUI extends Application {
     public void start(Stage primaryStage) {
         setupFilterPanel();
         setupSummaryBar();
-        updatePlaneTiles();
+        // Changes from this window and from CLI windows are shown as they are made
+        airline.changes().subscribe(new FxSubscriber<>(this::showChange, Platform::runLater));
+        refreshPlanes();
+        precomputeThumbnails();
+        collectOrphanedImages();
 
-        planeTiles.setPadding(new Insets(10));
         filtersBox.setPadding(new Insets(10));
         filtersBox.setPrefWidth(300);
 
@@ -82,23 +139,28 @@ public class AirlineAppGUI extends Application {
         filtersScroll.setFitToWidth(true);
         filtersScroll.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
 
-        ScrollPane centerScroll = new ScrollPane(planeTiles);
-        centerScroll.setFitToWidth(true);
-
         BorderPane root = new BorderPane();
         root.setTop(summaryBar);
-        root.setCenter(centerScroll);
+        root.setCenter(planeGrid);
         root.setRight(filtersScroll);
 
         Scene scene = new Scene(root, 1300, 650); // Increased height to 650
         primaryStage.setTitle("Авіакомпанія — GUI");
         primaryStage.setScene(scene);
         primaryStage.show();
+    }
 
-        root.widthProperty().addListener((obs, oldVal, newVal) -> {
-            double width = newVal.doubleValue();
-            planeTiles.setPrefWrapLength(width - filtersBox.getPrefWidth() - 50);
-        });
+    /**
+     * Called when the application exits. Stops background filtering and image loading, lets pending
+     * saves finish and releases the pooled database connections.
+     */
+    @Override
+    public void stop() {
+        filterEngine.shutdown();
+        thumbnails.shutdown();
+        asyncAirline.close();
+        airline.close();
+        dbManager.close();
     }
 
     /**
@@ -116,7 +178,10 @@ public class AirlineAppGUI extends Application {
         totalCargoLabel.setStyle(labelStyle);
         totalPassengersLabel.setStyle(labelStyle);
 
-        summaryBar.getChildren().addAll(totalPlanesLabel, totalCargoLabel, totalPassengersLabel);
+        Button addButton = new Button("+ Додати літак");
+        addButton.setOnAction(e -> showAddDialog());
+
+        summaryBar.getChildren().addAll(totalPlanesLabel, totalCargoLabel, totalPassengersLabel, addButton);
         updateSummaryBar();
     }
 
@@ -124,43 +189,48 @@ public class AirlineAppGUI extends Application {
      * Updates the summary bar with current totals.
      */
     private void updateSummaryBar() {
-        totalPlanesLabel.setText("Літаків: " + filteredTotalPlanes);
-        totalPassengersLabel.setText("Пасажирів: " + filteredTotalPassengers);
-        totalCargoLabel.setText("Вантажопідйомність: " + String.format("%.1f т", filteredTotalCargo));
+        totalPlanesLabel.setText("Літаків: " + shownTotals.count);
+        totalPassengersLabel.setText("Пасажирів: " + shownTotals.passengers);
+        totalCargoLabel.setText("Вантажопідйомність: " + String.format("%.1f т", shownTotals.cargo));
     }
 
     /**
-     * Updates the min and max value fields based on the currently selected plane types.
+     * Resets the min and max value fields to the bounds of the currently selected plane types with
+     * the next filter result. The bounds are read on the filter thread, together with the search,
+     * and until they arrive the fields do not restrict the search.
      */
     private void updateMinMaxFields() {
-        updatingMinMax = true;
-
-        // Get selected types
-        List<String> selectedTypes = typeCheckboxes.stream()
-                .filter(CheckBox::isSelected)
-                .map(cb -> cb.getText().toLowerCase())
-                .toList();
+        boundsStale = true;
+    }
 
-        // Filter planes by selected types
-        List<Plane> filtered = airline.getPlanes().stream()
-                .filter(p -> selectedTypes.isEmpty() || selectedTypes.contains(p.getType().toLowerCase()))
-                .toList();
+    /**
+     * Shows the bounds of the selected types in the min and max value fields; called on the FX thread.
+     */
+    private void showBounds(Map<PlaneAttribute, FleetStatistics.AttributeStats> bounds) {
+        updatingMinMax = true;
+        FleetStatistics.AttributeStats capacity = bounds.get(PlaneAttribute.CAPACITY);
+        FleetStatistics.AttributeStats cargo = bounds.get(PlaneAttribute.CARGO_CAPACITY);
+        FleetStatistics.AttributeStats range = bounds.get(PlaneAttribute.RANGE);
+        FleetStatistics.AttributeStats fuel = bounds.get(PlaneAttribute.FUEL_CONSUMPTION);
+        FleetStatistics.AttributeStats cruisingSpeed = bounds.get(PlaneAttribute.CRUISING_SPEED);
+        FleetStatistics.AttributeStats maxSpeed = bounds.get(PlaneAttribute.MAX_SPEED);
+        FleetStatistics.AttributeStats ceiling = bounds.get(PlaneAttribute.SERVICE_CEILING);
 
         // Calculate min-max values
-        int minCap = filtered.stream().mapToInt(Plane::getCapacity).min().orElse(0);
-        int maxCap = filtered.stream().mapToInt(Plane::getCapacity).max().orElse(0);
-        double minCargo = filtered.stream().mapToDouble(Plane::getCargoCapacity).min().orElse(0.0);
-        double maxCargo = filtered.stream().mapToDouble(Plane::getCargoCapacity).max().orElse(0.0);
-        int minRange = filtered.stream().mapToInt(Plane::getRange).min().orElse(0);
-        int maxRange = filtered.stream().mapToInt(Plane::getRange).max().orElse(0);
-        double minFuel = filtered.stream().mapToDouble(Plane::getFuelConsumption).min().orElse(0.0);
-        double maxFuel = filtered.stream().mapToDouble(Plane::getFuelConsumption).max().orElse(0.0);
-        double minCruisingSpeed = filtered.stream().mapToDouble(Plane::getCruisingSpeed).min().orElse(0.0);
-        double maxCruisingSpeed = filtered.stream().mapToDouble(Plane::getCruisingSpeed).max().orElse(0.0);
-        double minMaxSpeed = filtered.stream().mapToDouble(Plane::getMaxSpeed).min().orElse(0.0);
-        double maxMaxSpeed = filtered.stream().mapToDouble(Plane::getMaxSpeed).max().orElse(0.0);
-        int minCeiling = filtered.stream().mapToInt(Plane::getServiceCeiling).min().orElse(0);
-        int maxCeiling = filtered.stream().mapToInt(Plane::getServiceCeiling).max().orElse(0);
+        int minCap = (int) orZero(capacity.min());
+        int maxCap = (int) orZero(capacity.max());
+        double minCargo = orZero(cargo.min());
+        double maxCargo = orZero(cargo.max());
+        int minRange = (int) orZero(range.min());
+        int maxRange = (int) orZero(range.max());
+        double minFuel = orZero(fuel.min());
+        double maxFuel = orZero(fuel.max());
+        double minCruisingSpeed = orZero(cruisingSpeed.min());
+        double maxCruisingSpeed = orZero(cruisingSpeed.max());
+        double minMaxSpeed = orZero(maxSpeed.min());
+        double maxMaxSpeed = orZero(maxSpeed.max());
+        int minCeiling = (int) orZero(ceiling.min());
+        int maxCeiling = (int) orZero(ceiling.max());
 
         // Update fields
         minCapField.setText(String.valueOf(minCap));
@@ -181,6 +251,10 @@ public class AirlineAppGUI extends Application {
         updatingMinMax = false;
     }
 
+    private static double orZero(double value) {
+        return Double.isNaN(value) ? 0 : value;
+    }
+
     private UnaryOperator<TextFormatter.Change> createDoubleFilter() {
         return change -> {
             String newText = change.getControlNewText();
@@ -202,7 +276,8 @@ public class AirlineAppGUI extends Application {
     }
 
     private void openCLIWindow(Stage owner) {
-        CLIWindow.show(owner);
+        // The CLI changes the shared airline; its changes reach the grid through showChange
+        CLIWindow.show(owner, airline);
     }
 
     /**
@@ -348,7 +423,7 @@ public class AirlineAppGUI extends Application {
         updateMinMaxFields();
 
         // Filter and sort listeners
-        Runnable filter = this::updatePlaneTiles;
+        Runnable filter = this::requestFilter;
         searchField.textProperty().addListener((obs, o, n) -> filter.run());
 
         // Numeric fields listeners
@@ -406,150 +481,283 @@ public class AirlineAppGUI extends Application {
     }
 
     /**
-     * Updates the display of plane tiles based on current filters and sorting.
+     * Asks for the plane tiles to be refreshed after the user changed a filter. Rapid changes are
+     * coalesced and the search runs in the background, see {@link FilterEngine}.
      */
-    private void updatePlaneTiles() {
-        planeTiles.getChildren().clear();
+    private void requestFilter() {
+        filterEngine.submit(buildRequest());
+    }
 
+    /**
+     * Refreshes the plane tiles at once, e.g. after the fleet itself has changed.
+     */
+    private void refreshPlanes() {
+        filterEngine.submitNow(buildRequest());
+    }
+
+    private FilterRequest buildRequest() {
+        return new FilterRequest(buildQuery(), boundsStale ? selectedTypes() : null);
+    }
+
+    /**
+     * Runs a filter request; called on the filter engine's thread. Everything is read from one
+     * immutable fleet snapshot, so loading the fleet, searching and reading the bounds never block
+     * the FX thread and never see state it may be changing. The search stops early once a newer
+     * request has arrived.
+     */
+    private FilterResult runFilter(FilterRequest request, BooleanSupplier superseded) {
+        FleetSnapshot fleet = airline.getSnapshot();
+        List<Plane> planes = fleet.search(request.query(), superseded);
+        Map<PlaneAttribute, FleetStatistics.AttributeStats> bounds = null;
+        if (request.boundsTypes() != null) {
+            bounds = new EnumMap<>(PlaneAttribute.class);
+            for (PlaneAttribute attribute : PlaneAttribute.values()) {
+                bounds.put(attribute, fleet.getStatistics().get(attribute, request.boundsTypes()));
+            }
+        }
+        return new FilterResult(request.query(), planes, SummaryTotals.of(planes), bounds);
+    }
+
+    /**
+     * Shows the result of the newest filter request; called on the FX thread.
+     * Only the visible cards are rendered, see {@link PlaneGrid}.
+     */
+    private void showFilterResult(FilterResult result) {
+        if (result.bounds() != null) {
+            showBounds(result.bounds());
+            boundsStale = false;
+        }
+        planeGrid.setPlanes(result.planes(), result.query());
+
+        shownTotals = result.totals();
+        updateSummaryBar();
+    }
+
+    /**
+     * Builds a query from the current state of the filter panel.
+     */
+    private PlaneQuery buildQuery() {
         String search = searchField.getText().trim().toLowerCase();
 
-        // Parse filter values with error handling
-        int minCap = parseField(minCapField, Integer.MIN_VALUE);
-        int maxCap = parseField(maxCapField, Integer.MAX_VALUE);
-        double minCargo = parseField(minCargoField, -Double.MAX_VALUE);
-        double maxCargo = parseField(maxCargoField, Double.MAX_VALUE);
-        int minRange = parseField(minRangeField, Integer.MIN_VALUE);
-        int maxRange = parseField(maxRangeField, Integer.MAX_VALUE);
-        double minFuel = parseField(minFuelField, -Double.MAX_VALUE);
-        double maxFuel = parseField(maxFuelField, Double.MAX_VALUE);
-        double minCruisingSpeed = parseField(minCruisingSpeedField, -Double.MAX_VALUE);
-        double maxCruisingSpeed = parseField(maxCruisingSpeedField, Double.MAX_VALUE);
-        double minMaxSpeed = parseField(minMaxSpeedField, -Double.MAX_VALUE);
-        double maxMaxSpeed = parseField(maxMaxSpeedField, Double.MAX_VALUE);
-        int minCeiling = parseField(minCeilingField, Integer.MIN_VALUE);
-        int maxCeiling = parseField(maxCeilingField, Integer.MAX_VALUE);
-
-        List<String> selectedTypes = typeCheckboxes.stream()
+        // Empty or malformed fields do not restrict the result, nor do fields about to be reset
+        PlaneQuery query = new PlaneQuery().modelContains(search).types(selectedTypes());
+        if (!boundsStale) {
+            applyBoundFields(query);
+        }
+
+        // Sort options are listed in the same order as PlaneAttribute, after "Модель"
+        boolean ascending = sortOrder.getValue().equals("За зростанням");
+        int sortIndex = sortParam.getSelectionModel().getSelectedIndex();
+        if (sortIndex <= 0) {
+            query.orderByModel(ascending);
+        } else {
+            query.orderBy(PlaneAttribute.values()[sortIndex - 1], ascending);
+        }
+        return query;
+    }
+
+    private void applyBoundFields(PlaneQuery query) {
+        applyBounds(query, PlaneAttribute.CAPACITY, minCapField, maxCapField);
+        applyBounds(query, PlaneAttribute.CARGO_CAPACITY, minCargoField, maxCargoField);
+        applyBounds(query, PlaneAttribute.RANGE, minRangeField, maxRangeField);
+        applyBounds(query, PlaneAttribute.FUEL_CONSUMPTION, minFuelField, maxFuelField);
+        applyBounds(query, PlaneAttribute.CRUISING_SPEED, minCruisingSpeedField, maxCruisingSpeedField);
+        applyBounds(query, PlaneAttribute.MAX_SPEED, minMaxSpeedField, maxMaxSpeedField);
+        applyBounds(query, PlaneAttribute.SERVICE_CEILING, minCeilingField, maxCeilingField);
+    }
+
+    private List<String> selectedTypes() {
+        return typeCheckboxes.stream()
                 .filter(CheckBox::isSelected)
                 .map(cb -> cb.getText().toLowerCase())
                 .toList();
+    }
 
-        List<Plane> planes = airline.getPlanes().stream()
-                .filter(p -> p.getModel().toLowerCase().contains(search))
-                .filter(p -> p.getCapacity() >= minCap && p.getCapacity() <= maxCap)
-                .filter(p -> p.getCargoCapacity() >= minCargo && p.getCargoCapacity() <= maxCargo)
-                .filter(p -> p.getRange() >= minRange && p.getRange() <= maxRange)
-                .filter(p -> p.getFuelConsumption() >= minFuel && p.getFuelConsumption() <= maxFuel)
-                .filter(p -> p.getCruisingSpeed() >= minCruisingSpeed && p.getCruisingSpeed() <= maxCruisingSpeed)
-                .filter(p -> p.getMaxSpeed() >= minMaxSpeed && p.getMaxSpeed() <= maxMaxSpeed)
-                .filter(p -> p.getServiceCeiling() >= minCeiling && p.getServiceCeiling() <= maxCeiling)
-                .filter(p -> selectedTypes.isEmpty() || selectedTypes.contains(p.getType().toLowerCase()))
-                .sorted((a, b) -> {
-                    int order = sortOrder.getValue().equals("За зростанням") ? 1 : -1;
-                    return switch (sortParam.getValue()) {
-                        case "Модель" -> a.getModel().compareToIgnoreCase(b.getModel()) * order;
-                        case "Пасажири" -> Integer.compare(a.getCapacity(), b.getCapacity()) * order;
-                        case "Вантаж" -> Double.compare(a.getCargoCapacity(), b.getCargoCapacity()) * order;
-                        case "Дальність" -> Integer.compare(a.getRange(), b.getRange()) * order;
-                        case "Пальне" -> Double.compare(a.getFuelConsumption(), b.getFuelConsumption()) * order;
-                        case "Крейс. швидкість" -> Double.compare(a.getCruisingSpeed(), b.getCruisingSpeed()) * order;
-                        case "Макс. швидкість" -> Double.compare(a.getMaxSpeed(), b.getMaxSpeed()) * order;
-                        case "Стеля" -> Integer.compare(a.getServiceCeiling(), b.getServiceCeiling()) * order;
-                        default -> 0;
-                    };
-                })
-                .toList();
+    /**
+     * Deletes a plane after its card's delete button was pressed.
+     */
+    private void deletePlane(Plane plane) {
+        asyncAirline.removePlane(plane.getId()).whenCompleteAsync((removed, error) -> {
+            // A successful removal arrives as a change event
+            if (error != null || !removed) {
+                logger.error("Deleting plane {} failed", plane.getId(), error);
+                showError("Не вдалося видалити літак.");
+            }
+        }, Platform::runLater);
+    }
 
-        for (Plane plane : planes) {
-            VBox card = new VBox(5);
-            card.setPadding(new Insets(10));
-            card.setStyle("-fx-border-color: gray; -fx-border-radius: 5; -fx-background-color: #f9f9f9;");
+    /**
+     * Shows a change of the fleet, whichever window made it; called on the FX thread.
+     */
+    private void showChange(PlaneChange change) {
+        if (change.after() != null) {
+            showSavedPlane(change.after());
+        } else {
+            removeShownPlane(change.planeId());
+        }
+    }
 
-            if (plane.getImagePath() != null) {
-                try {
-                    Image image = new Image(new FileInputStream(plane.getImagePath()));
-                    ImageView imageView = new ImageView(image);
-                    imageView.setFitWidth(180);
-                    imageView.setPreserveRatio(true);
-
-                    imageView.setOnMouseClicked(e -> {
-                        try {
-                            Stage imageStage = new Stage();
-                            ImageView fullImage = new ImageView(new Image(new FileInputStream(plane.getImagePath())));
-                            fullImage.setPreserveRatio(true);
-                            fullImage.setFitWidth(800);
-                            StackPane pane = new StackPane(fullImage);
-                            pane.setPadding(new Insets(10));
-                            imageStage.setScene(new Scene(pane));
-                            imageStage.setTitle(plane.getModel());
-                            imageStage.show();
-                        } catch (FileNotFoundException ex) {
-                            showError("Не вдалося відкрити зображення.");
-                        }
-                    });
-
-                    card.getChildren().add(imageView);
-                } catch (FileNotFoundException e) {
-                    System.out.println("Зображення не знайдено: " + plane.getImagePath());
-                }
+    /**
+     * Removes a deleted plane's card instead of rebuilding the grid.
+     */
+    private void removeShownPlane(int planeId) {
+        if (filterEngine.hasPending()) {
+            refreshPlanes();
+            return;
+        }
+        Plane shown = planeGrid.removePlane(planeId);
+        if (shown != null) {
+            shownTotals.remove(shown);
+            updateSummaryBar();
+        }
+    }
+
+    /**
+     * Shows an added or edited plane by changing only its own card instead of rebuilding the grid.
+     * The min/max fields are widened to include the plane, as a full recalculation would do.
+     */
+    private void showSavedPlane(Plane plane) {
+        widenBounds(plane);
+        if (filterEngine.hasPending()) {
+            // A filter result based on the old fleet is on its way; recompute it with the change
+            refreshPlanes();
+            return;
+        }
+        boolean visible = buildQuery().matches(plane);
+        Plane previous = visible ? planeGrid.replacePlane(plane) : planeGrid.removePlane(plane.getId());
+        if (previous != null) {
+            shownTotals.remove(previous);
+        }
+        if (visible) {
+            if (previous == null) {
+                planeGrid.insertPlane(plane);
             }
+            shownTotals.add(plane);
+        }
+        updateSummaryBar();
+    }
 
-            card.getChildren().addAll(
-                    new Label(plane.getModel()),
-                    new Label("Тип: " + plane.getType()),
-                    new Label("Пасажири: " + plane.getCapacity()),
-                    new Label("Вантаж: " + plane.getCargoCapacity() + " т"),
-                    new Label("Дальність: " + plane.getRange() + " км"),
-                    new Label("Пальне: " + plane.getFuelConsumption() + " л/год"),
-                    new Label("Крейс. швидк.: " + plane.getCruisingSpeed() + " км/год"),
-                    new Label("Макс. швидк.: " + plane.getMaxSpeed() + " км/год"),
-                    new Label("Стеля: " + plane.getServiceCeiling() + " м")
-            );
-
-            Button editBtn = new Button("✏ Редагувати");
-            Button deleteBtn = new Button("🗑 Видалити");
-            editBtn.setOnAction(e -> showEditDialog(plane));
-            deleteBtn.setOnAction(e -> {
-                if (airline.removePlane(plane.getId())) {
-                    updateMinMaxFields();
-                    updatePlaneTiles();
-                } else {
-                    showError("Не вдалося видалити літак.");
-                }
-            });
+    /**
+     * Extends the min/max fields so that they include the given plane, if its type is selected.
+     */
+    private void widenBounds(Plane plane) {
+        boolean typeSelected = typeCheckboxes.stream().noneMatch(CheckBox::isSelected)
+                || typeCheckboxes.stream().anyMatch(cb -> cb.isSelected() && cb.getText().equalsIgnoreCase(plane.getType()));
+        if (!typeSelected) {
+            return;
+        }
+        updatingMinMax = true;
+        widenBound(minCapField, maxCapField, plane.getCapacity(), true);
+        widenBound(minCargoField, maxCargoField, plane.getCargoCapacity(), false);
+        widenBound(minRangeField, maxRangeField, plane.getRange(), true);
+        widenBound(minFuelField, maxFuelField, plane.getFuelConsumption(), false);
+        widenBound(minCruisingSpeedField, maxCruisingSpeedField, plane.getCruisingSpeed(), false);
+        widenBound(minMaxSpeedField, maxMaxSpeedField, plane.getMaxSpeed(), false);
+        widenBound(minCeilingField, maxCeilingField, plane.getServiceCeiling(), true);
+        updatingMinMax = false;
+    }
 
-            card.getChildren().add(new HBox(5, editBtn, deleteBtn));
-            planeTiles.getChildren().add(card);
+    private void widenBound(TextField minField, TextField maxField, double value, boolean integral) {
+        Double min = parseBound(minField);
+        Double max = parseBound(maxField);
+        if (min != null && value < min) {
+            minField.setText(integral ? String.valueOf((long) Math.floor(value))
+                    : String.format(Locale.ROOT, "%.1f", Math.floor(value * 10) / 10));
         }
+        if (max != null && value > max) {
+            maxField.setText(integral ? String.valueOf((long) Math.ceil(value))
+                    : String.format(Locale.ROOT, "%.1f", Math.ceil(value * 10) / 10));
+        }
+    }
 
-        Button addButton = new Button("+ Додати літак");
-        addButton.setMinSize(140, 100);
-        addButton.setOnAction(e -> showAddDialog());
-        planeTiles.getChildren().add(addButton);
+    /**
+     * Opens the full-size picture of a plane in a separate window.
+     */
+    private void showFullImage(Plane plane) {
+        String path = plane.getImagePath();
+        if (path == null || !new File(path).isFile()) {
+            showError("Не вдалося відкрити зображення.");
+            return;
+        }
+        Stage imageStage = new Stage();
+        ImageView fullImage = new ImageView(thumbnails.cached(path, ThumbnailStore.Size.PREVIEW));
+        fullImage.setPreserveRatio(true);
+        fullImage.setFitWidth(ThumbnailStore.Size.PREVIEW.getWidth());
+        StackPane pane = new StackPane(fullImage);
+        pane.setPadding(new Insets(10));
+        pane.setMinSize(200, 150);
+        imageStage.setScene(new Scene(pane));
+        imageStage.setTitle(plane.getModel());
+        imageStage.show();
+
+        // The preview-sized copy is loaded in the background; the window fills in when it is ready
+        thumbnails.load(path, ThumbnailStore.Size.PREVIEW, image -> {
+            if (image == null) {
+                imageStage.close();
+                showError("Не вдалося відкрити зображення.");
+            } else {
+                fullImage.setImage(image);
+                imageStage.sizeToScene();
+            }
+        });
+    }
 
-        filteredTotalPlanes = planes.size();
-        filteredTotalPassengers = planes.stream().mapToInt(Plane::getCapacity).sum();
-        filteredTotalCargo = planes.stream().mapToDouble(Plane::getCargoCapacity).sum();
-        updateSummaryBar();
+    /**
+     * Deletes stored images that no plane refers to any more, and their thumbnails, in the background.
+     */
+    private void collectOrphanedImages() {
+        Thread collector = new Thread(() -> {
+            Map<String, Integer> references = dbManager.getImageReferenceCounts();
+            if (references == null) {
+                logger.warn("Image references could not be counted, skipping image garbage collection");
+                return;
+            }
+            int deleted = imageRepository.collectGarbage(references, ImageRepository.DEFAULT_GRACE_PERIOD,
+                    thumbnailStore::forget);
+            logger.info("Image garbage collection removed {} unreferenced images", deleted);
+        }, "image-gc");
+        collector.setDaemon(true);
+        collector.start();
     }
 
     /**
-     * Parses a text field value to the specified type.
+     * Prepares the scaled picture files for the whole fleet in the background, so that later sessions
+     * read small files instead of decoding full-size photos.
      */
-    @SuppressWarnings("unchecked")
-    private <T> T parseField(TextField field, T defaultValue) {
-        try {
-            if (field.getText().isEmpty()) return defaultValue;
+    private void precomputeThumbnails() {
+        thumbnails.precompute(() -> {
+            Set<String> paths = new LinkedHashSet<>();
+            airline.forEachPlane(plane -> {
+                String path = plane.getImagePath();
+                if (path != null && !path.isBlank()) paths.add(path);
+            });
+            return paths;
+        });
+    }
 
-            if (defaultValue instanceof Integer) {
-                return (T) Integer.valueOf(field.getText());
-            } else if (defaultValue instanceof Double) {
-                return (T) Double.valueOf(field.getText());
-            }
+    /**
+     * Adds the bounds typed into a min/max pair of fields to the query.
+     */
+    private void applyBounds(PlaneQuery query, PlaneAttribute attribute, TextField minField, TextField maxField) {
+        Double min = parseBound(minField);
+        Double max = parseBound(maxField);
+        if (min != null) query.min(attribute, min);
+        if (max != null) query.max(attribute, max);
+    }
+
+    /**
+     * Parses a numeric filter field.
+     *
+     * @return the value, or null if the field is empty or not a number
+     */
+    private Double parseBound(TextField field) {
+        try {
+            if (field.getText().isEmpty()) return null;
+            return Double.valueOf(field.getText());
         } catch (NumberFormatException e) {
             System.err.println("Невірний формат числа: " + field.getText());
         }
-        return defaultValue;
+        return null;
     }
 
     /**
@@ -611,17 +819,8 @@ public class AirlineAppGUI extends Application {
             File selectedFile = fileChooser.showOpenDialog(dialog.getOwner());
             if (selectedFile != null) {
                 try {
-                    File imagesDir = new File("images");
-                    if (!imagesDir.exists()) imagesDir.mkdirs();
-
-                    String fileName = selectedFile.getName();
-                    File destFile = new File(imagesDir, fileName);
-                    if (!destFile.exists()) {
-                        Files.copy(selectedFile.toPath(), destFile.toPath());
-                    }
-
-                    imagePathField.setText("images/" + fileName);
-
+                    // Identical pictures are stored once; different pictures with the same name no longer clash
+                    imagePathField.setText(imageRepository.store(selectedFile.toPath()));
                 } catch (Exception ex) {
                     showError("Помилка при копіюванні зображення: " + ex.getMessage());
                 }
@@ -692,14 +891,19 @@ public class AirlineAppGUI extends Application {
         });
 
         dialog.showAndWait().ifPresent(plane -> {
-            if (editable != null) {
-                airline.updatePlane(plane);
-            } else {
-                airline.addPlane(plane);
-            }
-
-            updateMinMaxFields();
-            updatePlaneTiles();
+            CompletableFuture<Boolean> save = editable != null
+                    ? asyncAirline.updatePlane(plane)
+                    : asyncAirline.addPlane(plane);
+            save.whenCompleteAsync((saved, error) -> {
+                if (error == null && saved) {
+                    // Shown when its change event arrives
+                    return;
+                }
+                logger.error("Saving plane '{}' failed", plane.getModel(), error);
+                showError("Не вдалося зберегти літак.");
+                updateMinMaxFields();
+                refreshPlanes();
+            }, Platform::runLater);
         });
     }
 
@@ -1,15 +1,20 @@
 package ui;
 
 import airline.*;
+import airline.io.FleetExporter;
+import airline.io.FleetImporter;
 import airline.util.PlaneFactory;
 import db.DatabaseManager;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
  * Command-line interface for managing an airline's fleet of planes.
- * Provides functionality for adding, editing, removing, listing, sorting, and searching planes.
+ * Provides functionality for adding, editing, removing, listing, sorting, and searching planes,
+ * and for importing and exporting planes as CSV or JSON-lines files.
  */
 public class AirlineCLI {
     private final Airline airline;
@@ -57,7 +62,9 @@ public class AirlineCLI {
                 case "4" -> listPlanes();
                 case "5" -> searchPlane();
                 case "6" -> sortPlanes();
-                case "7" -> running = false;
+                case "7" -> importPlanes();
+                case "8" -> exportPlanes();
+                case "9" -> running = false;
                 default -> printOut.println("❌ Невідомий вибір. Спробуйте ще.");
             }
         }
@@ -75,7 +82,9 @@ public class AirlineCLI {
                 4. Вивести всі літаки
                 5. Пошук літака
                 6. Сортування літаків
-                7. Вихід
+                7. Імпорт літаків з файлу
+                8. Експорт літаків у файл
+                9. Вихід
                 """);
         printOut.print("Ваш вибір: ");
     }
@@ -86,20 +95,31 @@ public class AirlineCLI {
      * @param planes the list of planes to display
      */
     private void printPlaneTable(List<Plane> planes) {
-        if (planes == null || planes.isEmpty()) {
-            printOut.println("Список літаків порожній.");
-            return;
+        TablePrinter table = new TablePrinter();
+        if (planes != null) {
+            planes.forEach(table::row);
         }
+        table.finish();
+    }
 
-        String format = "| %-3s | %-28s | %-15s | %-9s | %-9s | %-10s | %-10s | %-13s | %-13s | %-7s |\n";
-        String line = "+-----+------------------------------+-----------------+-----------+-----------+------------+------------+---------------+---------------+---------+";
-
-        printOut.println(line);
-        printOut.printf(format, "ID", "Модель", "Тип", "Пасажири", "Вантаж(т)", "Дальність", "Пальне", "Крейс. швидк.", "Макс. швидк.", "Стеля");
-        printOut.println(line);
-
-        for (Plane p : planes) {
-            printOut.printf(format,
+    /**
+     * Prints the plane table one row at a time, so rows can be printed while they are still being read.
+     * The header is printed with the first row; an empty table prints a notice instead.
+     */
+    private class TablePrinter {
+        private static final String FORMAT = "| %-3s | %-28s | %-15s | %-9s | %-9s | %-10s | %-10s | %-13s | %-13s | %-7s |\n";
+        private static final String LINE = "+-----+------------------------------+-----------------+-----------+-----------+------------+------------+---------------+---------------+---------+";
+
+        private boolean headerPrinted = false;
+
+        void row(Plane p) {
+            if (!headerPrinted) {
+                printOut.println(LINE);
+                printOut.printf(FORMAT, "ID", "Модель", "Тип", "Пасажири", "Вантаж(т)", "Дальність", "Пальне", "Крейс. швидк.", "Макс. швидк.", "Стеля");
+                printOut.println(LINE);
+                headerPrinted = true;
+            }
+            printOut.printf(FORMAT,
                     p.getId(),
                     p.getModel(),
                     p.getType(),
@@ -112,7 +132,14 @@ public class AirlineCLI {
                     p.getServiceCeiling()
             );
         }
-        printOut.println(line);
+
+        void finish() {
+            if (headerPrinted) {
+                printOut.println(LINE);
+            } else {
+                printOut.println("Список літаків порожній.");
+            }
+        }
     }
 
     /**
@@ -199,7 +226,12 @@ public class AirlineCLI {
             printOut.println("❌ Літак не знайдено.");
             return;
         }
-        Plane found = airline.getPlanes().stream().filter(p -> p.getId() == id).findFirst().orElse(null);
+        // The plane may have been removed by another window since the lookup
+        Plane found = airline.findPlaneById(id);
+        if (found == null) {
+            printOut.println("❌ Літак не знайдено.");
+            return;
+        }
         printOut.println("Знайдено:");
         printPlaneTable(Collections.singletonList(found));
         printOut.print("Підтвердити видалення (y/n)? ");
@@ -229,7 +261,14 @@ public class AirlineCLI {
                 printOut.println("❌ Літак не знайдено.");
                 return;
             }
-            Plane plane = airline.getPlanes().stream().filter(p -> p.getId() == id).findFirst().orElse(null);
+            // The plane may have been removed by another window since the lookup
+            Plane cached = airline.findPlaneById(id);
+            if (cached == null) {
+                printOut.println("❌ Літак не знайдено.");
+                return;
+            }
+            // Edit a copy: the cached plane may be shown by the GUI at the same time
+            Plane plane = PlaneFactory.copyOf(cached);
             printOut.println("Знайдено:");
             printPlaneTable(Collections.singletonList(plane));
 
@@ -302,9 +341,10 @@ public class AirlineCLI {
      * Lists all planes in the airline.
      */
     private void listPlanes() {
-        List<Plane> planes = airline.getPlanes();
         printOut.println("=== Список літаків ===");
-        printPlaneTable(planes);
+        TablePrinter table = new TablePrinter();
+        airline.forEachPlane(table::row);
+        table.finish();
     }
 
     /**
@@ -442,24 +482,17 @@ public class AirlineCLI {
                 }
             }
 
-            List<Plane> results = airline.getPlanes().stream()
-                    .filter(p -> keyword.isEmpty() || p.getModel().toLowerCase().contains(keyword))
-                    .filter(p -> minCap < 0 || p.getCapacity() >= minCap)
-                    .filter(p -> maxCap < 0 || p.getCapacity() <= maxCap)
-                    .filter(p -> minCargo < 0 || p.getCargoCapacity() >= minCargo)
-                    .filter(p -> maxCargo < 0 || p.getCargoCapacity() <= maxCargo)
-                    .filter(p -> minRange < 0 || p.getRange() >= minRange)
-                    .filter(p -> maxRange < 0 || p.getRange() <= maxRange)
-                    .filter(p -> minFuel < 0 || p.getFuelConsumption() >= minFuel)
-                    .filter(p -> maxFuel < 0 || p.getFuelConsumption() <= maxFuel)
-                    .filter(p -> minCruisingSpeed < 0 || p.getCruisingSpeed() >= minCruisingSpeed)
-                    .filter(p -> maxCruisingSpeed < 0 || p.getCruisingSpeed() <= maxCruisingSpeed)
-                    .filter(p -> minMaxSpeed < 0 || p.getMaxSpeed() >= minMaxSpeed)
-                    .filter(p -> maxMaxSpeed < 0 || p.getMaxSpeed() <= maxMaxSpeed)
-                    .filter(p -> minCeiling < 0 || p.getServiceCeiling() >= minCeiling)
-                    .filter(p -> maxCeiling < 0 || p.getServiceCeiling() <= maxCeiling)
-                    .filter(p -> selectedTypes.isEmpty() || selectedTypes.contains(p.getType().toLowerCase()))
-                    .toList();
+            // Negative values mean "no limit"
+            PlaneQuery query = new PlaneQuery().modelContains(keyword).types(selectedTypes);
+            applyBounds(query, PlaneAttribute.CAPACITY, minCap, maxCap);
+            applyBounds(query, PlaneAttribute.CARGO_CAPACITY, minCargo, maxCargo);
+            applyBounds(query, PlaneAttribute.RANGE, minRange, maxRange);
+            applyBounds(query, PlaneAttribute.FUEL_CONSUMPTION, minFuel, maxFuel);
+            applyBounds(query, PlaneAttribute.CRUISING_SPEED, minCruisingSpeed, maxCruisingSpeed);
+            applyBounds(query, PlaneAttribute.MAX_SPEED, minMaxSpeed, maxMaxSpeed);
+            applyBounds(query, PlaneAttribute.SERVICE_CEILING, minCeiling, maxCeiling);
+
+            List<Plane> results = airline.search(query);
 
             if (results.isEmpty()) {
                 printOut.println("❌ Нічого не знайдено.");
@@ -472,6 +505,57 @@ public class AirlineCLI {
         }
     }
 
+    /**
+     * Adds the user's bounds for one attribute to a query, skipping negative ("no limit") values.
+     */
+    private void applyBounds(PlaneQuery query, PlaneAttribute attribute, double min, double max) {
+        if (min >= 0) query.min(attribute, min);
+        if (max >= 0) query.max(attribute, max);
+    }
+
+    /**
+     * Imports planes from a CSV or JSON-lines file chosen by its extension. Rejected rows are written
+     * next to the file, to {@code <file>.errors.tsv}.
+     */
+    private void importPlanes() {
+        printOut.print("Шлях до файлу (.csv або .jsonl): ");
+        String input = scanner.nextLine().trim();
+        printOut.println(input);
+        try {
+            Path source = Path.of(input);
+            Path errors = source.resolveSibling(source.getFileName() + ".errors.tsv");
+            FleetImporter.ImportResult result = new FleetImporter(airline).importFile(source, errors,
+                    progress -> printOut.printf("... прочитано %d рядків%n", progress.rowsRead()));
+            printOut.printf("✅ Імпортовано: %d, відхилено: %d%n", result.rowsImported(), result.rowsRejected());
+            if (result.rowsRejected() > 0) {
+                printOut.println("Відхилені рядки записано у " + errors);
+            }
+        } catch (IllegalArgumentException e) {
+            // Also covers InvalidPathException
+            printOut.println("❌ Непідтримуваний файл: " + input);
+        } catch (IOException e) {
+            printOut.println("❌ Помилка імпорту: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exports all planes to a CSV or JSON-lines file chosen by its extension, replacing the file.
+     */
+    private void exportPlanes() {
+        printOut.print("Шлях до файлу (.csv або .jsonl): ");
+        String input = scanner.nextLine().trim();
+        printOut.println(input);
+        try {
+            long count = new FleetExporter(airline).exportFile(Path.of(input));
+            printOut.printf("✅ Експортовано літаків: %d%n", count);
+        } catch (IllegalArgumentException e) {
+            // Also covers InvalidPathException
+            printOut.println("❌ Непідтримуваний файл: " + input);
+        } catch (IOException e) {
+            printOut.println("❌ Помилка експорту: " + e.getMessage());
+        }
+    }
+
     /**
      * Sorts planes based on a chosen attribute and order (ascending or descending).
      */
@@ -499,29 +583,23 @@ public class AirlineCLI {
         printOut.println(orderChoice);
         boolean ascending = orderChoice.equals("1");
 
-        List<Plane> sorted = new ArrayList<>(airline.getPlanes());
-        Comparator<Plane> comparator = switch (choice) {
-            case "1" -> Comparator.comparing(Plane::getModel, String.CASE_INSENSITIVE_ORDER);
-            case "2" -> Comparator.comparingInt(Plane::getCapacity);
-            case "3" -> Comparator.comparingDouble(Plane::getCargoCapacity);
-            case "4" -> Comparator.comparingInt(Plane::getRange);
-            case "5" -> Comparator.comparingDouble(Plane::getFuelConsumption);
-            case "6" -> Comparator.comparingDouble(Plane::getCruisingSpeed);
-            case "7" -> Comparator.comparingDouble(Plane::getMaxSpeed);
-            case "8" -> Comparator.comparingInt(Plane::getServiceCeiling);
+        PlaneQuery query = new PlaneQuery();
+        switch (choice) {
+            case "1" -> query.orderByModel(ascending);
+            case "2" -> query.orderBy(PlaneAttribute.CAPACITY, ascending);
+            case "3" -> query.orderBy(PlaneAttribute.CARGO_CAPACITY, ascending);
+            case "4" -> query.orderBy(PlaneAttribute.RANGE, ascending);
+            case "5" -> query.orderBy(PlaneAttribute.FUEL_CONSUMPTION, ascending);
+            case "6" -> query.orderBy(PlaneAttribute.CRUISING_SPEED, ascending);
+            case "7" -> query.orderBy(PlaneAttribute.MAX_SPEED, ascending);
+            case "8" -> query.orderBy(PlaneAttribute.SERVICE_CEILING, ascending);
             default -> {
                 printOut.println("❌ Невідомий вибір.");
-                yield null;
+                return;
             }
-        };
-
-        if (comparator == null) return;
-
-        if (!ascending) {
-            comparator = comparator.reversed();
         }
 
-        sorted.sort(comparator);
+        List<Plane> sorted = airline.search(query);
 
         printOut.println("=== Результат сортування ===");
         printPlaneTable(sorted);
@@ -1,5 +1,7 @@
 package ui;
 
+import airline.Airline;
+import airline.util.ExecutionMode;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
@@ -7,9 +9,11 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
 
 /**
@@ -22,10 +26,13 @@ public class CLIWindow {
     /**
      * Displays the CLI window as a modal dialog owned by the given stage.
      * Sets up the text input/output components and starts the CLI in a separate thread.
+     * The CLI works on the given airline, which is safe to share with the calling window.
      *
-     * @param owner the parent stage to which this modal window belongs
+     * @param owner   the parent stage to which this modal window belongs
+     * @param airline the airline the CLI manages
+     * @return the CLI window, e.g. to react when it is closed
      */
-    public static void show(Stage owner) {
+    public static Stage show(Stage owner, Airline airline) {
         Stage stage = new Stage();
         stage.setTitle("Консольний режим (CLI)");
         stage.initOwner(owner);
@@ -63,15 +70,9 @@ public class CLIWindow {
         stage.setScene(scene);
         stage.show();
 
-        // Create piped input/output streams to communicate with CLI logic
-        PipedInputStream pipedIn = new PipedInputStream();
-        PipedOutputStream pipedOut = new PipedOutputStream();
-        try {
-            pipedIn.connect(pipedOut);
-        } catch (IOException e) {
-            logArea.appendText("Помилка ініціалізації CLI\n");
-            return;
-        }
+        // Lines typed by the user are queued for the CLI; closing the window ends the session
+        ConsoleInput input = new ConsoleInput();
+        stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> input.close());
 
         // Make inputField initially disabled (will be enabled by first CLI output)
         inputField.setDisable(true);
@@ -95,17 +96,19 @@ public class CLIWindow {
             }
         }, true, StandardCharsets.UTF_8);
 
-        // Start CLI logic in a separate thread
-        new Thread(() -> {
+        // Start CLI logic in a separate thread (a virtual one in virtual-thread mode)
+        ExecutionMode.start("CLI-Thread", () -> {
             try {
-                Scanner scanner = new Scanner(new InputStreamReader(pipedIn, StandardCharsets.UTF_8));
-                ui.AirlineCLI cli = new ui.AirlineCLI(scanner, printOut);
+                Scanner scanner = new Scanner(input);
+                ui.AirlineCLI cli = new ui.AirlineCLI(airline, scanner, printOut);
                 cli.run();
+            } catch (NoSuchElementException e) {
+                // The window was closed while the CLI was waiting for input
             } catch (Exception e) {
                 Platform.runLater(() -> logArea.appendText("Помилка в CLI: " + e.getMessage() + "\n"));
                 e.printStackTrace();
             }
-        }, "CLI-Thread").start();
+        });
 
         // Send user input to the CLI when Enter is pressed
         inputField.setOnAction(e -> {
@@ -115,14 +118,9 @@ public class CLIWindow {
             }
             String cmd = inputField.getText();
             inputField.setDisable(true); // block until next output
-            try {
-                pipedOut.write((cmd + "\n").getBytes(StandardCharsets.UTF_8));
-                pipedOut.flush();
-            } catch (IOException ex) {
-                logArea.appendText("Помилка відправки команди\n");
-                inputField.setDisable(false); // if error - unblock
-            }
+            input.submit(cmd);
             inputField.clear();
         });
+        return stage;
     }
 }
\ No newline at end of file
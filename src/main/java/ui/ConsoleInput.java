@@ -0,0 +1,70 @@
+package ui;
+
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Line-based input of a CLI session: one thread submits the lines the user typed, the session
+ * thread reads them, e.g. through a {@link java.util.Scanner}.
+ * <p>
+ * Unlike a {@link java.io.PipedInputStream}, which waits on a monitor, a session waiting here parks
+ * on a {@link BlockingQueue}, so a session running on a virtual thread releases its carrier while
+ * the user is typing.
+ * </p>
+ */
+class ConsoleInput extends Reader {
+
+    /** Marks the end of the input; compared by identity. */
+    private static final String END = new String("");
+
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    private String current = "";
+    private int position = 0;
+    private boolean ended = false;
+
+    /**
+     * Submits one line. The line separator is added here.
+     *
+     * @param line the line, without a separator
+     */
+    void submit(String line) {
+        lines.add(line + "\n");
+    }
+
+    /**
+     * Ends the input: the session reads the lines already submitted and then the end of the stream.
+     */
+    @Override
+    public void close() {
+        lines.add(END);
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws InterruptedIOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (position == current.length()) {
+            if (ended) {
+                return -1;
+            }
+            try {
+                current = lines.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for input");
+            }
+            position = 0;
+            if (current == END) {
+                ended = true;
+                return -1;
+            }
+        }
+        int count = Math.min(length, current.length() - position);
+        current.getChars(position, position + count, buffer, offset);
+        position += count;
+        return count;
+    }
+}
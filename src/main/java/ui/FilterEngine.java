@@ -0,0 +1,150 @@
+package ui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Runs filter requests in the background and publishes only the newest result.
+ * <p>
+ * Requests arriving within the debounce window are coalesced: each new request replaces the one still
+ * waiting, so typing a word runs one search instead of one per character. Requests are computed one at
+ * a time on a single background thread. A result is published only if no newer request has arrived in
+ * the meantime; stale requests that have not started yet are never computed. A running computation
+ * receives a check telling whether it has been superseded; it polls the check between chunks of work
+ * and stops by throwing {@link CancellationException}, so fast typing does not queue full scans.
+ * </p>
+ *
+ * @param <Q> request type, captured on the caller's thread
+ * @param <R> result type
+ */
+class FilterEngine<Q, R> {
+
+    private static final Logger logger = LoggerFactory.getLogger(FilterEngine.class);
+
+    /** Default debounce window, in milliseconds. */
+    static final long DEFAULT_DEBOUNCE_MS = 150;
+
+    private final BiFunction<? super Q, BooleanSupplier, ? extends R> compute;
+    private final Consumer<? super R> publish;
+    private final Executor publishExecutor;
+    private final long debounceMs;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final AtomicLong latest = new AtomicLong();
+    private volatile long published;
+    private ScheduledFuture<?> waiting;
+
+    /**
+     * Creates an engine.
+     *
+     * @param compute         computes a result from a request and a check that turns true once a newer
+     *                        request has arrived; runs on the background thread
+     * @param publish         receives the newest result
+     * @param publishExecutor runs {@code publish}, e.g. {@code Platform::runLater}
+     * @param debounceMs      how long a request waits for a newer one before it is computed
+     */
+    FilterEngine(BiFunction<? super Q, BooleanSupplier, ? extends R> compute, Consumer<? super R> publish,
+                 Executor publishExecutor, long debounceMs) {
+        this.compute = compute;
+        this.publish = publish;
+        this.publishExecutor = publishExecutor;
+        this.debounceMs = debounceMs;
+        this.executor = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "filter-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Submits a request after the debounce window, replacing any request that is still waiting.
+     *
+     * @param request the request
+     */
+    void submit(Q request) {
+        schedule(request, debounceMs);
+    }
+
+    /**
+     * Submits a request without waiting, e.g. after the data itself has changed.
+     *
+     * @param request the request
+     */
+    void submitNow(Q request) {
+        schedule(request, 0);
+    }
+
+    /**
+     * Tells whether a request has been submitted whose result has not been published yet.
+     *
+     * @return true while the newest request is waiting, running or being published; false once it
+     *         has been published or has failed
+     */
+    boolean hasPending() {
+        return published != latest.get();
+    }
+
+    /** Stops the background thread; pending requests are discarded. */
+    void shutdown() {
+        latest.incrementAndGet();
+        executor.shutdownNow();
+    }
+
+    private synchronized void schedule(Q request, long delayMs) {
+        long generation = latest.incrementAndGet();
+        if (waiting != null) {
+            waiting.cancel(false);
+        }
+        if (executor.isShutdown()) {
+            return;
+        }
+        waiting = executor.schedule(() -> run(generation, request), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(long generation, Q request) {
+        if (generation != latest.get()) {
+            return;
+        }
+        R result;
+        try {
+            result = compute.apply(request, () -> generation != latest.get());
+        } catch (CancellationException e) {
+            if (generation != latest.get()) {
+                logger.debug("Stopped superseded filter request");
+                return;
+            }
+            logger.error("Filter request was cancelled although it is the newest", e);
+            published = generation;
+            return;
+        } catch (RuntimeException e) {
+            logger.error("Filter request failed", e);
+            // Nothing will be published for this request; it no longer counts as pending
+            if (generation == latest.get()) {
+                published = generation;
+            }
+            return;
+        }
+        if (generation != latest.get()) {
+            logger.debug("Dropping stale filter result");
+            return;
+        }
+        publishExecutor.execute(() -> {
+            // A newer request may have arrived while the result was queued for publishing
+            if (generation == latest.get()) {
+                published = generation;
+                publish.accept(result);
+            }
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package ui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Subscriber that hands every item to a handler on the UI thread, one at a time.
+ * <p>
+ * The next item is requested only after the handler has run, so the publisher never gets ahead of
+ * the UI by more than its buffer and the UI thread's queue never holds more than one item of this
+ * subscriber.
+ * </p>
+ *
+ * @param <T> the item type
+ */
+class FxSubscriber<T> implements Flow.Subscriber<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxSubscriber.class);
+
+    private final Consumer<? super T> handler;
+    private final Executor uiExecutor;
+    private volatile Flow.Subscription subscription;
+
+    /**
+     * @param handler    receives the items on the UI thread
+     * @param uiExecutor runs tasks on the UI thread, e.g. {@code Platform::runLater}
+     */
+    FxSubscriber(Consumer<? super T> handler, Executor uiExecutor) {
+        this.handler = handler;
+        this.uiExecutor = uiExecutor;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(T item) {
+        uiExecutor.execute(() -> {
+            try {
+                handler.accept(item);
+            } catch (RuntimeException e) {
+                logger.error("Handling {} failed", item, e);
+            }
+            subscription.request(1);
+        });
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        logger.error("Subscription failed", error);
+    }
+
+    @Override
+    public void onComplete() {
+        logger.debug("Subscription completed");
+    }
+}
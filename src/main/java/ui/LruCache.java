@@ -0,0 +1,79 @@
+package ui;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small thread-safe cache that keeps at most a fixed number of entries and evicts the
+ * least recently used one when full.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+class LruCache<K, V> {
+
+    private final int maxEntries;
+    private final LinkedHashMap<K, V> entries;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxEntries maximum number of entries kept (at least 1)
+     */
+    LruCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one entry: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LruCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value and marks it as recently used.
+     *
+     * @param key the key
+     * @return the value, or null if it is not cached
+     */
+    synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Stores a value, evicting the least recently used entry if the cache is full.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param key the key
+     */
+    synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /** Removes every entry. */
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    /** @return the number of cached entries */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /** @return the maximum number of entries */
+    int getMaxEntries() {
+        return maxEntries;
+    }
+}
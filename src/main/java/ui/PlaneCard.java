@@ -0,0 +1,160 @@
+package ui;
+
+import airline.Plane;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import storage.ThumbnailStore;
+
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * A reusable card showing one plane: its picture, characteristics and edit/delete buttons.
+ * <p>
+ * The card's nodes are created once; {@link #setPlane(Plane)} only replaces their content, so the
+ * same card can be recycled for different planes while the list is scrolled.
+ * </p>
+ * <p>
+ * Pictures are loaded by a {@link ThumbnailLoader}; until a picture is ready the card shows a placeholder.
+ * </p>
+ */
+class PlaneCard extends VBox {
+
+    /** Width of a card, including padding. */
+    static final double CARD_WIDTH = 200;
+    /** Width the picture is scaled to. */
+    static final double IMAGE_WIDTH = ThumbnailStore.Size.CARD.getWidth();
+    private static final double PLACEHOLDER_HEIGHT = 120;
+
+    private final ThumbnailLoader thumbnails;
+    private final Label placeholder = new Label("Завантаження...");
+
+    private final ImageView imageView = new ImageView();
+    private final Label modelLabel = new Label();
+    private final Label typeLabel = new Label();
+    private final Label capacityLabel = new Label();
+    private final Label cargoLabel = new Label();
+    private final Label rangeLabel = new Label();
+    private final Label fuelLabel = new Label();
+    private final Label cruisingSpeedLabel = new Label();
+    private final Label maxSpeedLabel = new Label();
+    private final Label ceilingLabel = new Label();
+
+    private Plane plane;
+    private String imagePath;
+    private Future<?> pendingImage;
+
+    /**
+     * Creates an empty card.
+     *
+     * @param thumbnails  loads the pictures
+     * @param onEdit      called with the shown plane when "edit" is pressed
+     * @param onDelete    called with the shown plane when "delete" is pressed
+     * @param onOpenImage called with the shown plane when its picture is clicked
+     */
+    PlaneCard(ThumbnailLoader thumbnails, Consumer<Plane> onEdit, Consumer<Plane> onDelete,
+              Consumer<Plane> onOpenImage) {
+        super(5);
+        this.thumbnails = thumbnails;
+        setPadding(new Insets(10));
+        setPrefWidth(CARD_WIDTH);
+        setMinWidth(CARD_WIDTH);
+        setMaxWidth(CARD_WIDTH);
+        setStyle("-fx-border-color: gray; -fx-border-radius: 5; -fx-background-color: #f9f9f9;");
+
+        imageView.setFitWidth(IMAGE_WIDTH);
+        imageView.setPreserveRatio(true);
+        imageView.setOnMouseClicked(e -> {
+            if (plane != null) onOpenImage.accept(plane);
+        });
+        imageView.managedProperty().bind(imageView.visibleProperty());
+
+        placeholder.setPrefSize(IMAGE_WIDTH, PLACEHOLDER_HEIGHT);
+        placeholder.setAlignment(Pos.CENTER);
+        placeholder.setStyle("-fx-background-color: #e0e0e0; -fx-text-fill: #808080;");
+        placeholder.managedProperty().bind(placeholder.visibleProperty());
+        placeholder.setVisible(false);
+
+        Button editBtn = new Button("✏ Редагувати");
+        Button deleteBtn = new Button("🗑 Видалити");
+        editBtn.setOnAction(e -> {
+            if (plane != null) onEdit.accept(plane);
+        });
+        deleteBtn.setOnAction(e -> {
+            if (plane != null) onDelete.accept(plane);
+        });
+
+        getChildren().addAll(imageView, placeholder, modelLabel, typeLabel, capacityLabel, cargoLabel, rangeLabel,
+                fuelLabel, cruisingSpeedLabel, maxSpeedLabel, ceilingLabel, new HBox(5, editBtn, deleteBtn));
+    }
+
+    /**
+     * Shows the given plane on this card. Showing the instance that is already shown does nothing.
+     *
+     * @param plane the plane to show
+     */
+    void setPlane(Plane plane) {
+        if (plane == this.plane) {
+            return;
+        }
+        this.plane = plane;
+        modelLabel.setText(plane.getModel());
+        typeLabel.setText("Тип: " + plane.getType());
+        capacityLabel.setText("Пасажири: " + plane.getCapacity());
+        cargoLabel.setText("Вантаж: " + plane.getCargoCapacity() + " т");
+        rangeLabel.setText("Дальність: " + plane.getRange() + " км");
+        fuelLabel.setText("Пальне: " + plane.getFuelConsumption() + " л/год");
+        cruisingSpeedLabel.setText("Крейс. швидк.: " + plane.getCruisingSpeed() + " км/год");
+        maxSpeedLabel.setText("Макс. швидк.: " + plane.getMaxSpeed() + " км/год");
+        ceilingLabel.setText("Стеля: " + plane.getServiceCeiling() + " м");
+        showImage(plane.getImagePath());
+    }
+
+    /** @return the plane currently shown, or null for a fresh card */
+    Plane getPlane() {
+        return plane;
+    }
+
+    /**
+     * Shows the cached thumbnail at once if there is one, otherwise the placeholder, and asks the loader
+     * for the current thumbnail. A request for a plane this card no longer shows is cancelled or ignored.
+     */
+    private void showImage(String path) {
+        if (pendingImage != null) {
+            pendingImage.cancel(false);
+            pendingImage = null;
+        }
+        imagePath = path;
+        if (path == null || path.isBlank()) {
+            setImage(null);
+            return;
+        }
+
+        Image cached = thumbnails.cached(path, ThumbnailStore.Size.CARD);
+        if (cached != null) {
+            setImage(cached);
+        } else {
+            imageView.setImage(null);
+            imageView.setVisible(false);
+            placeholder.setVisible(true);
+        }
+        pendingImage = thumbnails.load(path, ThumbnailStore.Size.CARD, image -> {
+            if (path.equals(imagePath)) {
+                pendingImage = null;
+                setImage(image);
+            }
+        });
+    }
+
+    private void setImage(Image image) {
+        placeholder.setVisible(false);
+        imageView.setImage(image);
+        imageView.setVisible(image != null);
+    }
+}
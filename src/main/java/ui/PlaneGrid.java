@@ -0,0 +1,255 @@
+package ui;
+
+import airline.Plane;
+import airline.PlaneQuery;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A virtualized grid of {@link PlaneCard}s.
+ * <p>
+ * The grid is a {@link ListView} whose items are row numbers; the number of planes per row follows the
+ * width of the view. The list only creates cells for the rows that are visible and reuses them while
+ * scrolling, and every row cell keeps its cards and refills them with new planes. The number of nodes in
+ * the scene graph therefore depends on the window size, not on the size of the fleet.
+ * </p>
+ * <p>
+ * Single planes can be inserted, replaced or removed without replacing the whole list: the change is
+ * applied to the ordered plane list and only the visible rows are re-rendered. A card keeps showing the
+ * same plane instance without touching its nodes, so after a change or a new sort order only the cards
+ * whose plane actually changed are updated. The grid keeps a mapping from plane id to the card
+ * currently showing it, and one from plane id to the listed plane, which it finds again in the ordered
+ * list by binary search, so a change costs O(log n) lookups rather than a scan of the fleet.
+ * </p>
+ */
+class PlaneGrid extends ListView<Integer> {
+
+    private static final double GAP = 10;
+
+    private final ThumbnailLoader thumbnails;
+    private final Consumer<Plane> onEdit;
+    private final Consumer<Plane> onDelete;
+    private final Consumer<Plane> onOpenImage;
+
+    private final List<Plane> planes = new ArrayList<>();
+    private final Map<Integer, PlaneCard> cardsById = new HashMap<>();
+    private final Map<Integer, Plane> planesById = new HashMap<>();
+    private Comparator<Plane> order = Comparator.comparingInt(Plane::getId);
+    private int columns = 1;
+
+    /**
+     * Creates an empty grid.
+     *
+     * @param thumbnails  loads the card pictures
+     * @param onEdit      called with a plane when its "edit" button is pressed
+     * @param onDelete    called with a plane when its "delete" button is pressed
+     * @param onOpenImage called with a plane when its picture is clicked
+     */
+    PlaneGrid(ThumbnailLoader thumbnails, Consumer<Plane> onEdit, Consumer<Plane> onDelete,
+              Consumer<Plane> onOpenImage) {
+        this.thumbnails = thumbnails;
+        this.onEdit = onEdit;
+        this.onDelete = onDelete;
+        this.onOpenImage = onOpenImage;
+
+        setCellFactory(list -> new RowCell());
+        setFocusTraversable(false);
+        setPadding(new Insets(5));
+        setStyle("-fx-background-color: transparent;");
+
+        widthProperty().addListener((obs, oldWidth, newWidth) -> {
+            int fitting = columnsFor(newWidth.doubleValue());
+            if (fitting != columns) {
+                columns = fitting;
+                updateRowCount();
+                refresh();
+            }
+        });
+    }
+
+    /**
+     * Replaces the planes shown by the grid, e.g. after the filter or the sort order changed.
+     * Cards that keep showing the same plane are left untouched.
+     *
+     * @param planes the planes, in display order
+     * @param query  the query that produced them; its order is used for later insertions
+     */
+    void setPlanes(List<Plane> planes, PlaneQuery query) {
+        this.planes.clear();
+        this.planes.addAll(planes);
+        planesById.clear();
+        for (Plane plane : planes) {
+            planesById.put(plane.getId(), plane);
+        }
+        Comparator<Plane> queryOrder = query.comparator();
+        order = queryOrder != null ? queryOrder : Comparator.comparingInt(Plane::getId);
+        updateRowCount();
+        refresh();
+    }
+
+    /**
+     * Inserts a plane at its position in the current order.
+     *
+     * @param plane the new plane
+     */
+    void insertPlane(Plane plane) {
+        int index = Collections.binarySearch(planes, plane, order);
+        planes.add(index < 0 ? -index - 1 : index, plane);
+        planesById.put(plane.getId(), plane);
+        updateRowCount();
+        refresh();
+    }
+
+    /**
+     * Replaces the plane with the same id, moving it if its position in the order changed.
+     *
+     * @param plane the changed plane
+     * @return the replaced plane, or null if the grid does not show a plane with that id
+     */
+    Plane replacePlane(Plane plane) {
+        int index = indexOf(plane.getId());
+        if (index < 0) {
+            return null;
+        }
+        Plane previous = planes.remove(index);
+        int position = Collections.binarySearch(planes, plane, order);
+        position = position < 0 ? -position - 1 : position;
+        planes.add(position, plane);
+        planesById.put(plane.getId(), plane);
+        if (position == index) {
+            // Same place: only the card showing the plane changes
+            PlaneCard card = cardsById.get(plane.getId());
+            if (card != null) {
+                card.setPlane(plane);
+            }
+        } else {
+            refresh();
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the plane with the given id.
+     *
+     * @param id the plane id
+     * @return the removed plane, or null if the grid does not show it
+     */
+    Plane removePlane(int id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return null;
+        }
+        Plane removed = planes.remove(index);
+        planesById.remove(id);
+        updateRowCount();
+        refresh();
+        return removed;
+    }
+
+    /** @return the planes shown by the grid, in display order */
+    List<Plane> getPlanes() {
+        return Collections.unmodifiableList(planes);
+    }
+
+    /**
+     * Finds the position of a listed plane. The order always ends with the id, so the listed instance
+     * is the only one comparing equal to itself.
+     */
+    private int indexOf(int id) {
+        Plane listed = planesById.get(id);
+        if (listed == null) {
+            return -1;
+        }
+        int index = Collections.binarySearch(planes, listed, order);
+        return index >= 0 && planes.get(index) == listed ? index : -1;
+    }
+
+    /**
+     * Adds or removes row numbers at the end so that the item count matches the planes.
+     */
+    private void updateRowCount() {
+        int rows = (planes.size() + columns - 1) / columns;
+        ObservableList<Integer> items = getItems();
+        if (items.size() > rows) {
+            items.remove(rows, items.size());
+        } else if (items.size() < rows) {
+            List<Integer> added = new ArrayList<>(rows - items.size());
+            for (int row = items.size(); row < rows; row++) {
+                added.add(row);
+            }
+            items.addAll(added);
+        }
+    }
+
+    private static int columnsFor(double width) {
+        // Leave room for the padding and the vertical scroll bar
+        double usable = width - 40;
+        return Math.max(1, (int) ((usable + GAP) / (PlaneCard.CARD_WIDTH + GAP)));
+    }
+
+    /**
+     * A row of cards. The cards are created the first time they are needed and reused afterwards.
+     */
+    private class RowCell extends ListCell<Integer> {
+        private final HBox row = new HBox(GAP);
+        private final List<PlaneCard> cards = new ArrayList<>();
+
+        RowCell() {
+            setStyle("-fx-background-color: transparent; -fx-padding: 0 0 10 0;");
+        }
+
+        @Override
+        protected void updateItem(Integer item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(null);
+            int from = empty || item == null ? planes.size() : item * columns;
+            int count = Math.max(0, Math.min(columns, planes.size() - from));
+            if (count == 0) {
+                unbind(0);
+                setGraphic(null);
+                return;
+            }
+            while (cards.size() < count) {
+                cards.add(new PlaneCard(thumbnails, onEdit, onDelete, onOpenImage));
+            }
+            for (int i = 0; i < count; i++) {
+                bind(cards.get(i), planes.get(from + i));
+            }
+            unbind(count);
+            if (row.getChildren().size() != count) {
+                row.getChildren().setAll(cards.subList(0, count));
+            }
+            setGraphic(row);
+        }
+
+        private void bind(PlaneCard card, Plane plane) {
+            Plane previous = card.getPlane();
+            if (previous != null && cardsById.get(previous.getId()) == card) {
+                cardsById.remove(previous.getId());
+            }
+            card.setPlane(plane);
+            cardsById.put(plane.getId(), card);
+        }
+
+        /** Forgets the mapping of the cards from the given position on, which are no longer shown. */
+        private void unbind(int from) {
+            for (int i = from; i < cards.size(); i++) {
+                Plane shown = cards.get(i).getPlane();
+                if (shown != null && cardsById.get(shown.getId()) == cards.get(i)) {
+                    cardsById.remove(shown.getId());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package ui;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import storage.ThumbnailStore;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Loads plane pictures as thumbnails on background threads.
+ * <p>
+ * Pictures are read from the pre-scaled files of a {@link ThumbnailStore}, which creates them on first
+ * use; if the store cannot provide one the source image is decoded at the requested width instead, so a
+ * large photo never exists in memory at full resolution. Decoded thumbnails are kept in a bounded LRU
+ * cache keyed by file path, file modification time and size; replacing a file on disk therefore
+ * produces a new thumbnail.
+ * Callbacks run on the JavaFX application thread.
+ * </p>
+ */
+class ThumbnailLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailLoader.class);
+
+    /** Default number of thumbnails kept in memory. */
+    static final int DEFAULT_CACHE_SIZE = 256;
+
+    private static final int LOADER_THREADS = 2;
+
+    private record Key(String path, long modified, ThumbnailStore.Size size) {
+    }
+
+    private final ThumbnailStore store;
+    private final LruCache<Key, Image> cache;
+    // Newest key seen per path, so that a recycled card can show a cached thumbnail without touching the disk
+    private final Map<String, Key> latestKeys = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    /**
+     * Creates a loader with the default cache size.
+     *
+     * @param store provides the pre-scaled image files
+     */
+    ThumbnailLoader(ThumbnailStore store) {
+        this(store, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a loader.
+     *
+     * @param store     provides the pre-scaled image files
+     * @param cacheSize maximum number of thumbnails kept in memory
+     */
+    ThumbnailLoader(ThumbnailStore store, int cacheSize) {
+        this.store = store;
+        this.cache = new LruCache<>(cacheSize);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(LOADER_THREADS, task -> {
+            Thread thread = new Thread(task, "thumbnail-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the most recently loaded thumbnail for a path without checking the file.
+     *
+     * @param path image file path
+     * @param size thumbnail size
+     * @return the cached thumbnail, or null if none has been loaded yet
+     */
+    Image cached(String path, ThumbnailStore.Size size) {
+        Key key = latestKeys.get(path + '#' + size);
+        return key != null ? cache.get(key) : null;
+    }
+
+    /**
+     * Loads a thumbnail in the background. If the file is unchanged since the last load the cached
+     * thumbnail is returned without decoding it again.
+     *
+     * @param path     image file path
+     * @param size     thumbnail size; the height follows the aspect ratio
+     * @param onLoaded receives the thumbnail, or null if the file is missing or unreadable, on the FX thread
+     * @return a handle that can be used to cancel the request
+     */
+    Future<?> load(String path, ThumbnailStore.Size size, Consumer<Image> onLoaded) {
+        return executor.submit(() -> {
+            Image image = loadNow(path, size);
+            if (!Thread.currentThread().isInterrupted()) {
+                Platform.runLater(() -> onLoaded.accept(image));
+            }
+        });
+    }
+
+    /**
+     * Generates the missing card and preview files for the given images in the background.
+     * The paths are also collected on the loader thread, so the caller does not wait for them.
+     *
+     * @param paths supplies the image file paths
+     */
+    void precompute(Supplier<? extends Collection<String>> paths) {
+        executor.submit(() -> {
+            List<Path> sources = paths.get().stream().map(Path::of).toList();
+            store.precompute(sources, ThumbnailStore.Size.values());
+        });
+    }
+
+    /** Stops the loader threads and saves the store's index. Pending requests are discarded. */
+    void shutdown() {
+        executor.shutdownNow();
+        store.close();
+        cache.clear();
+        latestKeys.clear();
+    }
+
+    private Image loadNow(String path, ThumbnailStore.Size size) {
+        File file = new File(path);
+        long modified = file.lastModified();
+        if (modified == 0L) {
+            logger.warn("Image not found: {}", path);
+            return null;
+        }
+        Key key = new Key(path, modified, size);
+        Image image = cache.get(key);
+        if (image == null) {
+            // Prefer the small pre-scaled file; decode the source at the requested size if there is none
+            File source = store.thumbnail(file.toPath(), size).map(Path::toFile).orElse(file);
+            image = new Image(source.toURI().toString(), size.getWidth(), 0, true, true, false);
+            if (image.isError()) {
+                logger.warn("Failed to load image {}", path, image.getException());
+                return null;
+            }
+            cache.put(key, image);
+            logger.debug("Loaded {} thumbnail for {}", size, path);
+        }
+        Key previous = latestKeys.put(path + '#' + size, key);
+        if (previous != null && !previous.equals(key)) {
+            cache.remove(previous);
+        }
+        return image;
+    }
+}
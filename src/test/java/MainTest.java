@@ -1,5 +1,9 @@
+import airline.util.ExecutionMode;
+import db.StorageProfile;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 /**
  * Unit test for the {@link Main} class.
  * Ensures that the application's main entry point launches without throwing exceptions.
@@ -16,4 +20,39 @@ class MainTest {
         // No assertions needed; test will fail if any exception is thrown.
         Main.main(new String[]{});
     }
+
+    /**
+     * Tests that the virtual-thread flag is recognised anywhere, in any case, and removed from the arguments.
+     */
+    @Test
+    void testVirtualThreadsFlag() {
+        try {
+            assertArrayEquals(new String[]{"cli"}, Main.applyExecutionMode(new String[]{"cli"}));
+            assertEquals(ExecutionMode.PLATFORM, ExecutionMode.current());
+
+            assertArrayEquals(new String[]{"cli", "x"},
+                    Main.applyExecutionMode(new String[]{"cli", "--Virtual-Threads", "x"}));
+            assertEquals(ExecutionMode.VIRTUAL, ExecutionMode.current());
+        } finally {
+            ExecutionMode.set(ExecutionMode.PLATFORM);
+        }
+    }
+
+    /**
+     * Tests that the storage flag sets the profile property, and that an unknown profile is ignored.
+     */
+    @Test
+    void testStorageFlag() {
+        try {
+            assertArrayEquals(new String[]{"cli"},
+                    Main.applyStorageProfile(new String[]{"--storage=nonsense", "cli"}));
+            assertSame(StorageProfile.THROUGHPUT, StorageProfile.configured());
+
+            assertArrayEquals(new String[]{"cli"},
+                    Main.applyStorageProfile(new String[]{"cli", "--Storage=Durability"}));
+            assertSame(StorageProfile.DURABILITY, StorageProfile.configured());
+        } finally {
+            System.clearProperty(StorageProfile.PROPERTY);
+        }
+    }
 }
@@ -1,13 +1,24 @@
 package airline;
 
+import airline.util.PlaneFactory;
 import db.DatabaseManager;
+import db.TypeSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -54,6 +65,92 @@ class AirlineTest {
         assertTrue(planes.contains(plane2));
     }
 
+    /**
+     * Tests that the fleet is loaded from the database only once.
+     */
+    @Test
+    void testPlanesAreCached() {
+        when(dbManager.getAllPlanes()).thenReturn(Arrays.asList(plane1, plane2));
+        airline.getPlanes();
+        airline.findPlaneByModel("ModelB");
+        airline.getTotalCapacity();
+        verify(dbManager, times(1)).getAllPlanes();
+
+        airline.invalidateCache();
+        airline.getPlanes();
+        verify(dbManager, times(2)).getAllPlanes();
+    }
+
+    /**
+     * Tests that successful mutations are applied to the cached fleet.
+     */
+    @Test
+    void testMutationsUpdateCache() {
+        when(dbManager.getAllPlanes()).thenReturn(Arrays.asList(plane1));
+        when(dbManager.addPlane(plane2)).thenReturn(true);
+        when(dbManager.deletePlane(1)).thenReturn(true);
+        airline.getPlanes();
+
+        assertTrue(airline.addPlane(plane2));
+        assertEquals(List.of(plane1, plane2), airline.getPlanes());
+
+        Plane edited = new Plane("ModelB2", 160, 20.0, 2500, 4.0, 750, 850, 13000) {};
+        edited.setId(2);
+        when(dbManager.updatePlane(edited)).thenReturn(true);
+        assertTrue(airline.updatePlane(edited));
+        assertSame(edited, airline.findPlaneByModel("modelb2"));
+
+        assertTrue(airline.removePlane(1));
+        assertEquals(List.of(edited), airline.getPlanes());
+        verify(dbManager, times(1)).getAllPlanes();
+    }
+
+    /**
+     * Tests that batch operations update the cache, or drop it on partial failure.
+     */
+    @Test
+    void testBatchOperations() {
+        when(dbManager.getAllPlanes()).thenReturn(List.of());
+        when(dbManager.addPlanes(List.of(plane1, plane2))).thenReturn(List.of(1, 2));
+        airline.getPlanes();
+
+        assertEquals(List.of(1, 2), airline.addPlanes(List.of(plane1, plane2)));
+        assertEquals(List.of(plane1, plane2), airline.getPlanes());
+
+        when(dbManager.updatePlanes(List.of(plane1, plane2))).thenReturn(List.of(1));
+        airline.updatePlanes(List.of(plane1, plane2));
+        airline.getPlanes();
+        verify(dbManager, times(2)).getAllPlanes();
+    }
+
+    /**
+     * Tests that a failed write drops the cache so it is reloaded from the database.
+     */
+    @Test
+    void testFailedWriteInvalidatesCache() {
+        when(dbManager.getAllPlanes()).thenReturn(Arrays.asList(plane1));
+        airline.getPlanes();
+        when(dbManager.updatePlane(plane1)).thenReturn(false);
+        assertFalse(airline.updatePlane(plane1));
+        airline.getPlanes();
+        verify(dbManager, times(2)).getAllPlanes();
+    }
+
+    /**
+     * Tests that a write the database rejects for a plane the cache does not hold keeps the cache.
+     */
+    @Test
+    void testFailedWriteOfUnknownPlaneKeepsCache() {
+        when(dbManager.getAllPlanes()).thenReturn(Arrays.asList(plane1));
+        FleetSnapshot before = airline.getSnapshot();
+        when(dbManager.updatePlane(plane2)).thenReturn(false);
+        when(dbManager.addPlane(plane2)).thenReturn(false);
+        assertFalse(airline.updatePlane(plane2));
+        assertFalse(airline.addPlane(plane2));
+        assertSame(before, airline.getSnapshot());
+        verify(dbManager, times(1)).getAllPlanes();
+    }
+
     /**
      * Tests addPlane method.
      */
@@ -106,9 +203,12 @@ class AirlineTest {
     @Test
     void testGetTotalCapacity() {
         when(dbManager.getAllPlanes()).thenReturn(Arrays.asList(plane1, plane2));
+        airline.getPlanes();
         assertEquals(250, airline.getTotalCapacity());
 
         when(dbManager.getAllPlanes()).thenReturn(Collections.emptyList());
+        airline.invalidateCache();
+        airline.getPlanes();
         assertEquals(0, airline.getTotalCapacity());
     }
 
@@ -118,12 +218,278 @@ class AirlineTest {
     @Test
     void testGetTotalCargoCapacity() {
         when(dbManager.getAllPlanes()).thenReturn(Arrays.asList(plane1, plane2));
+        airline.getPlanes();
         assertEquals(30.0, airline.getTotalCargoCapacity(), 0.0001);
 
         when(dbManager.getAllPlanes()).thenReturn(Collections.emptyList());
+        airline.invalidateCache();
+        airline.getPlanes();
         assertEquals(0.0, airline.getTotalCargoCapacity(), 0.0001);
     }
 
+    /**
+     * Tests that the totals of an uncached fleet are read from the database summary without loading it.
+     */
+    @Test
+    void testUncachedTotalsUseTypeSummaries() {
+        when(dbManager.getTypeSummaries()).thenReturn(List.of(new TypeSummary("Cargo", 1, 0, 20.0),
+                new TypeSummary("Passenger", 1, 250, 10.0)));
+        assertEquals(250, airline.getTotalCapacity());
+        assertEquals(30.0, airline.getTotalCargoCapacity(), 0.0001);
+        verify(dbManager, never()).getAllPlanes();
+    }
+
+    /**
+     * Tests that the per-type aggregates are updated by add, update and remove.
+     */
+    @Test
+    void testStatisticsFollowMutations() {
+        when(dbManager.getAllPlanes()).thenReturn(Arrays.asList(plane1, plane2));
+        when(dbManager.updatePlane(any())).thenReturn(true);
+        when(dbManager.deletePlane(2)).thenReturn(true);
+        Plane plane3 = new Plane("ModelC", 50, 5.0, 1500, 2.5, 600, 700, 9000) {};
+        plane3.setType("Passenger");
+        when(dbManager.addPlane(plane3)).thenReturn(true);
+
+        assertEquals(new FleetStatistics.AttributeStats(2, 250, 100, 150),
+                airline.getStatistics(PlaneAttribute.CAPACITY));
+
+        airline.addPlane(plane3);
+        assertEquals(300, airline.getTotalCapacity());
+        assertEquals(new FleetStatistics.AttributeStats(2, 150, 50, 100),
+                airline.getStatistics(PlaneAttribute.CAPACITY, List.of("passenger")));
+
+        Plane edited = PlaneFactory.copyOf(plane1);
+        edited.setCapacity(120);
+        airline.updatePlane(edited);
+        assertEquals(320, airline.getTotalCapacity());
+        assertEquals(120, airline.getStatisticsByType(PlaneAttribute.CAPACITY).get("Passenger").max());
+
+        airline.removePlane(2);
+        assertEquals(15.0, airline.getTotalCargoCapacity(), 0.0001);
+        assertFalse(airline.getStatisticsByType(PlaneAttribute.CAPACITY).containsKey("Cargo"));
+        verify(dbManager, times(1)).getAllPlanes();
+    }
+
+    /**
+     * Tests that every change publishes a new snapshot with a higher version and that published
+     * snapshots never change.
+     */
+    @Test
+    void testSnapshotVersions() {
+        when(dbManager.getAllPlanes()).thenReturn(Arrays.asList(plane1));
+        when(dbManager.addPlane(plane2)).thenReturn(true);
+        when(dbManager.deletePlane(1)).thenReturn(true);
+
+        FleetSnapshot first = airline.getSnapshot();
+        assertEquals(first.getVersion(), airline.getVersion());
+        assertSame(first, airline.getSnapshot());
+
+        airline.addPlane(plane2);
+        FleetSnapshot second = airline.getSnapshot();
+        assertTrue(second.getVersion() > first.getVersion());
+        assertEquals(List.of(plane1), first.getPlanes());
+        assertEquals(100, first.getStatistics().get(PlaneAttribute.CAPACITY).sum());
+        assertEquals(List.of(plane1, plane2), second.getPlanes());
+        assertSame(plane2, second.findById(2));
+        assertNull(first.findById(2));
+
+        airline.removePlane(1);
+        assertTrue(airline.getVersion() > second.getVersion());
+        assertEquals(List.of(plane1, plane2), second.getPlanes());
+
+        // A failed write leaves the version alone and reloads on the next read
+        long version = airline.getVersion();
+        assertFalse(airline.updatePlane(plane1));
+        assertEquals(version, airline.getVersion());
+    }
+
+    /**
+     * Tests concurrent writers and readers on one airline: readers never see a half-applied write,
+     * versions never go backwards, and no write is lost.
+     */
+    @Test
+    void testConcurrentReadersAndWriters() throws Exception {
+        try (DatabaseManager database = new DatabaseManager("jdbc:sqlite::memory:")) {
+            Airline shared = new Airline(database);
+            shared.getPlanes();
+            int writers = 4;
+            int planesPerWriter = 25;
+            AtomicBoolean writing = new AtomicBoolean(true);
+            List<Throwable> failures = new CopyOnWriteArrayList<>();
+
+            Thread reader = new Thread(() -> {
+                long lastVersion = -1;
+                while (writing.get()) {
+                    FleetSnapshot snapshot = shared.getSnapshot();
+                    if (snapshot.getVersion() < lastVersion
+                            || snapshot.getStatistics().getCount() != snapshot.size()
+                            || snapshot.getColumns().size() != snapshot.size()) {
+                        failures.add(new AssertionError("Inconsistent snapshot " + snapshot.getVersion()));
+                    }
+                    lastVersion = snapshot.getVersion();
+                }
+            });
+            reader.start();
+
+            List<Thread> threads = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < planesPerWriter; i++) {
+                        Plane plane = new PassengerPlane("W" + writer + "-" + i, 100, 10, 2000, 3.5, 700, 900, 12000);
+                        if (!shared.addPlane(plane)) {
+                            failures.add(new AssertionError("Add failed: " + plane.getModel()));
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            writing.set(false);
+            reader.join();
+
+            assertEquals(List.of(), failures);
+            assertEquals(writers * planesPerWriter, shared.getPlanes().size());
+            assertEquals(writers * planesPerWriter * 100, shared.getTotalCapacity());
+            shared.invalidateCache();
+            assertEquals(writers * planesPerWriter, shared.getPlanes().size());
+        }
+    }
+
+    /**
+     * Tests that the model and ID indexes follow renames and removals.
+     */
+    @Test
+    void testIndexesFollowMutations() {
+        when(dbManager.getAllPlanes()).thenReturn(Arrays.asList(plane1, plane2));
+        when(dbManager.updatePlane(any())).thenReturn(true);
+        when(dbManager.deletePlane(2)).thenReturn(true);
+        assertSame(plane2, airline.findPlaneById(2));
+
+        Plane renamed = PlaneFactory.copyOf(plane1);
+        renamed.setModel("Renamed");
+        airline.updatePlane(renamed);
+        assertNull(airline.findPlaneByModel("ModelA"));
+        assertSame(renamed, airline.findPlaneByModel("RENAMED"));
+
+        airline.removePlane(2);
+        assertNull(airline.findPlaneById(2));
+        assertNull(airline.getPlaneIdByModel("ModelB"));
+    }
+
+    /**
+     * Tests range search over the cached fleet combined with model and type criteria.
+     */
+    @Test
+    void testSearch() {
+        when(dbManager.getAllPlanes()).thenReturn(Arrays.asList(plane1, plane2));
+        airline.getPlanes();
+
+        assertEquals(List.of(plane1, plane2), airline.search(new PlaneQuery()));
+        assertEquals(List.of(plane1),
+                airline.search(new PlaneQuery().between(PlaneAttribute.FUEL_CONSUMPTION, 3.0, 3.9)));
+        assertEquals(List.of(plane2),
+                airline.search(new PlaneQuery().min(PlaneAttribute.RANGE, 2100).max(PlaneAttribute.CAPACITY, 200)));
+        assertEquals(List.of(plane2),
+                airline.search(new PlaneQuery().types(List.of("cargo"))));
+        assertEquals(List.of(plane1),
+                airline.search(new PlaneQuery().modelContains("dela").max(PlaneAttribute.SERVICE_CEILING, 20000)));
+        assertTrue(airline.search(new PlaneQuery().between(PlaneAttribute.CAPACITY, 200, 100)).isEmpty());
+    }
+
+    /**
+     * Tests that searches answered from the sorted indexes return what a full scan returns, and that
+     * older snapshots keep their own results after the fleet changes.
+     */
+    @Test
+    void testIndexedSearchMatchesScan() {
+        Random random = new Random(7);
+        List<Plane> fleet = new ArrayList<>();
+        for (int id = 1; id <= 400; id++) {
+            Plane plane = PlaneFactory.createPlane(id % 3 == 0 ? "cargo" : "passenger", "M" + random.nextInt(50),
+                    random.nextInt(300), random.nextInt(100), random.nextInt(10000), random.nextDouble() * 10,
+                    500 + random.nextInt(400), 800 + random.nextInt(400), random.nextInt(15000));
+            plane.setId(id);
+            fleet.add(plane);
+        }
+        when(dbManager.getAllPlanes()).thenReturn(fleet);
+        when(dbManager.deletePlane(anyInt())).thenReturn(true);
+        FleetSnapshot before = airline.getSnapshot();
+        for (int id = 1; id <= 400; id += 5) {
+            airline.removePlane(id);
+        }
+        FleetSnapshot after = airline.getSnapshot();
+
+        for (int i = 0; i < 50; i++) {
+            int low = random.nextInt(10000);
+            PlaneQuery query = new PlaneQuery()
+                    .between(PlaneAttribute.RANGE, low, low + random.nextInt(1500))
+                    .min(PlaneAttribute.CAPACITY, random.nextInt(100));
+            if (i % 2 == 0) {
+                query.orderBy(PlaneAttribute.MAX_SPEED, false).limit(5);
+            }
+            for (FleetSnapshot snapshot : List.of(before, after)) {
+                assertEquals(snapshot.getColumns().search(query), snapshot.search(query));
+            }
+        }
+        assertEquals(400, before.size());
+        assertEquals(320, after.size());
+        assertEquals(before.getPlanes().subList(0, 10), before.search(new PlaneQuery().limit(10)));
+        assertEquals(after.getColumns().search(new PlaneQuery().offset(300)), after.search(new PlaneQuery().offset(300)));
+    }
+
+    /**
+     * Tests ordering and paging of in-memory search results.
+     */
+    @Test
+    void testSearchOrderAndPage() {
+        when(dbManager.getAllPlanes()).thenReturn(Arrays.asList(plane1, plane2));
+        airline.getPlanes();
+
+        assertEquals(List.of(plane2, plane1),
+                airline.search(new PlaneQuery().orderBy(PlaneAttribute.RANGE, false)));
+        assertEquals(List.of(plane2),
+                airline.search(new PlaneQuery().orderByModel(true).offset(1).limit(5)));
+        assertEquals(List.of(plane1),
+                airline.search(new PlaneQuery().limit(1)));
+    }
+
+    /**
+     * Tests that searches go to the database while the fleet is not cached.
+     */
+    @Test
+    void testSearchWithoutCacheUsesDatabase() {
+        PlaneQuery query = new PlaneQuery().min(PlaneAttribute.RANGE, 2100);
+        when(dbManager.findPlanes(query)).thenReturn(List.of(plane2));
+        assertEquals(List.of(plane2), airline.search(query));
+        verify(dbManager, never()).getAllPlanes();
+    }
+
+    /**
+     * Tests that searches see a saved edit, and that cached planes cannot be edited in place.
+     */
+    @Test
+    void testSearchAfterEdit() {
+        when(dbManager.getAllPlanes()).thenReturn(Arrays.asList(plane1, plane2));
+        when(dbManager.updatePlane(any())).thenReturn(true);
+        airline.getPlanes();
+        PlaneQuery cheap = new PlaneQuery().max(PlaneAttribute.FUEL_CONSUMPTION, 3.6);
+        assertEquals(List.of(plane1), airline.search(cheap));
+        assertThrows(IllegalStateException.class, () -> plane1.setFuelConsumption(5.0));
+
+        Plane edited = PlaneFactory.copyOf(plane1);
+        edited.setFuelConsumption(5.0);
+        airline.updatePlane(edited);
+        assertTrue(airline.search(cheap).isEmpty());
+        assertEquals(List.of(edited),
+                airline.search(new PlaneQuery().min(PlaneAttribute.FUEL_CONSUMPTION, 4.5)));
+        assertEquals(3.5, plane1.getFuelConsumption(), 0.0001);
+    }
+
     /**
      * Tests getPlaneIdByModel method.
      */
@@ -136,4 +502,133 @@ class AirlineTest {
         Integer notFound = airline.getPlaneIdByModel("Unknown");
         assertNull(notFound);
     }
+
+    /**
+     * Subscriber that records events and requests them only when told to.
+     */
+    private static final class RecordingSubscriber implements Flow.Subscriber<PlaneChange> {
+        final BlockingQueue<PlaneChange> received = new LinkedBlockingQueue<>();
+        final CountDownLatch subscribed = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscribed.countDown();
+        }
+
+        @Override
+        public void onNext(PlaneChange item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        void request(long n) throws InterruptedException {
+            assertTrue(subscribed.await(5, TimeUnit.SECONDS), "subscription expected");
+            subscription.request(n);
+        }
+
+        PlaneChange next() throws InterruptedException {
+            PlaneChange change = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(change, "event expected");
+            return change;
+        }
+    }
+
+    /**
+     * Tests the change stream: event types, before and after images, sequence numbers, versions,
+     * batch writes and completion.
+     */
+    @Test
+    void testChangeStream() throws Exception {
+        try (DatabaseManager database = new DatabaseManager("jdbc:sqlite::memory:")) {
+            Airline shared = new Airline(database);
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+            shared.changes().subscribe(subscriber);
+            subscriber.request(Long.MAX_VALUE);
+
+            Plane jet = new PassengerPlane("Jet", 100, 10, 2000, 3.5, 700, 900, 12000);
+            assertTrue(shared.addPlane(jet));
+            Plane edited = PlaneFactory.copyOf(jet);
+            edited.setCapacity(180);
+            assertTrue(shared.updatePlane(edited));
+            assertTrue(shared.removePlane(jet.getId()));
+            Plane first = new CargoPlane("Hauler 1", 50, 4000, 5.0, 600, 750, 9000);
+            Plane second = new CargoPlane("Hauler 2", 60, 4000, 5.0, 600, 750, 9000);
+            assertEquals(2, shared.addPlanes(List.of(first, second)).size());
+
+            PlaneChange.PlaneAdded added = assertInstanceOf(PlaneChange.PlaneAdded.class, subscriber.next());
+            assertEquals(jet.getId(), added.planeId());
+            assertNull(added.before());
+            assertEquals(100, added.after().getCapacity());
+            assertTrue(added.after().isFrozen(), "events carry read-only planes");
+
+            PlaneChange.PlaneUpdated updated = assertInstanceOf(PlaneChange.PlaneUpdated.class, subscriber.next());
+            assertEquals(100, updated.before().getCapacity());
+            assertEquals(180, updated.after().getCapacity());
+            assertThrows(IllegalStateException.class, () -> updated.after().setCapacity(1));
+
+            PlaneChange.PlaneRemoved removed = assertInstanceOf(PlaneChange.PlaneRemoved.class, subscriber.next());
+            assertEquals(180, removed.before().getCapacity());
+            assertNull(removed.after());
+
+            PlaneChange batchFirst = subscriber.next();
+            PlaneChange batchSecond = subscriber.next();
+            assertEquals("Hauler 1", batchFirst.after().getModel());
+            assertEquals("Hauler 2", batchSecond.after().getModel());
+
+            List<PlaneChange> all = List.of(added, updated, removed, batchFirst, batchSecond);
+            for (int i = 0; i < all.size(); i++) {
+                assertEquals(i + 1, all.get(i).sequence());
+            }
+            assertTrue(added.version() < updated.version() && updated.version() < removed.version());
+            assertEquals(batchFirst.version(), batchSecond.version(), "one batch, one version");
+            assertEquals(shared.getVersion(), batchSecond.version());
+
+            shared.close();
+            assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+            assertTrue(shared.addPlane(new CargoPlane("After close", 50, 4000, 5.0, 600, 750, 9000)));
+        }
+    }
+
+    /**
+     * Tests that a subscriber receives only what it requested, that further events wait in its
+     * buffer, and that the fleet is loaded for before images when a subscriber appears.
+     */
+    @Test
+    void testChangeStreamBackpressure() throws Exception {
+        when(dbManager.getAllPlanes()).thenReturn(new ArrayList<>(List.of(plane1)));
+        when(dbManager.updatePlane(any())).thenReturn(true);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        airline.changes().subscribe(subscriber);
+
+        for (int capacity = 1; capacity <= 3; capacity++) {
+            Plane edited = new PassengerPlane("ModelA", capacity, 10, 2000, 3.5, 700, 800, 12000);
+            edited.setId(1);
+            assertTrue(airline.updatePlane(edited));
+        }
+        verify(dbManager).getAllPlanes();
+        Thread.sleep(100);
+        assertTrue(subscriber.received.isEmpty(), "nothing requested yet");
+
+        subscriber.request(2);
+        PlaneChange.PlaneUpdated firstEvent = assertInstanceOf(PlaneChange.PlaneUpdated.class, subscriber.next());
+        assertEquals(100, firstEvent.before().getCapacity());
+        assertEquals(2, subscriber.next().after().getCapacity());
+        Thread.sleep(100);
+        assertTrue(subscriber.received.isEmpty(), "the third event waits for a request");
+
+        subscriber.request(1);
+        assertEquals(3, subscriber.next().after().getCapacity());
+        airline.close();
+    }
 }
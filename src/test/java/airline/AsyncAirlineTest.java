@@ -0,0 +1,120 @@
+package airline;
+
+import db.DatabaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link AsyncAirline} class.
+ * The database is mocked; blocking answers stand in for slow SQLite calls.
+ */
+class AsyncAirlineTest {
+
+    private DatabaseManager dbManager;
+    private Plane plane;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AsyncAirline async;
+
+    @BeforeEach
+    void setUp() {
+        dbManager = mock(DatabaseManager.class);
+        plane = new PassengerPlane("Jet", 100, 10, 2000, 3.5, 700, 900, 12000);
+        plane.setId(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (async != null) {
+            async.close();
+        }
+    }
+
+    /**
+     * Tests that reads, aggregates and writes complete with the airline's results.
+     */
+    @Test
+    void testOperationsComplete() throws Exception {
+        when(dbManager.getAllPlanes()).thenReturn(List.of(plane));
+        Plane added = new CargoPlane("Hauler", 80, 5000, 6.0, 650, 800, 11000);
+        when(dbManager.addPlane(added)).thenAnswer(invocation -> {
+            added.setId(2);
+            return true;
+        });
+        async = new AsyncAirline(new Airline(dbManager));
+
+        assertEquals(List.of(plane), async.getPlanes().get(5, TimeUnit.SECONDS));
+        assertTrue(async.addPlane(added).get(5, TimeUnit.SECONDS));
+        assertEquals(100, async.getTotalCapacity().get(5, TimeUnit.SECONDS));
+        assertEquals(90.0, async.getTotalCargoCapacity().get(5, TimeUnit.SECONDS), 1e-9);
+        assertEquals(List.of(added),
+                async.search(new PlaneQuery().types(List.of("cargo"))).get(5, TimeUnit.SECONDS));
+        assertEquals(2, async.getSnapshot().get(5, TimeUnit.SECONDS).size());
+    }
+
+    /**
+     * Tests that a slow operation times out and that the queue is bounded.
+     */
+    @Test
+    void testTimeoutAndRejection() {
+        when(dbManager.getAllPlanes()).thenAnswer(invocation -> {
+            release.await();
+            return List.of(plane);
+        });
+        async = new AsyncAirline(new Airline(dbManager), 1, 1, Duration.ofMillis(200));
+
+        CompletableFuture<List<Plane>> slow = async.getPlanes();
+        CompletableFuture<Integer> queued = async.getTotalCapacity();
+        CompletableFuture<Boolean> rejected = async.removePlane(1);
+
+        ExecutionException rejection = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(RejectedExecutionException.class, rejection.getCause());
+        ExecutionException timeout = assertThrows(ExecutionException.class, () -> slow.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, timeout.getCause());
+        assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that a cancelled operation that has not started yet is never run.
+     */
+    @Test
+    void testCancelledOperationDoesNotRun() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        when(dbManager.getAllPlanes()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return List.of(plane);
+        });
+        AtomicBoolean deleted = new AtomicBoolean();
+        when(dbManager.deletePlane(1)).thenAnswer(invocation -> {
+            deleted.set(true);
+            return true;
+        });
+        async = new AsyncAirline(new Airline(dbManager), 1, 10, Duration.ofSeconds(30));
+
+        CompletableFuture<List<Plane>> blocking = async.getPlanes();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> removal = async.removePlane(1);
+        assertTrue(removal.cancel(false));
+
+        release.countDown();
+        assertEquals(List.of(plane), blocking.get(5, TimeUnit.SECONDS));
+        async.close();
+        assertFalse(deleted.get());
+        verify(dbManager, never()).deletePlane(1);
+    }
+}
@@ -0,0 +1,169 @@
+package airline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link FleetColumns} class.
+ */
+class FleetColumnsTest {
+
+    /**
+     * Builds a fleet with repeated values, so that sorting has ties to break.
+     */
+    private static List<Plane> randomFleet(int size, long seed) {
+        Random random = new Random(seed);
+        List<Plane> planes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Plane plane = random.nextBoolean()
+                    ? new PassengerPlane("Jet " + random.nextInt(50), 50 + random.nextInt(10) * 20,
+                    random.nextInt(30), 1000 + random.nextInt(20) * 500, 2 + random.nextInt(8) * 0.5,
+                    600 + random.nextInt(5) * 50, 700 + random.nextInt(5) * 50, 9000 + random.nextInt(6) * 1000)
+                    : new CargoPlane("Hauler " + random.nextInt(50), 20 + random.nextInt(100),
+                    1000 + random.nextInt(20) * 500, 4 + random.nextInt(8) * 0.5,
+                    500 + random.nextInt(5) * 50, 600 + random.nextInt(5) * 50, 8000 + random.nextInt(6) * 1000);
+            plane.setId(i + 1);
+            planes.add(plane);
+        }
+        return planes;
+    }
+
+    /**
+     * Tests that the columnar kernels return the same result as checking every plane.
+     */
+    @Test
+    void testSearchMatchesPlaneByPlaneSelection() {
+        List<Plane> fleet = randomFleet(500, 42);
+        FleetColumns columns = FleetColumns.of(fleet);
+        List<PlaneQuery> queries = List.of(
+                new PlaneQuery(),
+                new PlaneQuery().between(PlaneAttribute.RANGE, 3000, 7000),
+                new PlaneQuery().min(PlaneAttribute.CAPACITY, 100).max(PlaneAttribute.FUEL_CONSUMPTION, 5.5),
+                new PlaneQuery().types(List.of("CARGO")).orderBy(PlaneAttribute.CARGO_CAPACITY, false),
+                new PlaneQuery().modelContains("jet 1").orderByModel(true).offset(3).limit(10),
+                new PlaneQuery().between(PlaneAttribute.SERVICE_CEILING, 10000, 12000)
+                        .orderBy(PlaneAttribute.SERVICE_CEILING, true),
+                new PlaneQuery().types(List.of("bomber")),
+                new PlaneQuery().between(PlaneAttribute.MAX_SPEED, 900, 700));
+        for (PlaneQuery query : queries) {
+            assertEquals(query.select(fleet), columns.search(query));
+        }
+    }
+
+    /**
+     * Tests aggregation over a selection.
+     */
+    @Test
+    void testAggregate() {
+        List<Plane> fleet = randomFleet(200, 7);
+        FleetColumns columns = FleetColumns.of(fleet);
+        PlaneQuery query = new PlaneQuery().types(List.of("passenger"));
+        int[] rows = new int[columns.size()];
+        int count = columns.filter(query, rows);
+
+        FleetStatistics expected = FleetStatistics.of(query.select(fleet));
+        for (PlaneAttribute attribute : PlaneAttribute.values()) {
+            FleetStatistics.AttributeStats actual = columns.aggregate(attribute, rows, count);
+            assertEquals(expected.get(attribute).count(), actual.count());
+            assertEquals(expected.get(attribute).sum(), actual.sum(), 1e-6);
+            assertEquals(expected.get(attribute).min(), actual.min());
+            assertEquals(expected.get(attribute).max(), actual.max());
+        }
+        assertEquals(FleetStatistics.AttributeStats.EMPTY, columns.aggregate(PlaneAttribute.RANGE, rows, 0));
+    }
+
+    /**
+     * Tests that the snapshot keeps the values it was built with and encodes the type dictionary.
+     */
+    @Test
+    void testSnapshotIsolationAndDictionary() {
+        Plane jet = new PassengerPlane("Jet", 100, 10, 2000, 3.5, 700, 900, 12000);
+        Plane hauler = new CargoPlane("Hauler", 80, 5000, 6.0, 650, 800, 11000);
+        FleetColumns columns = FleetColumns.of(List.of(jet, hauler));
+
+        jet.setRange(9000);
+        assertEquals(2000, columns.value(PlaneAttribute.RANGE, 0));
+        assertEquals(List.of("Passenger", "Cargo"), columns.getTypeDictionary());
+        assertEquals(1, columns.typeCode(1));
+        assertTrue(columns.search(new PlaneQuery().min(PlaneAttribute.RANGE, 6000)).isEmpty());
+    }
+
+    /**
+     * Tests that the vectorized and the scalar range kernels produce the same bitmap, including the
+     * partial last word and integer columns with fractional bounds.
+     */
+    @Test
+    void testRangeKernelsAgree() {
+        List<Plane> fleet = randomFleet(1000, 3);
+        FleetColumns columns = FleetColumns.of(fleet);
+        RangeFilterKernel vector = RangeFilterKernel.best();
+        assertNotEquals("scalar", vector.name(), "tests run with the Vector API module");
+        RangeFilterKernel scalar = new ScalarRangeFilterKernel();
+
+        List<PlaneQuery> queries = List.of(
+                new PlaneQuery().between(PlaneAttribute.RANGE, 2999.5, 7000.5),
+                new PlaneQuery().min(PlaneAttribute.CAPACITY, 100).max(PlaneAttribute.FUEL_CONSUMPTION, 5.5)
+                        .between(PlaneAttribute.MAX_SPEED, 750, 800),
+                new PlaneQuery().between(PlaneAttribute.SERVICE_CEILING, 10000.2, 10000.8),
+                new PlaneQuery().between(PlaneAttribute.CRUISING_SPEED, 900, 600));
+        for (PlaneQuery query : queries) {
+            long[] expected = columns.rangeBitmap(query, scalar);
+            assertArrayEquals(expected, columns.rangeBitmap(query, vector));
+
+            int[] rows = new int[columns.size()];
+            int count = columns.filter(query, rows);
+            assertEquals(query.select(fleet).size(), count);
+            assertEquals(0, expected[expected.length - 1] >>> (columns.size() % 64));
+        }
+    }
+
+    /**
+     * Tests the per-type bitmap index and its combination with the range bitmap.
+     */
+    @Test
+    void testTypeBitmap() {
+        Plane jet = new PassengerPlane("Jet", 100, 10, 2000, 3.5, 700, 900, 12000);
+        Plane hauler = new CargoPlane("Hauler", 80, 5000, 6.0, 650, 800, 11000);
+        Plane fighter = new Fighter("Viper", 1, 4000, 3.0, 900, 2100, 15000);
+        FleetColumns columns = FleetColumns.of(List.of(jet, hauler, fighter, jet));
+
+        assertArrayEquals(new long[]{0b1001}, columns.typeBitmap(List.of("PASSENGER")));
+        assertArrayEquals(new long[]{0b0110}, columns.typeBitmap(List.of("cargo", "Fighter", "Bomber")));
+        assertArrayEquals(new long[]{0}, columns.typeBitmap(List.of()));
+
+        PlaneQuery query = new PlaneQuery().types(List.of("cargo", "fighter")).min(PlaneAttribute.RANGE, 4500);
+        assertEquals(List.of(hauler), columns.search(query));
+
+        List<Plane> fleet = randomFleet(300, 11);
+        FleetColumns random = FleetColumns.of(fleet);
+        long[] passengers = random.typeBitmap(List.of("passenger"));
+        long[] cargo = random.typeBitmap(List.of("cargo"));
+        for (int word = 0; word < passengers.length; word++) {
+            assertEquals(0, passengers[word] & cargo[word]);
+        }
+        assertEquals(300, Arrays.stream(random.typeBitmap(List.of("passenger", "cargo"))).map(Long::bitCount).sum());
+    }
+
+    /**
+     * Tests that a search polls its cancellation check between chunks and stops once it turns true.
+     */
+    @Test
+    void testSearchStopsWhenCancelled() {
+        List<Plane> fleet = randomFleet(20_000, 11);
+        FleetColumns columns = FleetColumns.of(fleet);
+        PlaneQuery query = new PlaneQuery().modelContains("jet").orderByModel(true);
+        AtomicInteger polls = new AtomicInteger();
+
+        assertThrows(CancellationException.class, () -> columns.search(query, () -> polls.incrementAndGet() > 2));
+        assertEquals(3, polls.get());
+        assertEquals(query.select(fleet), columns.search(query, () -> false));
+    }
+}
@@ -0,0 +1,88 @@
+package airline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link FleetStatistics} class.
+ */
+class FleetStatisticsTest {
+
+    private final Plane boeing = new PassengerPlane("Boeing 737", 180, 20, 3500, 2.7, 800, 900, 12000);
+    private final Plane airbus = new PassengerPlane("Airbus A320", 150, 16, 6100, 2.5, 830, 870, 12000);
+    private final Plane antonov = new CargoPlane("An-124", 120, 4800, 9.8, 750, 850, 12000);
+
+    /**
+     * Tests the fleet-wide and per-type figures computed in one pass.
+     */
+    @Test
+    void testSinglePassStatistics() {
+        FleetStatistics statistics = FleetStatistics.of(List.of(boeing, airbus, antonov));
+
+        assertEquals(3, statistics.getCount());
+        assertEquals(2, statistics.getCount("passenger"));
+        assertEquals(Set.of("Cargo", "Passenger"), statistics.getTypes());
+
+        FleetStatistics.AttributeStats capacity = statistics.get(PlaneAttribute.CAPACITY);
+        assertEquals(3, capacity.count());
+        assertEquals(330, capacity.sum());
+        assertEquals(0, capacity.min());
+        assertEquals(180, capacity.max());
+        assertEquals(110, capacity.mean(), 1e-9);
+
+        FleetStatistics.AttributeStats passengerRange = statistics.get(PlaneAttribute.RANGE, List.of("PASSENGER"));
+        assertEquals(3500, passengerRange.min());
+        assertEquals(6100, passengerRange.max());
+        assertEquals(156, statistics.get(PlaneAttribute.CARGO_CAPACITY, List.of()).sum(), 1e-9);
+        assertEquals(120, statistics.byType(PlaneAttribute.CARGO_CAPACITY).get("Cargo").max());
+    }
+
+    /**
+     * Tests that add, replace and remove keep the figures equal to a fresh computation.
+     */
+    @Test
+    void testIncrementalMaintenance() {
+        FleetStatistics statistics = FleetStatistics.of(List.of(boeing, airbus));
+        statistics.add(antonov);
+
+        Plane biggerBoeing = new PassengerPlane("Boeing 737", 220, 20, 3500, 2.7, 800, 900, 12000);
+        statistics.replace(boeing, biggerBoeing);
+        assertEquals(220, statistics.get(PlaneAttribute.CAPACITY).max());
+
+        statistics.replace(biggerBoeing, boeing);
+        statistics.remove(airbus);
+        FleetStatistics fresh = FleetStatistics.of(List.of(boeing, antonov));
+        for (PlaneAttribute attribute : PlaneAttribute.values()) {
+            assertEquals(fresh.get(attribute), statistics.get(attribute), attribute.name());
+        }
+
+        statistics.remove(boeing);
+        statistics.remove(antonov);
+        assertEquals(0, statistics.getCount());
+        assertTrue(statistics.getTypes().isEmpty());
+        assertTrue(Double.isNaN(statistics.get(PlaneAttribute.RANGE).max()));
+        assertTrue(Double.isNaN(statistics.get(PlaneAttribute.RANGE).mean()));
+    }
+
+    /**
+     * Tests that a snapshot keeps its figures while the original changes, and cannot be changed.
+     */
+    @Test
+    void testSnapshot() {
+        FleetStatistics statistics = FleetStatistics.of(List.of(boeing, antonov));
+        FleetStatistics snapshot = statistics.snapshot();
+        statistics.add(airbus);
+
+        assertEquals(2, snapshot.getCount());
+        assertEquals(1, snapshot.getCount("passenger"));
+        assertEquals(new FleetStatistics.AttributeStats(1, 3500, 3500, 3500),
+                snapshot.get(PlaneAttribute.RANGE, List.of("Passenger")));
+        assertEquals(6100, statistics.get(PlaneAttribute.RANGE).max());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(airbus));
+        assertSame(snapshot, snapshot.snapshot());
+    }
+}
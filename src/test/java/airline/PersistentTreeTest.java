@@ -0,0 +1,84 @@
+package airline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link PersistentTree} class.
+ */
+class PersistentTreeTest {
+
+    /**
+     * Tests random inserts and removals against a TreeSet, including positions, counts and ranges.
+     */
+    @Test
+    void testMatchesSortedSet() {
+        Random random = new Random(42);
+        PersistentTree<Integer> tree = PersistentTree.empty(Comparator.naturalOrder());
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int step = 0; step < 5000; step++) {
+            int value = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                tree = tree.without(value);
+                expected.remove(value);
+            } else {
+                tree = tree.with(value);
+                expected.add(value);
+            }
+        }
+
+        assertEquals(expected.size(), tree.size());
+        assertEquals(new ArrayList<>(expected), tree.asList());
+        int index = 0;
+        for (int value : expected) {
+            assertEquals(value, tree.get(index++));
+        }
+        for (int bound = -1; bound <= 1000; bound += 7) {
+            int limit = bound;
+            assertEquals(expected.headSet(bound).size(), tree.countBefore(value -> Integer.compare(value, limit)));
+            assertEquals(expected.contains(bound) ? bound : null, tree.find(value -> Integer.compare(limit, value)));
+        }
+
+        List<Integer> range = new ArrayList<>();
+        tree.forEach(10, 20, range::add);
+        assertEquals(new ArrayList<>(expected).subList(10, 20), range);
+        assertThrows(IndexOutOfBoundsException.class, () -> PersistentTree.<Integer>empty(Comparator.naturalOrder()).get(0));
+    }
+
+    /**
+     * Tests that a change returns a new tree and leaves the old one as it was.
+     */
+    @Test
+    void testOldVersionsAreUnchanged() {
+        PersistentTree<Integer> first = PersistentTree.of(Comparator.naturalOrder(), List.of(5, 1, 3));
+        PersistentTree<Integer> second = first.with(4).without(1);
+
+        assertEquals(List.of(1, 3, 5), first.asList());
+        assertEquals(List.of(3, 4, 5), second.asList());
+        assertSame(second, second.without(42));
+    }
+
+    /**
+     * Tests that the tree stays shallow when elements are added in ascending order.
+     */
+    @Test
+    void testAscendingInsertsStayBalanced() {
+        PersistentTree<Integer> tree = PersistentTree.empty(Comparator.naturalOrder());
+        for (int i = 0; i < 100_000; i++) {
+            tree = tree.with(i);
+        }
+        // A degenerate tree would overflow the stack on the recursive removal below
+        for (int i = 0; i < 100_000; i += 2) {
+            tree = tree.without(i);
+        }
+        assertEquals(50_000, tree.size());
+        assertEquals(99_999, tree.get(49_999));
+    }
+}
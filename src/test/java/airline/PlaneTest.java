@@ -150,4 +150,19 @@ class PlaneTest {
         assertTrue(str.contains("12000"));
         assertTrue(str.contains("images/test.jpg"));
     }
+
+    /**
+     * Tests that a frozen plane rejects every change and keeps its values.
+     */
+    @Test
+    void testFreeze() {
+        assertFalse(plane.isFrozen());
+        plane.freeze();
+        assertTrue(plane.isFrozen());
+        assertThrows(IllegalStateException.class, () -> plane.setCapacity(1));
+        assertThrows(IllegalStateException.class, () -> plane.setModel("Other"));
+        assertThrows(IllegalStateException.class, () -> plane.setId(7));
+        assertEquals(100, plane.getCapacity());
+        assertEquals("TestModel", plane.getModel());
+    }
 }
@@ -0,0 +1,118 @@
+package airline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Throughput of the range filter with all fourteen numeric bounds set: the per-plane lambda chain
+ * used by the CLI and GUI searches, {@link PlaneQuery#matches}, and the scalar and vectorized
+ * bitmap kernels of {@link FleetColumns}.
+ * <p>
+ * Not a unit test; run it by hand, e.g. after {@code mvn test-compile}:
+ * </p>
+ * <pre>
+ * java --add-modules jdk.incubator.vector -Xmx4g -cp target/classes:target/test-classes:&lt;slf4j jars&gt; \
+ *     airline.RangeFilterBenchmark [planes] [iterations]
+ * </pre>
+ */
+public class RangeFilterBenchmark {
+
+    private static final String[] MODELS = new String[1000];
+
+    static {
+        for (int i = 0; i < MODELS.length; i++) {
+            MODELS[i] = "Model " + i;
+        }
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        System.out.printf("Generating %,d planes...%n", size);
+        List<Plane> planes = syntheticFleet(size, 1);
+        FleetColumns columns = FleetColumns.of(planes);
+        PlaneQuery query = new PlaneQuery()
+                .between(PlaneAttribute.CAPACITY, 50, 300)
+                .between(PlaneAttribute.CARGO_CAPACITY, 5, 60)
+                .between(PlaneAttribute.RANGE, 2000, 12000)
+                .between(PlaneAttribute.FUEL_CONSUMPTION, 2, 9)
+                .between(PlaneAttribute.CRUISING_SPEED, 600, 900)
+                .between(PlaneAttribute.MAX_SPEED, 700, 1000)
+                .between(PlaneAttribute.SERVICE_CEILING, 9000, 13000);
+
+        RangeFilterKernel scalar = new ScalarRangeFilterKernel();
+        RangeFilterKernel best = RangeFilterKernel.best();
+
+        run("lambda chain", size, iterations, () -> lambdaChain(planes, query));
+        run("PlaneQuery.matches", size, iterations, () -> planes.stream().filter(query::matches).count());
+        run("bitmap, scalar", size, iterations, () -> cardinality(columns.rangeBitmap(query, scalar)));
+        run("bitmap, " + best.name(), size, iterations, () -> cardinality(columns.rangeBitmap(query, best)));
+    }
+
+    /**
+     * The filter as the searches used to write it: one lambda per bound, applied plane by plane.
+     */
+    private static long lambdaChain(List<Plane> planes, PlaneQuery q) {
+        return planes.stream()
+                .filter(p -> p.getCapacity() >= q.getMin(PlaneAttribute.CAPACITY))
+                .filter(p -> p.getCapacity() <= q.getMax(PlaneAttribute.CAPACITY))
+                .filter(p -> p.getCargoCapacity() >= q.getMin(PlaneAttribute.CARGO_CAPACITY))
+                .filter(p -> p.getCargoCapacity() <= q.getMax(PlaneAttribute.CARGO_CAPACITY))
+                .filter(p -> p.getRange() >= q.getMin(PlaneAttribute.RANGE))
+                .filter(p -> p.getRange() <= q.getMax(PlaneAttribute.RANGE))
+                .filter(p -> p.getFuelConsumption() >= q.getMin(PlaneAttribute.FUEL_CONSUMPTION))
+                .filter(p -> p.getFuelConsumption() <= q.getMax(PlaneAttribute.FUEL_CONSUMPTION))
+                .filter(p -> p.getCruisingSpeed() >= q.getMin(PlaneAttribute.CRUISING_SPEED))
+                .filter(p -> p.getCruisingSpeed() <= q.getMax(PlaneAttribute.CRUISING_SPEED))
+                .filter(p -> p.getMaxSpeed() >= q.getMin(PlaneAttribute.MAX_SPEED))
+                .filter(p -> p.getMaxSpeed() <= q.getMax(PlaneAttribute.MAX_SPEED))
+                .filter(p -> p.getServiceCeiling() >= q.getMin(PlaneAttribute.SERVICE_CEILING))
+                .filter(p -> p.getServiceCeiling() <= q.getMax(PlaneAttribute.SERVICE_CEILING))
+                .count();
+    }
+
+    private static long cardinality(long[] bitmap) {
+        long count = 0;
+        for (long word : bitmap) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static void run(String name, int size, int iterations, Supplier<Long> filter) {
+        long matches = 0;
+        // Warm-up, so that the measured iterations run compiled code
+        for (int i = 0; i < 3; i++) {
+            matches = filter.get();
+        }
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            matches = filter.get();
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        double averageMs = total / 1e6 / iterations;
+        System.out.printf("%-24s avg %8.2f ms  best %8.2f ms  %8.1f M planes/s  (%,d matches)%n",
+                name, averageMs, best / 1e6, size / (best / 1e9) / 1e6, matches);
+    }
+
+    static List<Plane> syntheticFleet(int size, long seed) {
+        Random random = new Random(seed);
+        List<Plane> planes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Plane plane = new PassengerPlane(MODELS[random.nextInt(MODELS.length)],
+                    random.nextInt(400), random.nextDouble() * 80, 1000 + random.nextInt(14000),
+                    1 + random.nextDouble() * 10, 500 + random.nextDouble() * 500,
+                    600 + random.nextDouble() * 500, 8000 + random.nextInt(6000));
+            plane.setId(i + 1);
+            planes.add(plane);
+        }
+        return planes;
+    }
+}
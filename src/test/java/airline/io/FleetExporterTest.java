@@ -0,0 +1,115 @@
+package airline.io;
+
+import airline.Airline;
+import airline.CargoPlane;
+import airline.PassengerPlane;
+import airline.Plane;
+import db.DatabaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link FleetExporter} class.
+ * Exports from an in-memory SQLite database and reads the result back with {@link FleetImporter}.
+ */
+class FleetExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager dbManager;
+    private Airline airline;
+
+    @BeforeEach
+    void setUp() {
+        dbManager = new DatabaseManager("jdbc:sqlite::memory:");
+        airline = new Airline(dbManager);
+        Plane boeing = new PassengerPlane("Boeing 737, \"MAX\"", 180, 20, 3500, 2.7, 800, 900, 12000);
+        boeing.setImagePath("images/Boeing_737.jpg");
+        airline.addPlane(boeing);
+        airline.addPlane(new CargoPlane("An-124", 120, 4800, 9.8, 750, 850, 12000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbManager.close();
+    }
+
+    /**
+     * Tests that the CSV output quotes values and has one line per plane.
+     */
+    @Test
+    void testExportCsv() throws IOException {
+        StringWriter out = new StringWriter();
+
+        assertEquals(2, new FleetExporter(airline).exportTo(out, FleetFormat.CSV));
+
+        List<String> lines = out.toString().lines().toList();
+        assertEquals(3, lines.size());
+        assertEquals(String.join(",", PlaneCodec.FIELDS), lines.get(0));
+        assertEquals("Passenger,\"Boeing 737, \"\"MAX\"\"\",180,20.0,3500,2.7,800.0,900.0,12000,images/Boeing_737.jpg",
+                lines.get(1));
+        assertTrue(lines.get(2).startsWith("Cargo,An-124,0,120.0,"));
+        assertTrue(lines.get(2).endsWith(","));
+    }
+
+    /**
+     * Tests that exported files in both formats import back to the same planes.
+     */
+    @Test
+    void testRoundTrip() throws IOException {
+        FleetExporter exporter = new FleetExporter(airline);
+        for (String name : List.of("fleet.csv", "fleet.jsonl")) {
+            Path file = tempDir.resolve(name);
+            assertEquals(2, exporter.exportFile(file));
+
+            DatabaseManager copyDb = new DatabaseManager("jdbc:sqlite::memory:");
+            try {
+                FleetImporter.ImportResult result = new FleetImporter(new Airline(copyDb))
+                        .importFile(file, tempDir.resolve(name + ".errors"), null);
+                assertEquals(2, result.rowsImported(), name);
+                List<Plane> copy = copyDb.getAllPlanes();
+                assertEquals("Boeing 737, \"MAX\"", copy.get(0).getModel());
+                assertEquals("images/Boeing_737.jpg", copy.get(0).getImagePath());
+                assertEquals(9.8, copy.get(1).getFuelConsumption());
+                assertNull(copy.get(1).getImagePath());
+            } finally {
+                copyDb.close();
+            }
+        }
+        assertTrue(Files.readString(tempDir.resolve("fleet.jsonl")).contains("\"image_path\": null"));
+    }
+
+    /**
+     * Tests that a model with line breaks survives a CSV export and import.
+     */
+    @Test
+    void testCsvRoundTripWithLineBreaks() throws IOException {
+        airline.addPlane(new PassengerPlane("Airbus A320\nneo, \"long\nrange\"", 190, 25, 6300, 2.4, 830, 870, 12000));
+        Path file = tempDir.resolve("fleet.csv");
+        assertEquals(3, new FleetExporter(airline).exportFile(file));
+
+        DatabaseManager copyDb = new DatabaseManager("jdbc:sqlite::memory:");
+        try {
+            FleetImporter.ImportResult result = new FleetImporter(new Airline(copyDb))
+                    .importFile(file, tempDir.resolve("fleet.csv.errors"), null);
+            assertEquals(3, result.rowsRead());
+            assertEquals(3, result.rowsImported());
+            List<Plane> copy = copyDb.getAllPlanes();
+            assertEquals("Airbus A320\nneo, \"long\nrange\"", copy.get(2).getModel());
+            assertEquals(6300, copy.get(2).getRange());
+        } finally {
+            copyDb.close();
+        }
+    }
+}
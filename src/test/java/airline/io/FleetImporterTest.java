@@ -0,0 +1,206 @@
+package airline.io;
+
+import airline.Airline;
+import airline.Plane;
+import db.DatabaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link FleetImporter} class.
+ * Imports into an in-memory SQLite database through a real {@link Airline}.
+ */
+class FleetImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseManager dbManager;
+    private Airline airline;
+
+    @BeforeEach
+    void setUp() {
+        dbManager = new DatabaseManager("jdbc:sqlite::memory:");
+        airline = new Airline(dbManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbManager.close();
+    }
+
+    /**
+     * Tests a CSV import with quoted fields and a rejected row.
+     */
+    @Test
+    void testImportCsv() throws IOException {
+        Path csv = tempDir.resolve("fleet.csv");
+        Files.writeString(csv, String.join("\n",
+                "type,model,capacity,cargo_capacity,range_km,fuel_consumption,cruising_speed,max_speed,service_ceiling,image_path",
+                "Passenger,\"Boeing 737, MAX\",180,20,3500,2.7,800,900,12000,images/Boeing_737.jpg",
+                "Cargo,An-124,0,120,4800,9.8,750,850,12000,",
+                "Spaceship,X,1,1,1,1,1,1,1,",
+                "Fighter,F-16,1,1.5,not-a-number,3,900,2100,15000,"));
+        Path errors = tempDir.resolve("errors.tsv");
+
+        FleetImporter.ImportResult result = new FleetImporter(airline).importFile(csv, errors, null);
+
+        assertEquals(4, result.rowsRead());
+        assertEquals(2, result.rowsImported());
+        assertEquals(2, result.rowsRejected());
+        List<Plane> planes = dbManager.getAllPlanes();
+        assertEquals("Boeing 737, MAX", planes.get(0).getModel());
+        assertEquals("images/Boeing_737.jpg", planes.get(0).getImagePath());
+        assertNull(planes.get(1).getImagePath());
+
+        List<String> errorLines = Files.readAllLines(errors);
+        assertEquals(2, errorLines.size());
+        assertTrue(errorLines.get(0).startsWith("4\t"));
+        assertTrue(errorLines.get(1).startsWith("5\t"));
+    }
+
+    /**
+     * Tests that quoted CSV fields may span lines and that rejected records keep their first line number.
+     */
+    @Test
+    void testImportCsvMultiLineRecords() throws IOException {
+        Path csv = tempDir.resolve("fleet.csv");
+        Files.writeString(csv, String.join("\r\n",
+                "type,model,capacity,cargo_capacity,range_km,fuel_consumption,cruising_speed,max_speed,service_ceiling",
+                "Passenger,\"Boeing\n737\",180,20,3500,2.7,800,900,12000",
+                "Cargo,\"An\r\n124\",0,x,4800,9.8,750,850,12000",
+                "Cargo,An-225,0,250,4000,16,800,850,11000"));
+        Path errors = tempDir.resolve("errors.tsv");
+
+        FleetImporter.ImportResult result = new FleetImporter(airline).importFile(csv, errors, null);
+
+        assertEquals(3, result.rowsRead());
+        assertEquals(2, result.rowsImported());
+        List<Plane> planes = dbManager.getAllPlanes();
+        assertEquals("Boeing\n737", planes.get(0).getModel());
+        assertEquals("An-225", planes.get(1).getModel());
+
+        List<String> errorLines = Files.readAllLines(errors);
+        assertEquals(1, errorLines.size());
+        assertTrue(errorLines.get(0).startsWith("4\t"), errorLines.get(0));
+        assertTrue(errorLines.get(0).endsWith("Cargo,\"An\\n124\",0,x,4800,9.8,750,850,12000"), errorLines.get(0));
+    }
+
+    /**
+     * Tests that a quote inside a value is kept as text and that an unclosed quoted field rejects
+     * only its own line, not the valid rows after it.
+     */
+    @Test
+    void testImportCsvStrayQuotes() throws IOException {
+        Path csv = tempDir.resolve("fleet.csv");
+        Files.writeString(csv, String.join("\n",
+                "type,model,capacity,cargo_capacity,range_km,fuel_consumption,cruising_speed,max_speed,service_ceiling",
+                "Passenger,Boeing 7\"47,400,30,13000,10.5,900,990,13000",
+                "Cargo,An-124,0,120,4800,9.8,750,850,12000",
+                "Cargo,\"An-225,0,250,4000,16,800,850,11000",
+                "Cargo,Il-76,0,50,4400,8,750,850,12000",
+                "Passenger,A380,850,20,15000,12,900,1020,13100"));
+        Path errors = tempDir.resolve("errors.tsv");
+
+        FleetImporter.ImportResult result = new FleetImporter(airline).importFile(csv, errors, null);
+
+        assertEquals(5, result.rowsRead());
+        assertEquals(4, result.rowsImported());
+        List<String> models = dbManager.getAllPlanes().stream().map(Plane::getModel).toList();
+        assertEquals(List.of("Boeing 7\"47", "An-124", "Il-76", "A380"), models);
+        List<String> errorLines = Files.readAllLines(errors);
+        assertEquals(1, errorLines.size());
+        assertTrue(errorLines.get(0).startsWith("4\tUnterminated quoted field\t"), errorLines.get(0));
+    }
+
+    /**
+     * Tests a JSON-lines import spread over several batches with progress reports.
+     */
+    @Test
+    void testImportJsonLinesInBatches() throws IOException {
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < 25; i++) {
+            json.append("{\"type\": \"Light Plane\", \"model\": \"Cessna \\\"").append(i)
+                    .append("\\\"\", \"capacity\": 4, \"cargo_capacity\": 0.3, \"range_km\": 1200,")
+                    .append(" \"fuel_consumption\": 0.4, \"cruising_speed\": 220, \"max_speed\": 300,")
+                    .append(" \"service_ceiling\": 4100, \"image_path\": null}\n");
+        }
+        json.append("{\"type\": \"Light Plane\", \"model\": [1]}\n");
+        List<FleetImporter.ImportResult> reports = new ArrayList<>();
+
+        FleetImporter.ImportResult result = new FleetImporter(airline, 10, 10)
+                .importFrom(new StringReader(json.toString()), FleetFormat.JSON_LINES, null, reports::add);
+
+        assertEquals(25, result.rowsImported());
+        assertEquals(1, result.rowsRejected());
+        assertEquals(25, airline.getPlanes().size());
+        assertEquals("Cessna \"0\"", airline.getPlanes().get(0).getModel());
+        assertEquals(3, reports.size());
+        assertEquals(result, reports.get(reports.size() - 1));
+    }
+
+    /**
+     * Tests that rows the database did not store are written to the error file with their line
+     * number and original text, so the error file can be imported again.
+     */
+    @Test
+    void testDatabaseRejectsKeepSourceRows() throws IOException {
+        Airline partial = Mockito.mock(Airline.class);
+        Mockito.when(partial.addPlanes(Mockito.any())).thenReturn(List.of(1));
+        Path csv = tempDir.resolve("fleet.csv");
+        Files.writeString(csv, String.join("\n",
+                "type,model,capacity,cargo_capacity,range_km,fuel_consumption,cruising_speed,max_speed,service_ceiling",
+                "Cargo,An-124,0,120,4800,9.8,750,850,12000",
+                "",
+                "Cargo,\"Il-76,\nMD\",0,50,4400,8,750,850,12000"));
+        Path errors = tempDir.resolve("errors.tsv");
+
+        FleetImporter.ImportResult result = new FleetImporter(partial).importFile(csv, errors, null);
+
+        assertEquals(1, result.rowsImported());
+        assertEquals(1, result.rowsRejected());
+        assertEquals(List.of("4\tdatabase write failed\tCargo,\"Il-76,\\nMD\",0,50,4400,8,750,850,12000"),
+                Files.readAllLines(errors));
+    }
+
+    /**
+     * Tests that a failure to write the error file from the writer thread is reported as such,
+     * not as a database failure.
+     */
+    @Test
+    void testErrorFileFailureFromWriter() {
+        Airline rejecting = Mockito.mock(Airline.class);
+        Mockito.when(rejecting.addPlanes(Mockito.any())).thenReturn(List.of());
+        String json = "{\"type\": \"Cargo\", \"model\": \"An-124\", \"capacity\": 0, \"cargo_capacity\": 120,"
+                + " \"range_km\": 4800, \"fuel_consumption\": 9.8, \"cruising_speed\": 750, \"max_speed\": 850,"
+                + " \"service_ceiling\": 12000}\n";
+        Path errors = tempDir.resolve("missing-dir").resolve("errors.tsv");
+
+        IOException e = assertThrows(IOException.class, () -> new FleetImporter(rejecting)
+                .importFrom(new StringReader(json), FleetFormat.JSON_LINES, errors, null));
+        assertInstanceOf(NoSuchFileException.class, e);
+    }
+
+    /**
+     * Tests format detection by file extension.
+     */
+    @Test
+    void testFormatForFile() {
+        assertEquals(FleetFormat.CSV, FleetFormat.forFile(Path.of("a.CSV")));
+        assertEquals(FleetFormat.JSON_LINES, FleetFormat.forFile(Path.of("a.jsonl")));
+        assertThrows(IllegalArgumentException.class, () -> FleetFormat.forFile(Path.of("a.xml")));
+    }
+}
@@ -0,0 +1,56 @@
+package airline.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ExecutionMode} class.
+ */
+class ExecutionModeTest {
+
+    @AfterEach
+    void resetMode() {
+        ExecutionMode.set(ExecutionMode.PLATFORM);
+    }
+
+    /**
+     * Tests that threads are created in the current mode and that platform threads are daemons.
+     */
+    @Test
+    void testThreadsFollowMode() throws InterruptedException {
+        Thread platform = ExecutionMode.start("mode-test", () -> { });
+        platform.join();
+        assertFalse(platform.isVirtual());
+        assertTrue(platform.isDaemon());
+        assertEquals("mode-test", platform.getName());
+
+        ExecutionMode.set(ExecutionMode.parse(" Virtual "));
+        assertEquals(ExecutionMode.VIRTUAL, ExecutionMode.current());
+        Thread virtual = ExecutionMode.start("mode-test", () -> { });
+        virtual.join();
+        assertTrue(virtual.isVirtual());
+
+        ThreadFactory factory = ExecutionMode.threadFactory("worker-");
+        ExecutionMode.set(ExecutionMode.PLATFORM);
+        Thread first = factory.newThread(() -> { });
+        Thread second = factory.newThread(() -> { });
+        assertTrue(first.isVirtual(), "the factory keeps the mode it was created in");
+        assertEquals("worker-1", first.getName());
+        assertEquals("worker-2", second.getName());
+    }
+
+    /**
+     * Tests parsing of mode names.
+     */
+    @Test
+    void testParse() {
+        assertEquals(ExecutionMode.PLATFORM, ExecutionMode.parse("platform"));
+        assertThrows(IllegalArgumentException.class, () -> ExecutionMode.parse("green"));
+        ExecutionMode.set(null);
+        assertEquals(ExecutionMode.PLATFORM, ExecutionMode.current());
+    }
+}
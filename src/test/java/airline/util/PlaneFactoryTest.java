@@ -171,4 +171,23 @@ class PlaneFactoryTest {
         // List is unmodifiable
         assertThrows(UnsupportedOperationException.class, () -> types.add("Test"));
     }
+
+    /**
+     * Tests that copyOf creates an independent plane of the same type.
+     */
+    @Test
+    void testCopyOf() {
+        Plane original = PlaneFactory.createPlane("Bomber", "B-52", 0, 30, 14000, 12, 820, 1000, 15000);
+        original.setId(7);
+        original.setImagePath("images/b52.jpg");
+
+        Plane copy = PlaneFactory.copyOf(original);
+        assertNotSame(original, copy);
+        assertInstanceOf(Bomber.class, copy);
+        assertEquals(original.toString(), copy.toString());
+        assertEquals(7, copy.getId());
+
+        copy.setRange(100);
+        assertEquals(14000, original.getRange());
+    }
 }
@@ -0,0 +1,260 @@
+package db;
+
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ConnectionPool} class.
+ * Uses a temporary SQLite database file so that reader and writer connections are distinct.
+ */
+class ConnectionPoolTest {
+
+    private static final String TEMP_DB_PATH = "test_pool.db";
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        new File(TEMP_DB_PATH).delete();
+        pool = new ConnectionPool("jdbc:sqlite:" + TEMP_DB_PATH, 2, 200, StorageProfile.THROUGHPUT);
+        try (Connection conn = pool.writer();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (x INTEGER)");
+            stmt.execute("INSERT INTO t VALUES (1)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+        new File(TEMP_DB_PATH).delete();
+        new File(TEMP_DB_PATH + "-wal").delete();
+        new File(TEMP_DB_PATH + "-shm").delete();
+    }
+
+    /**
+     * Tests that reader connections are reused and counted.
+     */
+    @Test
+    void testReadersAreReused() throws SQLException {
+        Connection first;
+        try (Connection conn = pool.reader()) {
+            first = conn.unwrap(Connection.class);
+        }
+        try (Connection conn = pool.reader()) {
+            assertSame(first, conn.unwrap(Connection.class));
+        }
+        PoolMetrics metrics = pool.getMetrics();
+        assertEquals(2, metrics.readerCheckouts());
+        assertEquals(1, metrics.writerCheckouts());
+        assertEquals(1, metrics.openReaders());
+        assertEquals(1, metrics.idleReaders());
+    }
+
+    /**
+     * Tests that reader connections see committed data but cannot write.
+     */
+    @Test
+    void testReaderIsReadOnly() throws SQLException {
+        try (Connection conn = pool.reader();
+             Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+                assertEquals(1, rs.getInt(1));
+            }
+            assertThrows(SQLException.class, () -> stmt.executeUpdate("INSERT INTO t VALUES (2)"));
+        }
+    }
+
+    /**
+     * Tests that the pool times out when every reader is checked out.
+     */
+    @Test
+    void testReaderCheckoutTimesOut() throws SQLException {
+        Connection first = pool.reader();
+        Connection second = pool.reader();
+        try {
+            assertThrows(SQLException.class, pool::reader);
+        } finally {
+            second.close();
+            first.close();
+        }
+        assertEquals(1, pool.getMetrics().timeouts());
+    }
+
+    /**
+     * Tests that a connection that failed its health check is replaced on checkout.
+     */
+    @Test
+    void testBrokenConnectionIsReplaced() throws SQLException {
+        try (Connection conn = pool.reader()) {
+            conn.unwrap(Connection.class).close();
+        }
+        try (Connection conn = pool.reader();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+            assertEquals(1, rs.getInt(1));
+        }
+        assertEquals(1, pool.getMetrics().replacedConnections());
+    }
+
+    /**
+     * Tests that connections are validated only after a failed call, not on every checkout.
+     */
+    @Test
+    void testValidationOnlyAfterFailure() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = pool.reader()) {
+                assertTrue(conn.getAutoCommit());
+            }
+        }
+        assertEquals(0, pool.getMetrics().validations());
+
+        try (Connection conn = pool.reader()) {
+            assertThrows(SQLException.class, () -> conn.prepareStatement("SELECT * FROM missing"));
+        }
+        try (Connection conn = pool.reader()) {
+            assertTrue(conn.getAutoCommit());
+        }
+        assertEquals(1, pool.getMetrics().validations());
+        assertEquals(0, pool.getMetrics().replacedConnections());
+    }
+
+    /**
+     * Tests that an unfinished transaction is rolled back when the writer is returned.
+     */
+    @Test
+    void testWriterRollsBackOpenTransaction() throws SQLException {
+        try (Connection conn = pool.writer();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            stmt.execute("INSERT INTO t VALUES (2)");
+        }
+        try (Connection conn = pool.writer();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+            assertTrue(conn.getAutoCommit());
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    /**
+     * Tests that the pool refuses checkouts after being closed.
+     */
+    @Test
+    void testClosedPoolRejectsCheckouts() {
+        pool.close();
+        assertTrue(pool.isClosed());
+        assertThrows(SQLException.class, pool::reader);
+        assertThrows(SQLException.class, pool::writer);
+    }
+
+    /**
+     * Tests that a reader checked out while the pool closes stays usable and is closed when returned.
+     */
+    @Test
+    void testCloseDefersCheckedOutReaders() throws SQLException {
+        Connection busy = pool.reader();
+        Connection busyTarget = busy.unwrap(Connection.class);
+        Connection idle;
+        try (Connection conn = pool.reader()) {
+            idle = conn.unwrap(Connection.class);
+        }
+        pool.close();
+        assertTrue(idle.isClosed());
+        try (Statement stmt = busy.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+            assertEquals(1, rs.getInt(1));
+        }
+        busy.close();
+        assertTrue(busyTarget.isClosed());
+    }
+
+    /**
+     * Tests that the storage profile pragmas are applied to new connections.
+     */
+    @Test
+    void testStorageProfileIsApplied() throws SQLException {
+        try (Connection conn = pool.writer();
+             Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+                assertEquals("wal", rs.getString(1));
+            }
+            try (ResultSet rs = stmt.executeQuery("PRAGMA synchronous")) {
+                assertEquals(StorageProfile.Synchronous.NORMAL.ordinal(), rs.getInt(1));
+            }
+        }
+        try (Connection conn = pool.reader();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA busy_timeout")) {
+            assertEquals(StorageProfile.THROUGHPUT.busyTimeoutMs(), rs.getInt(1));
+        }
+    }
+
+    /**
+     * Tests that in WAL mode the writer can commit while a reader keeps a read transaction open.
+     */
+    @Test
+    void testWriterNotBlockedByOpenReader() throws SQLException {
+        try (Connection reader = pool.reader();
+             Statement readStmt = reader.createStatement()) {
+            reader.setAutoCommit(false);
+            try (ResultSet rs = readStmt.executeQuery("SELECT COUNT(*) FROM t")) {
+                assertEquals(1, rs.getInt(1));
+            }
+            try (Connection writer = pool.writer();
+                 Statement writeStmt = writer.createStatement()) {
+                assertEquals(1, writeStmt.executeUpdate("INSERT INTO t VALUES (2)"));
+            }
+            reader.rollback();
+            reader.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Tests lookup of storage presets by name.
+     */
+    @Test
+    void testStorageProfileForName() {
+        assertSame(StorageProfile.THROUGHPUT, StorageProfile.forName("Throughput"));
+        assertSame(StorageProfile.DURABILITY, StorageProfile.forName("durability"));
+        assertThrows(IllegalArgumentException.class, () -> StorageProfile.forName("fast"));
+    }
+
+    /**
+     * Tests that the configured profile follows the system property and rejects invalid settings.
+     */
+    @Test
+    void testConfiguredStorageProfile() {
+        try {
+            assertSame(StorageProfile.THROUGHPUT, StorageProfile.configured());
+            System.setProperty(StorageProfile.PROPERTY, "durability");
+            assertSame(StorageProfile.DURABILITY, StorageProfile.configured());
+            System.setProperty(StorageProfile.PROPERTY, "fast");
+            assertSame(StorageProfile.THROUGHPUT, StorageProfile.configured());
+        } finally {
+            System.clearProperty(StorageProfile.PROPERTY);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new StorageProfile(null,
+                StorageProfile.Synchronous.FULL, 0, 0, StorageProfile.TempStore.DEFAULT, 0));
+    }
+
+    /**
+     * Tests that only real in-memory URLs are treated as in-memory databases.
+     */
+    @Test
+    void testInMemoryUrlDetection() {
+        assertTrue(ConnectionPool.isInMemoryUrl("jdbc:sqlite::memory:"));
+        assertTrue(ConnectionPool.isInMemoryUrl("jdbc:sqlite:"));
+        assertTrue(ConnectionPool.isInMemoryUrl("jdbc:sqlite:file::memory:?cache=shared"));
+        assertTrue(ConnectionPool.isInMemoryUrl("jdbc:sqlite:file:planes?mode=memory&cache=shared"));
+        assertFalse(ConnectionPool.isInMemoryUrl("jdbc:sqlite:memory:"));
+        assertFalse(ConnectionPool.isInMemoryUrl("jdbc:sqlite:data/:memory:.db"));
+        assertFalse(ConnectionPool.isInMemoryUrl("jdbc:sqlite:airline.db"));
+    }
+}
@@ -1,11 +1,21 @@
 package db;
 
+import airline.Airline;
+import airline.CargoPlane;
 import airline.PassengerPlane;
 import airline.Plane;
+import airline.PlaneAttribute;
+import airline.PlaneQuery;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,12 +41,34 @@ class DatabaseManagerTest {
 
     @AfterAll
     void tearDownDatabase() {
+        dbManager.close();
         File dbFile = new File(TEMP_DB_PATH);
         if (dbFile.exists()) {
             dbFile.delete();
         }
     }
 
+    /**
+     * Tests that the trigger-maintained type summaries follow single and batch writes.
+     */
+    @Test
+    void testTypeSummaries() {
+        try (DatabaseManager tempDb = new DatabaseManager("jdbc:sqlite::memory:")) {
+            Plane jet = new PassengerPlane("Jet", 100, 10, 2000, 3.5, 700, 900, 12000);
+            Plane hauler = new CargoPlane("Hauler", 80, 5000, 6.0, 650, 800, 11000);
+            tempDb.addPlane(jet);
+            tempDb.addPlanes(List.of(hauler, new PassengerPlane("Jet 2", 50, 5, 1500, 2.5, 600, 800, 10000)));
+            assertEquals(List.of(new TypeSummary("Cargo", 1, 0, 80.0),
+                            new TypeSummary("Passenger", 2, 150, 15.0)),
+                    tempDb.getTypeSummaries());
+
+            jet.setCapacity(120);
+            tempDb.updatePlane(jet);
+            tempDb.deletePlane(hauler.getId());
+            assertEquals(List.of(new TypeSummary("Passenger", 2, 170, 15.0)), tempDb.getTypeSummaries());
+        }
+    }
+
     /**
      * Tests addPlane and getAllPlanes methods.
      */
@@ -118,4 +150,220 @@ class DatabaseManagerTest {
         assertNotNull(planes);
         assertTrue(planes.isEmpty());
     }
+
+    /**
+     * Tests findPlanes filtering, ordering and paging in SQL.
+     */
+    @Test
+    void testFindPlanes() {
+        DatabaseManager tempDb = new DatabaseManager("jdbc:sqlite::memory:");
+        tempDb.addPlane(new PassengerPlane("Boeing 737", 180, 20, 3500, 2.7, 800, 900, 12000));
+        tempDb.addPlane(new PassengerPlane("Airbus A320", 150, 16, 6100, 2.4, 830, 870, 12000));
+        tempDb.addPlane(new CargoPlane("Boeing 747-8F", 130, 8100, 11.0, 900, 990, 13000));
+
+        List<Plane> boeings = tempDb.findPlanes(new PlaneQuery().modelContains("BOEING"));
+        assertEquals(2, boeings.size());
+
+        List<Plane> economical = tempDb.findPlanes(new PlaneQuery()
+                .between(PlaneAttribute.FUEL_CONSUMPTION, 2.0, 3.0)
+                .orderBy(PlaneAttribute.RANGE, false));
+        assertEquals(List.of("Airbus A320", "Boeing 737"), economical.stream().map(Plane::getModel).toList());
+
+        List<Plane> cargo = tempDb.findPlanes(new PlaneQuery().types(List.of("cargo")));
+        assertEquals(1, cargo.size());
+        assertEquals("Cargo", cargo.get(0).getType());
+
+        List<Plane> page = tempDb.findPlanes(new PlaneQuery().orderByModel(true).offset(1).limit(1));
+        assertEquals("Boeing 737", page.get(0).getModel());
+
+        assertTrue(tempDb.findPlanes(new PlaneQuery().modelContains("%")).isEmpty());
+        tempDb.close();
+    }
+
+    /**
+     * Tests that a Cyrillic model search matches and sorts the same in SQL as over the cached fleet.
+     */
+    @Test
+    void testCyrillicSearchMatchesCache() {
+        DatabaseManager tempDb = new DatabaseManager("jdbc:sqlite::memory:");
+        Airline airline = new Airline(tempDb);
+        airline.addPlane(new PassengerPlane("Ан-148", 80, 9, 4400, 2.1, 800, 870, 12200));
+        airline.addPlane(new CargoPlane("АН-124 Руслан", 120, 4800, 9.8, 750, 850, 12000));
+        airline.addPlane(new PassengerPlane("Boeing 737", 180, 20, 3500, 2.7, 800, 900, 12000));
+        PlaneQuery query = new PlaneQuery().modelContains("ан-1").orderByModel(false);
+
+        List<String> fromDatabase = airline.search(query).stream().map(Plane::getModel).toList();
+        airline.getSnapshot();
+        List<String> fromCache = airline.search(query).stream().map(Plane::getModel).toList();
+
+        assertEquals(List.of("Ан-148", "АН-124 Руслан"), fromDatabase);
+        assertEquals(fromCache, fromDatabase);
+        assertEquals(1, tempDb.findPlanes(new PlaneQuery().modelContains("РУСЛАН")).size());
+        airline.close();
+        tempDb.close();
+    }
+
+    /**
+     * Tests batched insert and update across several commit chunks.
+     */
+    @Test
+    void testAddAndUpdatePlanesInBatches() {
+        DatabaseManager tempDb = new DatabaseManager("jdbc:sqlite::memory:");
+        List<Plane> planes = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            planes.add(new PassengerPlane("Batch " + i, 100 + i, 10, 2000, 3.5, 700, 900, 12000));
+        }
+
+        List<Integer> ids = tempDb.addPlanes(planes, 10);
+        assertEquals(25, ids.size());
+        assertEquals(25, tempDb.getAllPlanes().size());
+        for (int i = 0; i < planes.size(); i++) {
+            assertEquals(ids.get(i), planes.get(i).getId());
+        }
+
+        planes.forEach(p -> p.setCapacity(p.getCapacity() + 1000));
+        Plane missing = new PassengerPlane("Missing", 1, 1, 1, 1, 1, 1, 1);
+        missing.setId(9999);
+        List<Plane> updates = new ArrayList<>(planes);
+        updates.add(missing);
+        assertEquals(ids, tempDb.updatePlanes(updates, 10));
+        assertTrue(tempDb.getAllPlanes().stream().allMatch(p -> p.getCapacity() >= 1100));
+        tempDb.close();
+    }
+
+    /**
+     * Tests that the callback and stream APIs read every plane in id order.
+     */
+    @Test
+    void testStreamPlanes() {
+        DatabaseManager tempDb = new DatabaseManager("jdbc:sqlite::memory:");
+        List<Plane> planes = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            planes.add(new CargoPlane("Stream " + i, 50 + i, 4000, 8.0, 750, 850, 11000));
+        }
+        tempDb.addPlanes(planes);
+
+        List<String> visited = new ArrayList<>();
+        assertEquals(12, tempDb.forEachPlane(p -> visited.add(p.getModel()), 5));
+        assertEquals("Stream 0", visited.get(0));
+        assertEquals("Stream 11", visited.get(11));
+
+        try (Stream<Plane> stream = tempDb.streamPlanes(5)) {
+            assertEquals(List.of("Stream 0", "Stream 1", "Stream 2"),
+                    stream.limit(3).map(Plane::getModel).toList());
+        }
+        // The connection was released on close, so writes go through again
+        assertTrue(tempDb.deletePlane(planes.get(0).getId()));
+        try (Stream<Plane> stream = tempDb.streamPlanes(5)) {
+            assertEquals(11, stream.count());
+        }
+        tempDb.close();
+    }
+
+    /**
+     * Tests counting planes per image path.
+     */
+    @Test
+    void testImageReferenceCounts() {
+        DatabaseManager tempDb = new DatabaseManager("jdbc:sqlite::memory:");
+        Plane first = new PassengerPlane("Ref 1", 100, 10, 2000, 3.5, 700, 900, 12000);
+        Plane second = new PassengerPlane("Ref 2", 100, 10, 2000, 3.5, 700, 900, 12000);
+        Plane third = new PassengerPlane("Ref 3", 100, 10, 2000, 3.5, 700, 900, 12000);
+        first.setImagePath("images/ab/shared.jpg");
+        second.setImagePath("images/ab/shared.jpg");
+        tempDb.addPlanes(List.of(first, second, third));
+
+        assertEquals(Map.of("images/ab/shared.jpg", 2), tempDb.getImageReferenceCounts());
+        tempDb.close();
+    }
+
+    /**
+     * Tests that many virtual threads can use one manager at once: every write is stored and every
+     * caller gets its own generated ID.
+     */
+    @Test
+    void testVirtualThreadCallers() throws InterruptedException {
+        try (DatabaseManager tempDb = new DatabaseManager("jdbc:sqlite::memory:")) {
+            List<Plane> planes = new ArrayList<>();
+            List<Thread> callers = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                Plane plane = new CargoPlane("Virtual " + i, 20 + i, 3000, 5.0, 600, 750, 9000);
+                planes.add(plane);
+                callers.add(Thread.ofVirtual().start(() -> assertTrue(tempDb.addPlane(plane))));
+            }
+            for (Thread caller : callers) {
+                caller.join();
+            }
+
+            assertEquals(200, tempDb.getAllPlanes().size());
+            assertEquals(200, planes.stream().mapToInt(Plane::getId).distinct().count());
+        }
+    }
+
+    /**
+     * Tests the write-behind mode: queued changes are merged, committed in one group before a read,
+     * survive closing, and keep the IDs they were given.
+     */
+    @Test
+    void testWriteBehind(@TempDir Path dir) {
+        String url = "jdbc:sqlite:" + dir.resolve("write-behind.db");
+        WriteBehindPolicy policy = new WriteBehindPolicy(1000, Duration.ofHours(1), 10_000);
+        Plane kept = new PassengerPlane("Kept", 100, 10, 2000, 3.5, 700, 900, 12000);
+        Plane dropped = new CargoPlane("Dropped", 80, 5000, 6.0, 650, 800, 11000);
+        try (DatabaseManager db = new DatabaseManager(url, 2, StorageProfile.THROUGHPUT, policy)) {
+            assertTrue(db.isWriteBehind());
+            assertTrue(db.addPlane(kept));
+            assertTrue(db.addPlane(dropped));
+            assertEquals(kept.getId() + 1, dropped.getId());
+            kept.setCapacity(150);
+            assertTrue(db.updatePlane(kept));
+            kept.setCapacity(999);
+            assertTrue(db.deletePlane(dropped.getId()));
+            assertFalse(db.deletePlane(dropped.getId()));
+            assertFalse(db.updatePlane(dropped));
+
+            long writes = db.getPoolMetrics().writerCheckouts();
+            List<Plane> stored = db.getAllPlanes();
+            assertEquals(writes + 1, db.getPoolMetrics().writerCheckouts(), "one group commit");
+            assertEquals(1, stored.size());
+            assertEquals(150, stored.get(0).getCapacity(), "the queued copy, not later edits");
+
+            kept.setCapacity(175);
+            assertTrue(db.updatePlane(kept));
+            assertTrue(db.awaitFlush(Duration.ofSeconds(5)));
+        }
+
+        try (DatabaseManager db = new DatabaseManager(url)) {
+            List<Plane> stored = db.getAllPlanes();
+            assertEquals(1, stored.size());
+            assertEquals(175, stored.get(0).getCapacity());
+            Plane next = new PassengerPlane("Next", 90, 5, 1500, 3.0, 650, 850, 10000);
+            assertTrue(db.addPlane(next));
+            // "Dropped" was never written, so only the committed IDs count
+            assertEquals(kept.getId() + 1, next.getId());
+            assertTrue(db.flush());
+        }
+    }
+
+    /**
+     * Tests that a queued update whose row is gone when the group is committed counts as dropped.
+     */
+    @Test
+    void testWriteBehindUpdateOfMissingRow(@TempDir Path dir) {
+        String url = "jdbc:sqlite:" + dir.resolve("write-behind-missing.db");
+        WriteBehindPolicy policy = new WriteBehindPolicy(1000, Duration.ofHours(1), 10_000);
+        Plane plane = new PassengerPlane("Gone", 100, 10, 2000, 3.5, 700, 900, 12000);
+        try (DatabaseManager db = new DatabaseManager(url, 2, StorageProfile.THROUGHPUT, policy);
+             DatabaseManager other = new DatabaseManager(url)) {
+            assertTrue(db.addPlane(plane));
+            assertTrue(db.flush());
+            plane.setCapacity(150);
+            assertTrue(db.updatePlane(plane));
+            assertTrue(other.deletePlane(plane.getId()));
+
+            assertFalse(db.flush(), "the update found no row");
+            assertTrue(db.flush());
+            assertTrue(db.getAllPlanes().isEmpty());
+        }
+    }
 }
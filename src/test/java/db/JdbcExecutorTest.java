@@ -0,0 +1,79 @@
+package db;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link JdbcExecutor} class.
+ */
+class JdbcExecutorTest {
+
+    /**
+     * Tests that calls from virtual threads run on the platform pool and calls from platform threads
+     * run on the caller.
+     */
+    @Test
+    void testVirtualCallersAreMovedToPlatformThreads() throws InterruptedException {
+        try (JdbcExecutor executor = new JdbcExecutor(2)) {
+            assertSame(Thread.currentThread(), executor.call(Thread::currentThread));
+
+            AtomicReference<Thread> worker = new AtomicReference<>();
+            Thread caller = Thread.ofVirtual().start(() -> worker.set(executor.call(Thread::currentThread)));
+            caller.join();
+
+            assertNotNull(worker.get());
+            assertFalse(worker.get().isVirtual());
+            assertTrue(worker.get().getName().startsWith("jdbc-"));
+        }
+    }
+
+    /**
+     * Tests that a failing call rethrows its exception in the virtual caller and that an interrupted
+     * caller still receives the result and keeps its interrupt status.
+     */
+    @Test
+    void testExceptionsAndInterrupts() throws InterruptedException {
+        try (JdbcExecutor executor = new JdbcExecutor(1)) {
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread failing = Thread.ofVirtual().start(() -> {
+                try {
+                    executor.call(() -> {
+                        throw new IllegalStateException("boom");
+                    });
+                } catch (IllegalStateException e) {
+                    failure.set(e);
+                }
+            });
+            failing.join();
+            assertEquals("boom", failure.get().getMessage());
+
+            AtomicReference<String> result = new AtomicReference<>();
+            AtomicBoolean interrupted = new AtomicBoolean();
+            Thread caller = Thread.ofVirtual().start(() -> {
+                Thread.currentThread().interrupt();
+                result.set(executor.call(() -> "done"));
+                interrupted.set(Thread.currentThread().isInterrupted());
+            });
+            caller.join();
+            assertEquals("done", result.get());
+            assertTrue(interrupted.get());
+        }
+    }
+
+    /**
+     * Tests that calls made after closing still run, on the caller.
+     */
+    @Test
+    void testCallAfterClose() throws InterruptedException {
+        JdbcExecutor executor = new JdbcExecutor(1);
+        executor.close();
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        Thread caller = Thread.ofVirtual().start(() -> worker.set(executor.call(Thread::currentThread)));
+        caller.join();
+        assertSame(caller, worker.get());
+    }
+}
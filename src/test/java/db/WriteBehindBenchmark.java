@@ -0,0 +1,55 @@
+package db;
+
+import airline.CargoPlane;
+import airline.Plane;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Single-plane write throughput of {@link DatabaseManager}, committing every write on its own and
+ * in write-behind mode with growing batch sizes. Uses the {@link StorageProfile#DURABILITY} profile,
+ * so every commit is synced to disk.
+ * <p>
+ * Not a unit test; run it by hand, e.g. after {@code mvn test-compile}:
+ * </p>
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;sqlite and slf4j jars&gt; db.WriteBehindBenchmark [writes]
+ * </pre>
+ */
+public class WriteBehindBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int writes = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        Path dir = Files.createTempDirectory("write-behind-benchmark");
+
+        run("autocommit", dir, writes, null);
+        for (int batch : new int[]{1, 10, 100, 1000}) {
+            run("write-behind, batch " + batch, dir, writes,
+                    new WriteBehindPolicy(batch, Duration.ofMillis(200), Math.max(batch, 10_000)));
+        }
+    }
+
+    private static void run(String name, Path dir, int writes, WriteBehindPolicy policy) throws IOException {
+        Path file = dir.resolve(name.replaceAll("\\W+", "-") + ".db");
+        Files.deleteIfExists(file);
+        try (DatabaseManager db = new DatabaseManager("jdbc:sqlite:" + file, 2, StorageProfile.DURABILITY, policy)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < writes; i++) {
+                Plane plane = new CargoPlane("Hauler " + i, 50 + i % 40, 4000, 5.0, 600, 750, 9000);
+                db.addPlane(plane);
+                // Every tenth write edits the plane added just before, which write-behind merges
+                if (i % 10 == 9) {
+                    plane.setRange(4500);
+                    db.updatePlane(plane);
+                }
+            }
+            db.flush();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-26s %,8.0f writes/s  (%,d planes, %,d checkouts of the writer)%n",
+                    name, writes / seconds, writes, db.getPoolMetrics().writerCheckouts());
+        }
+    }
+}
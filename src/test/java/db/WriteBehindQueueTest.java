@@ -0,0 +1,148 @@
+package db;
+
+import airline.CargoPlane;
+import airline.Plane;
+import db.WriteBehindQueue.Kind;
+import db.WriteBehindQueue.PendingWrite;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link WriteBehindQueue} class.
+ */
+class WriteBehindQueueTest {
+
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    private final List<List<PendingWrite>> groups = new CopyOnWriteArrayList<>();
+
+    private static Plane plane(String model) {
+        return new CargoPlane(model, 50, 4000, 5.0, 600, 750, 9000);
+    }
+
+    /**
+     * Tests that changes of one plane are merged into one write and that an insert followed by a
+     * delete writes nothing.
+     */
+    @Test
+    void testMergesChangesPerPlane() {
+        Plane edited = plane("Edited");
+        try (WriteBehindQueue queue = new WriteBehindQueue(new WriteBehindPolicy(100, NEVER, 1000), record(0))) {
+            queue.add(new PendingWrite(Kind.INSERT, 1, plane("New")));
+            queue.add(new PendingWrite(Kind.UPDATE, 1, edited));
+            queue.add(new PendingWrite(Kind.UPDATE, 2, plane("First")));
+            queue.add(new PendingWrite(Kind.UPDATE, 2, plane("Second")));
+            queue.add(new PendingWrite(Kind.DELETE, 2, null));
+            queue.add(new PendingWrite(Kind.INSERT, 3, plane("Short-lived")));
+            queue.add(new PendingWrite(Kind.DELETE, 3, null));
+
+            assertEquals(Kind.INSERT, queue.find(1).kind());
+            assertNull(queue.find(3));
+            assertTrue(groups.isEmpty(), "nothing is written before a threshold or a flush");
+
+            assertTrue(queue.flush(5, TimeUnit.SECONDS));
+            assertEquals(List.of(List.of(new PendingWrite(Kind.INSERT, 1, edited),
+                    new PendingWrite(Kind.DELETE, 2, null))), groups);
+            assertNull(queue.find(1));
+        }
+    }
+
+    /**
+     * Tests that a queued delete is final and that changes of missing planes are rejected.
+     */
+    @Test
+    void testDeleteIsFinal() {
+        List<Integer> checked = new ArrayList<>();
+        IntPredicate stored = id -> {
+            checked.add(id);
+            return id != 9;
+        };
+        try (WriteBehindQueue queue = new WriteBehindQueue(new WriteBehindPolicy(100, NEVER, 1000), record(0))) {
+            assertTrue(queue.addIfExists(new PendingWrite(Kind.DELETE, 1, null), stored));
+            assertFalse(queue.addIfExists(new PendingWrite(Kind.UPDATE, 1, plane("Late")), stored));
+            queue.add(new PendingWrite(Kind.UPDATE, 1, plane("Later")));
+            assertEquals(Kind.DELETE, queue.find(1).kind());
+            assertFalse(queue.addIfExists(new PendingWrite(Kind.UPDATE, 9, plane("Missing")), stored));
+            assertEquals(List.of(1, 9), checked, "the row is only checked while nothing is queued");
+
+            assertTrue(queue.flush(5, TimeUnit.SECONDS));
+            assertEquals(List.of(List.of(new PendingWrite(Kind.DELETE, 1, null))), groups);
+        }
+    }
+
+    /**
+     * Tests that a group is committed once the queue holds the batch size, without a flush.
+     */
+    @Test
+    void testSizeThreshold() throws InterruptedException {
+        CountDownLatch written = new CountDownLatch(1);
+        WriteBehindQueue.GroupWriter writer = group -> {
+            groups.add(new ArrayList<>(group));
+            written.countDown();
+            return 0;
+        };
+        try (WriteBehindQueue queue = new WriteBehindQueue(new WriteBehindPolicy(3, NEVER, 10), writer)) {
+            for (int id = 1; id <= 3; id++) {
+                queue.add(new PendingWrite(Kind.UPDATE, id, plane("P" + id)));
+            }
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+            assertEquals(3, groups.get(0).size());
+        }
+    }
+
+    /**
+     * Tests that a queued change is committed after the delay, without a flush.
+     */
+    @Test
+    void testTimeThreshold() throws InterruptedException {
+        CountDownLatch written = new CountDownLatch(1);
+        WriteBehindQueue.GroupWriter writer = group -> {
+            written.countDown();
+            return 0;
+        };
+        try (WriteBehindQueue queue = new WriteBehindQueue(
+                new WriteBehindPolicy(100, Duration.ofMillis(50), 1000), writer)) {
+            queue.add(new PendingWrite(Kind.DELETE, 7, null));
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Tests that a flush reports dropped writes once, that a full queue makes the caller wait for a
+     * commit instead of growing, and that closing commits what is queued and rejects new changes.
+     */
+    @Test
+    void testFailuresCapacityAndClose() {
+        WriteBehindQueue queue = new WriteBehindQueue(new WriteBehindPolicy(2, NEVER, 2), record(1));
+        queue.add(new PendingWrite(Kind.UPDATE, 1, plane("A")));
+        queue.add(new PendingWrite(Kind.UPDATE, 2, plane("B")));
+        queue.add(new PendingWrite(Kind.UPDATE, 3, plane("C")));
+        assertFalse(queue.flush(5, TimeUnit.SECONDS));
+        assertTrue(queue.flush(5, TimeUnit.SECONDS));
+        assertEquals(2, groups.size());
+
+        queue.add(new PendingWrite(Kind.DELETE, 4, null));
+        queue.close();
+        assertEquals(3, groups.size());
+        assertFalse(queue.add(new PendingWrite(Kind.DELETE, 5, null)));
+    }
+
+    /**
+     * Records every group and reports the given number of dropped writes for it.
+     */
+    private WriteBehindQueue.GroupWriter record(int dropped) {
+        return group -> {
+            groups.add(new ArrayList<>(group));
+            return dropped;
+        };
+    }
+}
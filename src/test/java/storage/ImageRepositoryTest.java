@@ -0,0 +1,79 @@
+package storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ImageRepository} class.
+ */
+class ImageRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that identical content is stored once and equal names with different content are kept apart.
+     */
+    @Test
+    void testStoreDeduplicatesByContent() throws IOException {
+        ImageRepository repository = new ImageRepository(tempDir.resolve("images"));
+        Path first = write("one/plane.jpg", "first picture");
+        Path sameContent = write("two/other-name.JPG", "first picture");
+        Path sameName = write("three/plane.jpg", "second picture");
+
+        String stored = repository.store(first);
+        assertEquals(stored, repository.store(sameContent));
+        String other = repository.store(sameName);
+
+        assertNotEquals(stored, other);
+        String hash = ContentHash.of(first);
+        assertTrue(stored.endsWith(hash.substring(0, 2) + "/" + hash + ".jpg"));
+        assertEquals("first picture", Files.readString(Path.of(stored)));
+        assertEquals("second picture", Files.readString(Path.of(other)));
+        try (var files = Files.walk(repository.getRoot())) {
+            assertEquals(2, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    /**
+     * Tests that garbage collection deletes only old, unreferenced, content-addressed files.
+     */
+    @Test
+    void testCollectGarbage() throws IOException {
+        ImageRepository repository = new ImageRepository(tempDir.resolve("images"));
+        String kept = repository.store(write("a.png", "kept"));
+        String orphan = repository.store(write("b.png", "orphan"));
+        String recent = repository.store(write("c.png", "recent"));
+        Path legacy = write("images/Boeing_737.jpg", "legacy");
+        FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+        for (Path file : new Path[]{Path.of(kept), Path.of(orphan), legacy}) {
+            Files.setLastModifiedTime(file, old);
+        }
+
+        int deleted = repository.collectGarbage(Map.of(kept, 2), Duration.ofHours(1));
+
+        assertEquals(1, deleted);
+        assertTrue(Files.exists(Path.of(kept)));
+        assertFalse(Files.exists(Path.of(orphan)));
+        assertTrue(Files.exists(Path.of(recent)));
+        assertTrue(Files.exists(legacy));
+        assertEquals(0, new ImageRepository(tempDir.resolve("missing")).collectGarbage(Map.of(), Duration.ZERO));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+}
@@ -0,0 +1,155 @@
+package storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ThumbnailStore} class.
+ * Generates small synthetic PNG images in a temporary directory.
+ */
+class ThumbnailStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that a thumbnail is scaled to the size width and reused on the next lookup.
+     */
+    @Test
+    void testThumbnailIsScaledAndReused() throws IOException {
+        Path source = writeImage("plane.png", 1000, 500, Color.BLUE);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("cache"));
+
+        Path card = store.thumbnail(source, ThumbnailStore.Size.CARD).orElseThrow();
+        BufferedImage image = ImageIO.read(card.toFile());
+        assertEquals(180, image.getWidth());
+        assertEquals(90, image.getHeight());
+        assertEquals(ContentHash.of(source) + ".jpg", card.getFileName().toString());
+
+        FileTime written = Files.getLastModifiedTime(card);
+        store.close();
+        assertEquals(card, new ThumbnailStore(tempDir.resolve("cache"))
+                .thumbnail(source, ThumbnailStore.Size.CARD).orElseThrow());
+        assertEquals(written, Files.getLastModifiedTime(card));
+    }
+
+    /**
+     * Tests that identical images share a thumbnail and a changed source gets a new one.
+     */
+    @Test
+    void testContentKeyedThumbnails() throws IOException {
+        Path first = writeImage("a.png", 400, 400, Color.RED);
+        Path copy = tempDir.resolve("b.png");
+        Files.copy(first, copy);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("cache"));
+
+        Path thumbA = store.thumbnail(first, ThumbnailStore.Size.CARD).orElseThrow();
+        assertEquals(thumbA, store.thumbnail(copy, ThumbnailStore.Size.CARD).orElseThrow());
+
+        writeImage("b.png", 400, 200, Color.GREEN);
+        Files.setLastModifiedTime(copy, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        Path thumbB = store.thumbnail(copy, ThumbnailStore.Size.CARD).orElseThrow();
+        assertNotEquals(thumbA, thumbB);
+        assertEquals(90, ImageIO.read(thumbB.toFile()).getHeight());
+    }
+
+    /**
+     * Tests batch precomputation, small images that are not scaled up, and unreadable sources.
+     */
+    @Test
+    void testPrecompute() throws IOException {
+        Path small = writeImage("small.png", 100, 50, Color.BLACK);
+        Path large = writeImage("large.png", 2000, 1000, Color.WHITE);
+        Path broken = tempDir.resolve("broken.jpg");
+        Files.writeString(broken, "not an image");
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("cache"));
+
+        int ready = store.precompute(List.of(small, large, broken, tempDir.resolve("missing.jpg")),
+                ThumbnailStore.Size.values());
+
+        assertEquals(4, ready);
+        Optional<Path> preview = store.thumbnail(small, ThumbnailStore.Size.PREVIEW);
+        assertEquals(100, ImageIO.read(preview.orElseThrow().toFile()).getWidth());
+        assertEquals(800, ImageIO.read(store.thumbnail(large, ThumbnailStore.Size.PREVIEW)
+                .orElseThrow().toFile()).getWidth());
+        assertTrue(store.thumbnail(broken, ThumbnailStore.Size.CARD).isEmpty());
+    }
+
+    /**
+     * Tests that the index file is written once per batch and on close, not once per new source.
+     */
+    @Test
+    void testIndexSavedPerBatch() throws IOException {
+        Path first = writeImage("first.png", 300, 150, Color.RED);
+        Path second = writeImage("second.png", 300, 150, Color.GREEN);
+        Path index = tempDir.resolve("cache").resolve("index.properties");
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("cache"));
+
+        store.thumbnail(first, ThumbnailStore.Size.CARD).orElseThrow();
+        assertFalse(Files.exists(index), "single lookups are not saved at once");
+        store.precompute(List.of(second), ThumbnailStore.Size.CARD);
+        assertEquals(2, Files.readAllLines(index).stream().filter(line -> line.contains(".png")).count());
+
+        Files.delete(index);
+        store.close();
+        assertFalse(Files.exists(index), "nothing new to save");
+        Path third = writeImage("third.png", 300, 150, Color.BLUE);
+        store.thumbnail(third, ThumbnailStore.Size.CARD).orElseThrow();
+        store.close();
+        assertTrue(Files.exists(index));
+    }
+
+    /**
+     * Tests that the image garbage collection deletes the thumbnails of the images it deletes, but keeps
+     * thumbnails still used by another image with the same content.
+     */
+    @Test
+    void testCollectedImagesLoseTheirThumbnails() throws IOException {
+        ImageRepository repository = new ImageRepository(tempDir.resolve("images"));
+        Path orphan = Path.of(repository.store(writeImage("orphan.png", 300, 150, Color.RED)));
+        Path shared = Path.of(repository.store(writeImage("shared.png", 300, 150, Color.GREEN)));
+        Path sharedCopy = tempDir.resolve("legacy.png");
+        Files.copy(shared, sharedCopy);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("cache"));
+        Path orphanCard = store.thumbnail(orphan, ThumbnailStore.Size.CARD).orElseThrow();
+        Path orphanPreview = store.thumbnail(orphan, ThumbnailStore.Size.PREVIEW).orElseThrow();
+        Path sharedCard = store.thumbnail(shared, ThumbnailStore.Size.CARD).orElseThrow();
+        assertEquals(sharedCard, store.thumbnail(sharedCopy, ThumbnailStore.Size.CARD).orElseThrow());
+
+        assertEquals(2, repository.collectGarbage(Map.of(), Duration.ZERO, store::forget));
+
+        assertFalse(Files.exists(orphanCard));
+        assertFalse(Files.exists(orphanPreview));
+        assertTrue(Files.exists(sharedCard));
+        assertEquals(0, store.forget(tempDir.resolve("never-indexed.png")));
+        store.close();
+        assertFalse(Files.readString(tempDir.resolve("cache").resolve("index.properties"))
+                .contains(orphan.getFileName().toString()));
+    }
+
+    private Path writeImage(String name, int width, int height, Color color) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        Path file = tempDir.resolve(name);
+        ImageIO.write(image, "png", file.toFile());
+        return file;
+    }
+}
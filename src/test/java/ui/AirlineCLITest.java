@@ -5,8 +5,12 @@ import airline.PassengerPlane;
 import airline.Plane;
 import db.DatabaseManager;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Scanner;
 
@@ -33,6 +37,7 @@ class AirlineCLITest {
 
     @AfterEach
     void teardown() {
+        dbManager.close();
         File dbFile = new File(TEST_DB_PATH);
         if (dbFile.exists()) dbFile.delete();
     }
@@ -77,7 +82,7 @@ class AirlineCLITest {
                 // 16. Unknown menu option
                 "999",
                 // 17. Exit
-                "7"
+                "9"
         ) + "\n";
 
         ByteArrayInputStream in = new ByteArrayInputStream(userInput.getBytes());
@@ -115,4 +120,64 @@ class AirlineCLITest {
         assertTrue(output.contains("❌ Невідомий вибір. Спробуйте ще."));
         assertTrue(output.contains("Ваш вибір: "));
     }
+
+    /**
+     * Tests the import command with a valid file, a file with rejected rows and an unsupported file.
+     */
+    @Test
+    void testImportCommand(@TempDir Path tempDir) throws IOException {
+        Path csv = tempDir.resolve("fleet.csv");
+        Files.writeString(csv, String.join("\n",
+                "type,model,capacity,cargo_capacity,range_km,fuel_consumption,cruising_speed,max_speed,service_ceiling",
+                "Cargo,An-124,0,120,4800,9.8,750,850,12000",
+                "Cargo,Broken,0,x,4800,9.8,750,850,12000"));
+        String userInput = String.join("\n", "7", csv.toString(), "7", tempDir.resolve("fleet.xml").toString(), "9") + "\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new AirlineCLI(airline, new Scanner(new ByteArrayInputStream(userInput.getBytes())), new PrintStream(out)).run();
+
+        String output = out.toString();
+        assertTrue(output.contains("✅ Імпортовано: 1, відхилено: 1"));
+        assertTrue(output.contains("❌ Непідтримуваний файл"));
+        assertEquals("An-124", airline.getPlanes().get(0).getModel());
+        assertTrue(Files.exists(tempDir.resolve("fleet.csv.errors.tsv")));
+    }
+
+    /**
+     * Tests that the export command writes a file the importer can read back.
+     */
+    @Test
+    void testExportCommand(@TempDir Path tempDir) throws IOException {
+        airline.addPlane(new PassengerPlane("Boeing 737", 180, 20, 3500, 2.7, 800, 900, 12000));
+        Path jsonl = tempDir.resolve("fleet.jsonl");
+        String userInput = String.join("\n", "8", jsonl.toString(), "9") + "\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new AirlineCLI(airline, new Scanner(new ByteArrayInputStream(userInput.getBytes())), new PrintStream(out)).run();
+
+        assertTrue(out.toString().contains("✅ Експортовано літаків: 1"));
+        List<String> lines = Files.readAllLines(jsonl);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"model\": \"Boeing 737\""), lines.get(0));
+    }
+
+    /**
+     * Tests that editing or removing a plane that disappears between the model and ID lookups reports
+     * it as not found.
+     */
+    @Test
+    void testPlaneRemovedDuringLookup() {
+        Airline racing = Mockito.mock(Airline.class);
+        Mockito.when(racing.getPlaneIdByModel("Ghost")).thenReturn(7);
+        Mockito.when(racing.findPlaneById(7)).thenReturn(null);
+        String userInput = String.join("\n", "3", "Ghost", "2", "Ghost", "9") + "\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new AirlineCLI(racing, new Scanner(new ByteArrayInputStream(userInput.getBytes())), new PrintStream(out)).run();
+
+        String output = out.toString();
+        assertEquals(2, output.split("❌ Літак не знайдено.", -1).length - 1, output);
+        Mockito.verify(racing, Mockito.never()).removePlane(Mockito.anyInt());
+        Mockito.verify(racing, Mockito.never()).updatePlane(Mockito.any());
+    }
 }
@@ -0,0 +1,46 @@
+package ui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ConsoleInput} class.
+ */
+class ConsoleInputTest {
+
+    /**
+     * Tests that a session on a virtual thread reads the submitted lines in order and sees the end
+     * of the input once the console is closed.
+     */
+    @Test
+    void testLinesAndEndOfInput() throws InterruptedException {
+        ConsoleInput input = new ConsoleInput();
+        AtomicReference<String> lines = new AtomicReference<>("");
+        AtomicReference<Throwable> end = new AtomicReference<>();
+        Thread session = Thread.ofVirtual().start(() -> {
+            Scanner scanner = new Scanner(input);
+            try {
+                while (true) {
+                    lines.set(lines.get() + scanner.nextLine() + ";");
+                }
+            } catch (NoSuchElementException e) {
+                end.set(e);
+            }
+        });
+
+        input.submit("4");
+        input.submit("пошук Boeing");
+        input.submit("");
+        input.close();
+        session.join(5000);
+
+        assertFalse(session.isAlive());
+        assertEquals("4;пошук Boeing;;", lines.get());
+        assertNotNull(end.get());
+    }
+}
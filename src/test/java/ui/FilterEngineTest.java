@@ -0,0 +1,154 @@
+package ui;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link FilterEngine} class.
+ * Results are published on the engine thread instead of the FX thread.
+ */
+class FilterEngineTest {
+
+    private FilterEngine<String, String> engine;
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    /**
+     * Tests that rapid requests are coalesced into one computation of the newest request.
+     */
+    @Test
+    void testDebounceCoalescesRequests() throws InterruptedException {
+        AtomicInteger computations = new AtomicInteger();
+        List<String> published = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        engine = new FilterEngine<>((q, superseded) -> {
+            computations.incrementAndGet();
+            return q.toUpperCase();
+        }, r -> {
+            published.add(r);
+            done.countDown();
+        }, Runnable::run, 100);
+
+        for (String prefix : List.of("b", "bo", "boe", "boei", "boeing")) {
+            engine.submit(prefix);
+        }
+        assertTrue(engine.hasPending());
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        assertEquals(List.of("BOEING"), published);
+        assertEquals(1, computations.get());
+    }
+
+    /**
+     * Tests that the result of a request overtaken while it was being computed is dropped.
+     */
+    @Test
+    void testStaleResultIsDropped() throws InterruptedException {
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch releaseSlow = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<String> published = new CopyOnWriteArrayList<>();
+        engine = new FilterEngine<>((q, superseded) -> {
+            if (q.equals("slow")) {
+                slowStarted.countDown();
+                try {
+                    releaseSlow.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return q;
+        }, r -> {
+            published.add(r);
+            done.countDown();
+        }, Runnable::run, 0);
+
+        engine.submitNow("slow");
+        assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+        engine.submitNow("fast");
+        releaseSlow.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(List.of("fast"), published);
+        assertFalse(engine.hasPending());
+    }
+
+    /**
+     * Tests that a failed request stops counting as pending and does not block later requests.
+     */
+    @Test
+    void testFailedRequestIsNotPending() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        engine = new FilterEngine<>((q, superseded) -> {
+            if (q.equals("bad")) {
+                throw new IllegalStateException("compute failure");
+            }
+            return q;
+        }, r -> done.countDown(), Runnable::run, 0);
+
+        engine.submitNow("bad");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (engine.hasPending() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(engine.hasPending());
+
+        engine.submitNow("good");
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertFalse(engine.hasPending());
+    }
+
+    /**
+     * Tests that a running computation sees that it was superseded and stops before finishing.
+     */
+    @Test
+    void testSupersededComputationStopsEarly() throws InterruptedException {
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicInteger chunksScanned = new AtomicInteger();
+        List<String> published = new CopyOnWriteArrayList<>();
+        engine = new FilterEngine<>((q, superseded) -> {
+            if (q.equals("slow")) {
+                slowStarted.countDown();
+                for (int chunk = 0; chunk < 1_000; chunk++) {
+                    if (superseded.getAsBoolean()) {
+                        throw new CancellationException();
+                    }
+                    chunksScanned.incrementAndGet();
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            return q;
+        }, r -> {
+            published.add(r);
+            done.countDown();
+        }, Runnable::run, 0);
+
+        engine.submitNow("slow");
+        assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+        engine.submitNow("fast");
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("fast"), published);
+        assertTrue(chunksScanned.get() < 1_000, "scanned " + chunksScanned.get() + " chunks");
+        assertFalse(engine.hasPending());
+    }
+}
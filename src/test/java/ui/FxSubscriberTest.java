@@ -0,0 +1,58 @@
+package ui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link FxSubscriber} class.
+ */
+class FxSubscriberTest {
+
+    /**
+     * Tests that items are handled on the UI executor and that the next item is requested only
+     * after the previous one has been handled, even if the handler fails.
+     */
+    @Test
+    void testRequestsOneItemAtATime() {
+        LinkedBlockingQueue<Runnable> uiQueue = new LinkedBlockingQueue<>();
+        Executor ui = uiQueue::add;
+        List<String> handled = new ArrayList<>();
+        FxSubscriber<String> subscriber = new FxSubscriber<>(item -> {
+            handled.add(item);
+            if (item.equals("bad")) {
+                throw new IllegalStateException("handler failure");
+            }
+        }, ui);
+        List<Long> requests = new ArrayList<>();
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                requests.add(n);
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        assertEquals(List.of(1L), requests);
+
+        subscriber.onNext("bad");
+        assertTrue(handled.isEmpty(), "handled on the UI thread only");
+        assertEquals(1, requests.size());
+        uiQueue.poll().run();
+        assertEquals(List.of("bad"), handled);
+        assertEquals(List.of(1L, 1L), requests);
+
+        subscriber.onNext("good");
+        uiQueue.poll().run();
+        assertEquals(List.of("bad", "good"), handled);
+        assertEquals(3, requests.size());
+    }
+}
@@ -0,0 +1,162 @@
+package ui;
+
+import airline.Airline;
+import airline.CargoPlane;
+import airline.PassengerPlane;
+import airline.util.ExecutionMode;
+import db.DatabaseManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * How many concurrent CLI sessions one JVM can host, with platform or virtual session threads.
+ * <p>
+ * Every session is an {@link AirlineCLI} on its own thread, reading from a {@link ConsoleInput} and
+ * sharing one {@link Airline}, as the console windows of the GUI do. The benchmark starts the
+ * sessions, lets each list the fleet and then wait for input, so they are all idle at once; then a
+ * burst of sessions adds a plane each, which goes through the airline to the database; finally all
+ * inputs are closed and the sessions end.
+ * </p>
+ * <p>
+ * Not a unit test; run it by hand, e.g. after {@code mvn test-compile}:
+ * </p>
+ * <pre>
+ * java -Xmx4g -cp target/classes:target/test-classes:&lt;sqlite and slf4j jars&gt; \
+ *     ui.SessionCapacityBenchmark platform|virtual [sessions] [writers]
+ * </pre>
+ */
+public class SessionCapacityBenchmark {
+
+    private static final String PROMPT = "Ваш вибір: ";
+    private static final long PHASE_TIMEOUT_MINUTES = 10;
+
+    public static void main(String[] args) throws Exception {
+        ExecutionMode mode = args.length > 0 ? ExecutionMode.parse(args[0]) : ExecutionMode.VIRTUAL;
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int writers = Math.min(sessions, args.length > 2 ? Integer.parseInt(args[2]) : 1_000);
+        ExecutionMode.set(mode);
+
+        try (DatabaseManager db = new DatabaseManager("jdbc:sqlite::memory:")) {
+            Airline airline = new Airline(db);
+            for (int i = 0; i < 10; i++) {
+                airline.addPlane(new PassengerPlane("Seed jet " + i, 150, 12, 6000, 3.0, 800, 900, 11000));
+                airline.addPlane(new CargoPlane("Seed hauler " + i, 60, 5000, 6.0, 650, 800, 10000));
+            }
+            System.out.printf("%s threads, %,d sessions, %,d writers, %d cores%n",
+                    mode, sessions, writers, Runtime.getRuntime().availableProcessors());
+
+            // Each menu prompt counts down the latch of the current phase
+            AtomicReference<CountDownLatch> phase = new AtomicReference<>(new CountDownLatch(2 * sessions));
+            List<ConsoleInput> inputs = new ArrayList<>(sessions);
+            List<Thread> threads = new ArrayList<>(sessions);
+
+            long start = System.nanoTime();
+            try {
+                for (int i = 0; i < sessions; i++) {
+                    ConsoleInput input = new ConsoleInput();
+                    input.submit("4");
+                    PrintStream out = new PromptCounter(phase);
+                    threads.add(ExecutionMode.start("session-" + i,
+                            () -> new AirlineCLI(airline, new Scanner(input), out).run()));
+                    inputs.add(input);
+                }
+            } catch (OutOfMemoryError e) {
+                System.out.printf("FAILED after %,d sessions: %s%n", threads.size(), e);
+                System.exit(1);
+            }
+            await(phase.get(), "idle");
+            System.out.printf("idle:   %,d sessions up in %,d ms, heap %,d MB, RSS %s%n",
+                    sessions, elapsedMs(start), usedHeapMb(), residentSetSize());
+
+            phase.set(new CountDownLatch(writers));
+            start = System.nanoTime();
+            for (int i = 0; i < writers; i++) {
+                for (String line : List.of("1", "1", "Burst " + i, "120", "8", "5000", "3.5", "700", "900", "11000")) {
+                    inputs.get(i).submit(line);
+                }
+            }
+            await(phase.get(), "burst");
+            long burstMs = elapsedMs(start);
+            System.out.printf("burst:  %,d planes added in %,d ms (%,.0f writes/s), fleet %,d%n",
+                    writers, burstMs, writers * 1000.0 / Math.max(1, burstMs), airline.getSnapshot().size());
+
+            start = System.nanoTime();
+            inputs.forEach(input -> input.submit("9"));
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            System.out.printf("exit:   all sessions ended in %,d ms%n", elapsedMs(start));
+        }
+    }
+
+    private static void await(CountDownLatch latch, String phase) throws InterruptedException {
+        if (!latch.await(PHASE_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            System.out.printf("FAILED: %s phase incomplete, %,d prompts missing%n", phase, latch.getCount());
+            System.exit(1);
+        }
+    }
+
+    private static long elapsedMs(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static long usedHeapMb() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+    }
+
+    private static String residentSetSize() throws IOException {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.exists(status)) {
+            return "n/a";
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> line.substring(6).trim())
+                .findFirst().orElse("n/a");
+    }
+
+    /**
+     * Discards the output of a session and counts its menu prompts.
+     */
+    private static final class PromptCounter extends PrintStream {
+        private final AtomicReference<CountDownLatch> phase;
+
+        PromptCounter(AtomicReference<CountDownLatch> phase) {
+            super(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8);
+            this.phase = phase;
+        }
+
+        @Override
+        public void print(String text) {
+            if (PROMPT.equals(text)) {
+                phase.get().countDown();
+            }
+        }
+
+        @Override
+        public PrintStream printf(String format, Object... args) {
+            return this;
+        }
+
+        @Override
+        public void println(String text) {
+        }
+
+        @Override
+        public void println(Object value) {
+        }
+    }
+}